@@ -7,6 +7,7 @@ plugins {
     id("com.google.gms.google-services") version "4.4.4" apply false
     alias(libs.plugins.spring.boot) apply false
     alias(libs.plugins.spring.dependency.management) apply false
+    alias(libs.plugins.jmh) apply false
     id("com.google.devtools.ksp") version "2.0.21-1.0.27" apply false
     jacoco
 }
@@ -0,0 +1,55 @@
+import io.spring.gradle.dependencymanagement.dsl.DependencyManagementExtension
+
+plugins {
+    java
+    alias(libs.plugins.spring.dependency.management)
+    alias(libs.plugins.jmh)
+}
+
+group = "com.example"
+version = "0.0.1-SNAPSHOT"
+
+java {
+    toolchain {
+        languageVersion.set(JavaLanguageVersion.of(17))
+    }
+}
+
+configure<DependencyManagementExtension> {
+    imports {
+        mavenBom("org.springframework.boot:spring-boot-dependencies:${libs.versions.springBoot.get()}")
+    }
+}
+
+dependencies {
+    jmh(project(":services:ledger-service"))
+    jmh(project(":services:risk-service"))
+    jmh(project(":services:notification-service"))
+    jmh("com.google.firebase:firebase-admin:9.3.0")
+    jmh(libs.spring.boot.starter.web)
+    jmh(libs.spring.boot.starter.data.jpa)
+    jmh(libs.spring.boot.starter.actuator)
+    jmh("org.springframework:spring-test")
+    jmh("org.flywaydb:flyway-core")
+    jmh(libs.h2)
+}
+
+val riskMigrations = tasks.register<Sync>("riskMigrations") {
+    from(project(":services:risk-service").file("src/main/resources/db/migration"))
+    into(layout.buildDirectory.dir("generated/risk-migrations/db/risk-migration"))
+}
+
+sourceSets.named("jmh") {
+    resources.srcDir(files(layout.buildDirectory.dir("generated/risk-migrations")).builtBy(riskMigrations))
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+    providers.gradleProperty("jmhIncludes").orNull?.let { includes.set(listOf(it)) }
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
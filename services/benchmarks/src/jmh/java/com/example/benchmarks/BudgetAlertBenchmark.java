@@ -0,0 +1,151 @@
+package com.example.benchmarks;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import com.example.risk.config.InsightsCacheProperties;
+import com.example.risk.config.MarketDataProperties;
+import com.example.risk.domain.RiskCase;
+import com.example.risk.repository.InsightsCache;
+import com.example.risk.repository.InsightsRepository;
+import com.example.risk.repository.RiskCaseRepository;
+import com.example.risk.repository.TransactionRepository;
+import com.example.risk.service.InsightsService;
+import com.example.risk.service.MarketDataClient;
+import com.example.risk.service.RiskCaseService;
+import com.example.risk.web.controller.BudgetAlertController;
+import com.example.risk.web.dto.BudgetAlertResponse;
+import com.example.risk.web.dto.BudgetAlertWebhookRequest;
+import com.zaxxer.hikari.HikariDataSource;
+import db.migration.V2__risk_case_sequence;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.flywaydb.core.Flyway;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.http.MediaType;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BudgetAlertBenchmark {
+
+    private static final String BODY = """
+            {"userId":"%s","category":"Alimentación","limit":400.0,"spent":320.0,"progress":0.8,"threshold":0.75}
+            """.formatted(Fixtures.USER_ID);
+
+    private AnnotationConfigApplicationContext context;
+    private InsightsService insightsService;
+    private MockMvc mockMvc;
+
+    @Setup
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(RiskPersistenceConfig.class);
+        insightsService = new InsightsService(
+                new InsightsRepository(null),
+                new InsightsCache(new InsightsCacheProperties(), new SimpleMeterRegistry()),
+                new TransactionRepository(null),
+                context.getBean(RiskCaseService.class),
+                new MarketDataClient(new RestTemplateBuilder(), new MarketDataProperties(), new SimpleMeterRegistry()),
+                "USD"
+        );
+        mockMvc = MockMvcBuilders.standaloneSetup(new BudgetAlertController(insightsService)).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult controller() throws Exception {
+        return mockMvc.perform(post("/api/v1/budget-alerts")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(BODY))
+                .andReturn();
+    }
+
+    @Benchmark
+    public BudgetAlertResponse service() {
+        return insightsService.handleBudgetAlert(
+                new BudgetAlertWebhookRequest(Fixtures.USER_ID, "Alimentación", 400.0, 320.0, 0.8, 0.75)
+        );
+    }
+
+    @Configuration
+    @EnableJpaRepositories(basePackageClasses = RiskCaseRepository.class)
+    @EnableTransactionManagement
+    static class RiskPersistenceConfig {
+
+        @Bean(destroyMethod = "close")
+        HikariDataSource dataSource() {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setDriverClassName("org.h2.Driver");
+            dataSource.setJdbcUrl("jdbc:h2:mem:risk-bench;DB_CLOSE_DELAY=-1");
+            dataSource.setUsername("sa");
+            return dataSource;
+        }
+
+        @Bean(initMethod = "migrate")
+        Flyway flyway(DataSource dataSource) {
+            // Every service ships db/migration and the jmh jar merges them, so the build copies risk-service's
+            // scripts to their own folder and its Java migration is registered by hand.
+            return Flyway.configure()
+                    .dataSource(dataSource)
+                    .locations("classpath:db/risk-migration")
+                    .javaMigrations(new V2__risk_case_sequence())
+                    .load();
+        }
+
+        @Bean
+        LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource, Flyway flyway) {
+            Properties properties = new Properties();
+            properties.setProperty("hibernate.hbm2ddl.auto", "validate");
+            properties.setProperty("hibernate.physical_naming_strategy", CamelCaseToUnderscoresNamingStrategy.class.getName());
+            LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+            factory.setDataSource(dataSource);
+            factory.setPackagesToScan(RiskCase.class.getPackageName());
+            factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+            factory.setJpaProperties(properties);
+            return factory;
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+            return new JpaTransactionManager(entityManagerFactory);
+        }
+
+        @Bean
+        RiskCaseService riskCaseService(RiskCaseRepository repository) {
+            return new RiskCaseService(repository);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.benchmarks;
+
+import com.example.ledger.domain.Transaction;
+import com.example.ledger.domain.TransactionStatus;
+import com.example.ledger.domain.TransactionType;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public final class Fixtures {
+
+    public static final String USER_ID = "bench-user";
+
+    private static final String[] CATEGORIES = {
+            "Salario", "Alimentación", "Transporte", "Entretenimiento", "Servicios básicos", "Salud",
+            "Educación", "Hogar", "Ingresos extra", "Ropa", "Viajes", "Servicios profesionales"
+    };
+    private static final Instant BASE_TIME = Instant.parse("2025-01-01T00:00:00Z");
+
+    private Fixtures() {
+    }
+
+    public static List<Transaction> transactions(int size, Random random) {
+        List<Transaction> transactions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            transactions.add(transaction("tx-" + i, random));
+        }
+        return transactions;
+    }
+
+    public static Transaction transaction(String id, Random random) {
+        boolean credit = random.nextInt(10) < 3;
+        return new Transaction(
+                id,
+                USER_ID,
+                credit ? TransactionType.CREDIT : TransactionType.DEBIT,
+                BigDecimal.valueOf(100 + random.nextInt(5_000_000), 2),
+                "Movimiento",
+                "Movimiento generado para benchmark",
+                CATEGORIES[random.nextInt(CATEGORIES.length)],
+                LocalDate.of(2025, 1 + random.nextInt(12), 1 + random.nextInt(28)),
+                TransactionStatus.POSTED,
+                "USD",
+                BASE_TIME.plusSeconds(random.nextInt(31_536_000))
+        );
+    }
+}
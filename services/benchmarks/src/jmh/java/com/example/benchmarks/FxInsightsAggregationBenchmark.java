@@ -0,0 +1,72 @@
+package com.example.benchmarks;
+
+import com.example.risk.domain.FxRates;
+import com.example.risk.domain.Transaction;
+import com.example.risk.domain.TransactionType;
+import com.example.risk.service.InsightsAggregator;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FxInsightsAggregationBenchmark {
+
+    private static final String[] CURRENCIES = {"USD", "MXN", "EUR", "JPY"};
+    private static final String[] CATEGORIES = {
+            "Salario", "Alimentación", "Transporte", "Entretenimiento", "Servicios básicos", "Salud"
+    };
+    private static final FxRates RATES = new FxRates("USD", Map.of("MXN", 17.5, "EUR", 0.92, "JPY", 157.0),
+            Instant.parse("2025-01-01T00:00:00Z"), false);
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    @Param({"1", "4"})
+    private int currencies;
+
+    private List<Transaction> transactions;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        transactions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Transaction transaction = new Transaction();
+            transaction.setType(random.nextInt(10) < 3 ? TransactionType.CREDIT : TransactionType.DEBIT);
+            transaction.setCurrency(CURRENCIES[random.nextInt(currencies)]);
+            transaction.setAmount(BigDecimal.valueOf(100 + random.nextInt(5_000_000), 2));
+            transaction.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            transactions.add(transaction);
+        }
+    }
+
+    @Benchmark
+    public void bucketedConversion(Blackhole blackhole) {
+        InsightsAggregator totals = InsightsAggregator.of(transactions, "MXN", RATES);
+        blackhole.consume(totals.income());
+        blackhole.consume(totals.expense());
+        blackhole.consume(totals.expensesByCategory());
+        blackhole.consume(totals.incomesByCategory());
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.benchmarks;
+
+import com.example.ledger.domain.Transaction;
+import com.example.ledger.domain.TransactionType;
+import com.example.ledger.service.InsightsAggregator;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsightsAggregationBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private List<Transaction> transactions;
+
+    @Setup
+    public void setUp() {
+        transactions = Fixtures.transactions(size, new Random(42));
+    }
+
+    @Benchmark
+    public void singlePass(Blackhole blackhole) {
+        for (InsightsAggregator totals : InsightsAggregator.byCurrency(transactions).values()) {
+            blackhole.consume(totals.income());
+            blackhole.consume(totals.expense());
+            blackhole.consume(totals.expensesByCategory());
+            blackhole.consume(totals.incomesByCategory());
+        }
+    }
+
+    @Benchmark
+    public void legacyStreams(Blackhole blackhole) {
+        BigDecimal totalIncome = transactions.stream()
+                .filter(tx -> tx.getType() == TransactionType.CREDIT)
+                .map(Transaction::getAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        BigDecimal totalExpense = transactions.stream()
+                .filter(tx -> tx.getType() == TransactionType.DEBIT)
+                .map(Transaction::getAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        Map<String, BigDecimal> expensesByCategory = new HashMap<>();
+        Map<String, BigDecimal> incomesByCategory = new HashMap<>();
+        for (Transaction transaction : transactions) {
+            if (transaction.getCategory() == null || transaction.getCategory().isBlank()) {
+                continue;
+            }
+            if (transaction.getType() == TransactionType.CREDIT) {
+                incomesByCategory.merge(transaction.getCategory(), transaction.getAmount(), BigDecimal::add);
+            } else if (transaction.getType() == TransactionType.DEBIT) {
+                expensesByCategory.merge(transaction.getCategory(), transaction.getAmount(), BigDecimal::add);
+            }
+        }
+
+        blackhole.consume(totalIncome);
+        blackhole.consume(totalExpense);
+        blackhole.consume(expensesByCategory);
+        blackhole.consume(incomesByCategory);
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.benchmarks;
+
+import com.example.ledger.config.InsightsCacheProperties;
+import com.example.ledger.domain.CurrencyTotals;
+import com.example.ledger.domain.LedgerTotals;
+import com.example.ledger.domain.RiskInsight;
+import com.example.ledger.domain.Transaction;
+import com.example.ledger.repository.InsightsCache;
+import com.example.ledger.repository.InsightsRepository;
+import com.example.ledger.repository.TransactionRepository;
+import com.example.ledger.service.InsightsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsightsRecalculationBenchmark {
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    private InsightsService insightsService;
+    private Transaction previous;
+    private Transaction current;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<Transaction> transactions = Fixtures.transactions(size, random);
+        InsightsCacheProperties cacheProperties = new InsightsCacheProperties();
+        cacheProperties.setListen(false);
+        InsightsCache insightsCache = new InsightsCache(cacheProperties, null, new SimpleMeterRegistry());
+        insightsService = new InsightsService(new InMemoryInsightsRepository(), new InMemoryTransactionRepository(transactions),
+                insightsCache, true, "USD");
+        insightsService.recalculate(Fixtures.USER_ID);
+        previous = transactions.get(0);
+        current = Fixtures.transaction(previous.getId(), random);
+    }
+
+    @Benchmark
+    public LedgerTotals recalculate() {
+        return insightsService.recalculate(Fixtures.USER_ID);
+    }
+
+    @Benchmark
+    public LedgerTotals applyChange() {
+        insightsService.applyChange(Fixtures.USER_ID, previous, current);
+        return insightsService.applyChange(Fixtures.USER_ID, current, previous);
+    }
+
+    @Benchmark
+    public RiskInsight buildRiskInsight() {
+        return RiskInsight.fromTotals(BigDecimal.valueOf(850000), BigDecimal.valueOf(65432.5), Instant.EPOCH);
+    }
+
+    private static final class InMemoryTransactionRepository extends TransactionRepository {
+
+        private final List<Transaction> transactions;
+
+        InMemoryTransactionRepository(List<Transaction> transactions) {
+            super(null);
+            this.transactions = transactions;
+        }
+
+        @Override
+        public List<Transaction> findAllForUser(String userId) {
+            return transactions;
+        }
+    }
+
+    private static final class InMemoryInsightsRepository extends InsightsRepository {
+
+        private final Map<String, Map<String, CurrencyTotals>> totals = new ConcurrentHashMap<>();
+
+        InMemoryInsightsRepository() {
+            super(null);
+        }
+
+        @Override
+        public Optional<LedgerTotals> findTotals(String userId) {
+            return Optional.ofNullable(totals.get(userId)).map(byCurrency -> new LedgerTotals(Map.copyOf(byCurrency)));
+        }
+
+        @Override
+        public void applyDeltas(String userId, Collection<CurrencyTotals> deltas) {
+            Map<String, CurrencyTotals> byCurrency = totals.computeIfAbsent(userId, id -> new ConcurrentHashMap<>());
+            for (CurrencyTotals delta : deltas) {
+                byCurrency.merge(delta.currency(), delta, (stored, added) -> new CurrencyTotals(stored.currency(),
+                        stored.incomeMinor() + added.incomeMinor(), stored.expenseMinor() + added.expenseMinor(),
+                        sum(stored.expensesMinor(), added.expensesMinor()), sum(stored.incomesMinor(), added.incomesMinor()),
+                        added.updatedAt(), stored.recomputedAt()));
+            }
+        }
+
+        @Override
+        public void replaceTotals(String userId, Collection<CurrencyTotals> written) {
+            Map<String, CurrencyTotals> byCurrency = new HashMap<>();
+            written.forEach(currencyTotals -> byCurrency.put(currencyTotals.currency(), currencyTotals));
+            totals.put(userId, new ConcurrentHashMap<>(byCurrency));
+        }
+
+        private static Map<String, Long> sum(Map<String, Long> stored, Map<String, Long> added) {
+            Map<String, Long> sum = new HashMap<>(stored);
+            added.forEach((category, minor) -> sum.merge(category, minor, Long::sum));
+            return sum;
+        }
+    }
+}
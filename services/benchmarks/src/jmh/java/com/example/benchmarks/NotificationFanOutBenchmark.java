@@ -0,0 +1,93 @@
+package com.example.benchmarks;
+
+import com.example.notification.config.NotificationStreamProperties;
+import com.example.notification.domain.Notification;
+import com.example.notification.domain.NotificationChannel;
+import com.example.notification.domain.NotificationStatus;
+import com.example.notification.service.NotificationStreamService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotificationFanOutBenchmark {
+
+    private static final String RECIPIENT = "bench-user";
+
+    @Param({"1", "100", "1000"})
+    private int emitters;
+
+    private NotificationStreamService streamService;
+    private Notification notification;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        streamService = new NotificationStreamService(new NotificationStreamProperties(), new SimpleMeterRegistry());
+        for (int i = 0; i < emitters; i++) {
+            streamService.subscribe(RECIPIENT, null, new SerializingEmitter(objectMapper));
+        }
+        notification = new Notification(
+                1L,
+                RECIPIENT,
+                NotificationChannel.PUSH,
+                "Presupuesto Alimentación al 80%",
+                "Tus gastos están creciendo, revisa tus categorías principales",
+                NotificationStatus.SENT,
+                Instant.parse("2025-01-01T00:00:00Z")
+        );
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        streamService.shutdown();
+    }
+
+    @Benchmark
+    public void send() {
+        streamService.send(1L, notification);
+    }
+
+    private static final class SerializingEmitter extends SseEmitter {
+
+        private final ObjectMapper objectMapper;
+        private long bytesWritten;
+
+        SerializingEmitter(ObjectMapper objectMapper) {
+            super(0L);
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> items) throws IOException {
+            for (DataWithMediaType item : items) {
+                Object data = item.getData();
+                bytesWritten += data instanceof String text
+                        ? text.length()
+                        : objectMapper.writeValueAsBytes(data).length;
+            }
+        }
+    }
+}
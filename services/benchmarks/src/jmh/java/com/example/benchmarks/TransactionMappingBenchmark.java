@@ -0,0 +1,55 @@
+package com.example.benchmarks;
+
+import com.example.ledger.domain.Transaction;
+import com.example.ledger.repository.TransactionDocuments;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionMappingBenchmark {
+
+    private Transaction transaction;
+    private Map<String, Object> document;
+    private Map<String, Object> legacyDocument;
+
+    @Setup
+    public void setUp() {
+        transaction = Fixtures.transaction("tx-1", new Random(42));
+        document = TransactionDocuments.toDocument(Fixtures.USER_ID, transaction);
+        legacyDocument = new HashMap<>(document);
+        legacyDocument.remove("amountMinor");
+        legacyDocument.remove("amountScale");
+    }
+
+    @Benchmark
+    public Map<String, Object> toDocument() {
+        return TransactionDocuments.toDocument(Fixtures.USER_ID, transaction);
+    }
+
+    @Benchmark
+    public Transaction fromDocument() {
+        return TransactionDocuments.fromData("tx-1", document);
+    }
+
+    @Benchmark
+    public Transaction fromLegacyDocument() {
+        return TransactionDocuments.fromData("tx-1", legacyDocument);
+    }
+}
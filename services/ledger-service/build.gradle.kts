@@ -17,6 +17,8 @@ dependencies {
     implementation(libs.spring.boot.starter.web)
     implementation(libs.spring.boot.starter.validation)
     implementation(libs.spring.boot.starter.security)
+    implementation(libs.spring.boot.starter.actuator)
+    implementation(libs.caffeine)
     implementation(libs.springdoc.openapi.starter.webmvc.ui)
     implementation("com.google.firebase:firebase-admin:9.3.0")
 
@@ -1,8 +1,6 @@
 package com.example.ledger.config;
 
-import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseAuthException;
-import com.google.firebase.auth.FirebaseToken;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -21,6 +19,12 @@ public class FirebaseAuthenticationFilter extends OncePerRequestFilter {
 
     private static final Logger log = LoggerFactory.getLogger(FirebaseAuthenticationFilter.class);
 
+    private final VerifiedTokenCache tokenCache;
+
+    public FirebaseAuthenticationFilter(VerifiedTokenCache tokenCache) {
+        this.tokenCache = tokenCache;
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
@@ -33,9 +37,9 @@ public class FirebaseAuthenticationFilter extends OncePerRequestFilter {
 
         String token = authorization.substring(7);
         try {
-            FirebaseToken firebaseToken = FirebaseAuth.getInstance().verifyIdToken(token);
+            String uid = tokenCache.verify(token);
             UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
-                    firebaseToken.getUid(),
+                    uid,
                     null,
                     Collections.emptyList()
             );
@@ -0,0 +1,18 @@
+package com.example.ledger.config;
+
+import com.example.ledger.repository.InsightsCache;
+import com.google.cloud.firestore.Firestore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(InsightsCacheProperties.class)
+public class InsightsCacheConfig {
+
+    @Bean
+    public InsightsCache insightsCache(InsightsCacheProperties properties, Firestore firestore, MeterRegistry meterRegistry) {
+        return new InsightsCache(properties, firestore, meterRegistry);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.ledger.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "insights.cache")
+public class InsightsCacheProperties {
+
+    private Duration ttl = Duration.ofMinutes(30);
+    private long maxWeight = 200_000;
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+    private boolean listen = true;
+    private Duration reanchorInterval = Duration.ofMinutes(10);
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    public void setMaxWeight(long maxWeight) {
+        this.maxWeight = maxWeight;
+    }
+
+    public Duration getExpireAfterWrite() {
+        return expireAfterWrite;
+    }
+
+    public void setExpireAfterWrite(Duration expireAfterWrite) {
+        this.expireAfterWrite = expireAfterWrite;
+    }
+
+    public boolean isListen() {
+        return listen;
+    }
+
+    public void setListen(boolean listen) {
+        this.listen = listen;
+    }
+
+    public Duration getReanchorInterval() {
+        return reanchorInterval;
+    }
+
+    public void setReanchorInterval(Duration reanchorInterval) {
+        this.reanchorInterval = reanchorInterval;
+    }
+}
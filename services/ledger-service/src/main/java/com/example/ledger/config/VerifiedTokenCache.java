@@ -0,0 +1,176 @@
+package com.example.ledger.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseAuthException;
+import com.google.firebase.auth.FirebaseToken;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class VerifiedTokenCache implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(VerifiedTokenCache.class);
+
+    private final Cache<String, CachedToken> tokens;
+    private final boolean checkRevoked;
+    private final Duration revocationCheckInterval;
+    private final ExecutorService revocationExecutor;
+    private final Clock clock;
+
+    public VerifiedTokenCache(FirebaseProperties.TokenCache properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Clock.systemUTC());
+    }
+
+    VerifiedTokenCache(FirebaseProperties.TokenCache properties, MeterRegistry meterRegistry, Clock clock) {
+        this.clock = clock;
+        this.checkRevoked = properties.isCheckRevoked();
+        this.revocationCheckInterval = properties.getRevocationCheckInterval();
+        this.revocationExecutor = checkRevoked
+                ? Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "firebase-revocation-check");
+                    thread.setDaemon(true);
+                    return thread;
+                })
+                : null;
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfter(new UntilTokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, tokens, "firebaseIdTokens");
+    }
+
+    public String verify(String idToken) throws FirebaseAuthException {
+        String key = hash(idToken);
+        CachedToken cached = tokens.getIfPresent(key);
+        if (cached != null) {
+            if (cached.revocation != null) {
+                throw cached.revocation;
+            }
+            scheduleRevocationCheck(key, idToken, cached);
+            return cached.uid;
+        }
+
+        FirebaseToken token = FirebaseAuth.getInstance().verifyIdToken(idToken);
+        Instant expiresAt = expiresAt(token);
+        if (expiresAt != null && expiresAt.isAfter(clock.instant())) {
+            CachedToken entry = new CachedToken(token.getUid(), expiresAt, null);
+            tokens.put(key, entry);
+            scheduleRevocationCheck(key, idToken, entry);
+        }
+        return token.getUid();
+    }
+
+    public CacheStats stats() {
+        return tokens.stats();
+    }
+
+    public long hitCount() {
+        return tokens.stats().hitCount();
+    }
+
+    public long missCount() {
+        return tokens.stats().missCount();
+    }
+
+    @Override
+    public void close() {
+        if (revocationExecutor != null) {
+            revocationExecutor.shutdownNow();
+        }
+    }
+
+    private void scheduleRevocationCheck(String key, String idToken, CachedToken entry) {
+        if (!checkRevoked || entry.revocation != null) {
+            return;
+        }
+        Instant now = clock.instant();
+        if (entry.lastRevocationCheck.plus(revocationCheckInterval).isAfter(now)
+                || !entry.checking.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            revocationExecutor.execute(() -> {
+                try {
+                    FirebaseAuth.getInstance().verifyIdToken(idToken, true);
+                    entry.lastRevocationCheck = clock.instant();
+                } catch (FirebaseAuthException e) {
+                    log.warn("Cached Firebase ID token rejected on revocation check: {}", e.getMessage());
+                    tokens.asMap().replace(key, entry, new CachedToken(entry.uid, entry.expiresAt, e));
+                } catch (RuntimeException e) {
+                    log.debug("Revocation check could not complete: {}", e.getMessage());
+                } finally {
+                    entry.checking.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            entry.checking.set(false);
+        }
+    }
+
+    private Instant expiresAt(FirebaseToken token) {
+        Object exp = token.getClaims().get("exp");
+        if (exp instanceof Number number) {
+            return Instant.ofEpochSecond(number.longValue());
+        }
+        return null;
+    }
+
+    private static String hash(String idToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(idToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class CachedToken {
+
+        private final String uid;
+        private final Instant expiresAt;
+        private final FirebaseAuthException revocation;
+        private final AtomicBoolean checking = new AtomicBoolean();
+        private volatile Instant lastRevocationCheck = Instant.EPOCH;
+
+        private CachedToken(String uid, Instant expiresAt, FirebaseAuthException revocation) {
+            this.uid = uid;
+            this.expiresAt = expiresAt;
+            this.revocation = revocation;
+        }
+    }
+
+    private final class UntilTokenExpiry implements Expiry<String, CachedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedToken value, long currentTime) {
+            return Math.max(0L, Duration.between(clock.instant(), value.expiresAt).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.ledger.domain;
+
+import java.time.Instant;
+import java.util.Map;
+
+public record CurrencyTotals(String currency, long incomeMinor, long expenseMinor, Map<String, Long> expensesMinor,
+                             Map<String, Long> incomesMinor, Instant updatedAt, Instant recomputedAt) {
+
+    public static CurrencyTotals empty(String currency, Instant updatedAt) {
+        return new CurrencyTotals(currency, 0L, 0L, Map.of(), Map.of(), updatedAt, updatedAt);
+    }
+}
@@ -1,16 +1,23 @@
 package com.example.ledger.domain;
 
+import java.util.Set;
+
 public class InsightsSnapshot {
 
     private final MonthlySummary monthlySummary;
     private final CategoriesSummary categoriesSummary;
     private final RiskInsight riskInsight;
+    private final String currency;
+    private final Set<String> currencies;
     private final boolean refreshed;
 
-    public InsightsSnapshot(MonthlySummary monthlySummary, CategoriesSummary categoriesSummary, RiskInsight riskInsight, boolean refreshed) {
+    public InsightsSnapshot(MonthlySummary monthlySummary, CategoriesSummary categoriesSummary, RiskInsight riskInsight, String currency,
+                            Set<String> currencies, boolean refreshed) {
         this.monthlySummary = monthlySummary;
         this.categoriesSummary = categoriesSummary;
         this.riskInsight = riskInsight;
+        this.currency = currency;
+        this.currencies = Set.copyOf(currencies);
         this.refreshed = refreshed;
     }
 
@@ -26,6 +33,14 @@ public class InsightsSnapshot {
         return riskInsight;
     }
 
+    public String getCurrency() {
+        return currency;
+    }
+
+    public Set<String> getCurrencies() {
+        return currencies;
+    }
+
     public boolean isRefreshed() {
         return refreshed;
     }
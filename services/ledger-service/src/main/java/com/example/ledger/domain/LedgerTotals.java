@@ -0,0 +1,32 @@
+package com.example.ledger.domain;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+public record LedgerTotals(Map<String, CurrencyTotals> byCurrency) {
+
+    public Optional<CurrencyTotals> currency(String currency) {
+        return Optional.ofNullable(byCurrency.get(currency));
+    }
+
+    public Set<String> currencies() {
+        return new TreeSet<>(byCurrency.keySet());
+    }
+
+    public Instant oldestRecompute() {
+        return byCurrency.values().stream()
+                .map(CurrencyTotals::recomputedAt)
+                .min(Instant::compareTo)
+                .orElse(Instant.EPOCH);
+    }
+
+    public Instant latestUpdate() {
+        return byCurrency.values().stream()
+                .map(CurrencyTotals::updatedAt)
+                .max(Instant::compareTo)
+                .orElse(Instant.EPOCH);
+    }
+}
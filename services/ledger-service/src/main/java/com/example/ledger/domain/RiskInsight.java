@@ -1,5 +1,7 @@
 package com.example.ledger.domain;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.Instant;
 
 public class RiskInsight {
@@ -16,6 +18,31 @@ public class RiskInsight {
         this.updatedAt = updatedAt;
     }
 
+    public static RiskInsight fromTotals(BigDecimal totalIncome, BigDecimal totalExpense, Instant updatedAt) {
+        if (totalIncome.signum() == 0 && totalExpense.signum() == 0) {
+            return new RiskInsight(20, "LOW", "Aún no hay suficientes movimientos para evaluar riesgos", updatedAt);
+        }
+
+        BigDecimal utilization = totalIncome.signum() == 0
+                ? BigDecimal.valueOf(1)
+                : totalExpense.divide(totalIncome.max(BigDecimal.ONE), 2, RoundingMode.HALF_UP);
+
+        int score = utilization.multiply(BigDecimal.valueOf(100)).min(BigDecimal.valueOf(100)).intValue();
+        String level;
+        String message;
+        if (score >= 80) {
+            level = "HIGH";
+            message = "Tu nivel de gasto es alto respecto a tus ingresos";
+        } else if (score >= 50) {
+            level = "MEDIUM";
+            message = "Tus gastos están creciendo, revisa tus categorías principales";
+        } else {
+            level = "LOW";
+            message = "Tus gastos se mantienen bajo control";
+        }
+        return new RiskInsight(score, level, message, updatedAt);
+    }
+
     public int getScore() {
         return score;
     }
@@ -10,6 +10,8 @@ public class Transaction {
     private String userId;
     private TransactionType type;
     private BigDecimal amount;
+    private long amountMinor;
+    private int amountScale = MoneyUnits.DEFAULT_SCALE;
     private String title;
     private String description;
     private String category;
@@ -27,7 +29,6 @@ public class Transaction {
         this.id = id;
         this.userId = userId;
         this.type = type;
-        this.amount = amount;
         this.title = title;
         this.description = description;
         this.category = category;
@@ -35,6 +36,7 @@ public class Transaction {
         this.status = status;
         this.currency = currency;
         this.createdAt = createdAt;
+        setAmount(amount);
     }
 
     public String getId() {
@@ -66,7 +68,27 @@ public class Transaction {
     }
 
     public void setAmount(BigDecimal amount) {
-        this.amount = amount;
+        if (amount == null) {
+            this.amount = null;
+            this.amountMinor = 0L;
+            return;
+        }
+        int scale = MoneyUnits.scaleFor(currency);
+        setAmountMinor(MoneyUnits.toMinor(amount, scale), scale);
+    }
+
+    public long getAmountMinor() {
+        return amountMinor;
+    }
+
+    public int getAmountScale() {
+        return amountScale;
+    }
+
+    public void setAmountMinor(long amountMinor, int amountScale) {
+        this.amountMinor = amountMinor;
+        this.amountScale = amountScale;
+        this.amount = MoneyUnits.fromMinor(amountMinor, amountScale);
     }
 
     public String getTitle() {
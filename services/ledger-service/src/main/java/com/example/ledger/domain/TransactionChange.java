@@ -0,0 +1,4 @@
+package com.example.ledger.domain;
+
+public record TransactionChange(Transaction previous, Transaction current) {
+}
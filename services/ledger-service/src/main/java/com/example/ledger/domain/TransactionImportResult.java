@@ -0,0 +1,10 @@
+package com.example.ledger.domain;
+
+import java.util.List;
+
+public record TransactionImportResult(int index, Transaction transaction, List<String> errors) {
+
+    public boolean succeeded() {
+        return errors.isEmpty();
+    }
+}
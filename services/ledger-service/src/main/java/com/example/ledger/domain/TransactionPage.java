@@ -0,0 +1,26 @@
+package com.example.ledger.domain;
+
+import java.util.List;
+
+public class TransactionPage {
+
+    private final List<Transaction> transactions;
+    private final TransactionCursor nextCursor;
+
+    public TransactionPage(List<Transaction> transactions, TransactionCursor nextCursor) {
+        this.transactions = List.copyOf(transactions);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Transaction> getTransactions() {
+        return transactions;
+    }
+
+    public TransactionCursor getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.ledger.domain;
+
+public record TransactionWriteOutcome(Transaction transaction, String error) {
+
+    public boolean succeeded() {
+        return error == null;
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.ledger.repository;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentChange;
+import com.google.cloud.firestore.FirestoreException;
+import com.google.cloud.firestore.ListenerRegistration;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QuerySnapshot;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+class FirestoreChangeFeed implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(FirestoreChangeFeed.class);
+    // Documents are stamped with server time; the margin absorbs this replica's clock skew.
+    private static final Duration ANCHOR_MARGIN = Duration.ofMinutes(1);
+    private static final Duration MIN_BACKOFF = Duration.ofSeconds(1);
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(1);
+
+    private final String name;
+    private final Function<Timestamp, Query> query;
+    private final Consumer<List<DocumentChange>> onChanges;
+    private final Runnable onReset;
+    private final ScheduledExecutorService scheduler;
+    private final Duration reanchorInterval;
+    private final Clock clock;
+
+    private ListenerRegistration registration;
+    private long generation;
+    private int failures;
+    private Instant resumeFrom;
+    private boolean closed;
+
+    FirestoreChangeFeed(String name, Function<Timestamp, Query> query, Consumer<List<DocumentChange>> onChanges, Runnable onReset,
+                        ScheduledExecutorService scheduler, Duration reanchorInterval, Clock clock) {
+        this.name = name;
+        this.query = query;
+        this.onChanges = onChanges;
+        this.onReset = onReset;
+        this.scheduler = scheduler;
+        this.reanchorInterval = reanchorInterval;
+        this.clock = clock;
+    }
+
+    static ScheduledExecutorService newScheduler(String threadName) {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    void start() {
+        subscribe();
+        // A fixed anchor would make the listened result set grow with every write.
+        scheduler.scheduleWithFixedDelay(this::reanchor, reanchorInterval.toMillis(), reanchorInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (registration != null) {
+            registration.remove();
+            registration = null;
+        }
+    }
+
+    private synchronized void reanchor() {
+        if (resumeFrom != null) {
+            return;
+        }
+        try {
+            subscribe();
+        } catch (RuntimeException e) {
+            // Keeps the periodic task alive; the current listener stays attached until the next attempt.
+            log.warn("{} listener could not be re-anchored: {}", name, e.getMessage());
+        }
+    }
+
+    private synchronized void subscribe() {
+        if (closed) {
+            return;
+        }
+        // After a failure, listen from the moment it broke so writes made in between still arrive.
+        Instant from = (resumeFrom != null ? resumeFrom : clock.instant()).minus(ANCHOR_MARGIN);
+        resumeFrom = null;
+        long current = ++generation;
+        ListenerRegistration previous = registration;
+        registration = query.apply(Timestamp.ofTimeSecondsAndNanos(from.getEpochSecond(), from.getNano()))
+                .addSnapshotListener((changes, error) -> onEvent(current, changes, error));
+        // The new listener is attached before the old one goes, so no change falls between them.
+        if (previous != null) {
+            previous.remove();
+        }
+    }
+
+    private void onEvent(long listener, QuerySnapshot changes, FirestoreException error) {
+        if (error != null) {
+            onFailure(listener, error);
+            return;
+        }
+        synchronized (this) {
+            if (listener == generation) {
+                failures = 0;
+            }
+        }
+        onChanges.accept(changes.getDocumentChanges());
+    }
+
+    private synchronized void onFailure(long listener, FirestoreException error) {
+        if (closed || listener != generation) {
+            return;
+        }
+        failures++;
+        if (resumeFrom == null) {
+            resumeFrom = clock.instant();
+        }
+        registration = null;
+        Duration delay = MIN_BACKOFF.multipliedBy(1L << Math.min(failures - 1, 6));
+        delay = delay.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : delay;
+        log.warn("{} listener failed (attempt {}): {}. Dropping cached entries and re-subscribing in {} ms",
+                name, failures, error.getMessage(), delay.toMillis());
+        onReset.run();
+        scheduler.schedule(this::subscribe, delay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+}
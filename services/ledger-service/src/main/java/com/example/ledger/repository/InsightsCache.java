@@ -0,0 +1,104 @@
+package com.example.ledger.repository;
+
+import com.example.ledger.config.InsightsCacheProperties;
+import com.example.ledger.domain.CurrencyTotals;
+import com.example.ledger.domain.LedgerTotals;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.google.cloud.firestore.DocumentChange;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.Firestore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+
+public class InsightsCache implements AutoCloseable {
+
+    private final Cache<String, LedgerTotals> snapshots;
+    private final Duration ttl;
+    private final ScheduledExecutorService scheduler;
+    private final FirestoreChangeFeed changeFeed;
+
+    public InsightsCache(InsightsCacheProperties properties, Firestore firestore, MeterRegistry meterRegistry) {
+        this(properties, firestore, meterRegistry,
+                properties.isListen() && firestore != null ? FirestoreChangeFeed.newScheduler("insights-cache-listener") : null,
+                Clock.systemUTC());
+    }
+
+    InsightsCache(InsightsCacheProperties properties, Firestore firestore, MeterRegistry meterRegistry, ScheduledExecutorService scheduler,
+                  Clock clock) {
+        this.ttl = properties.getTtl();
+        this.scheduler = scheduler;
+        this.snapshots = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxWeight())
+                .weigher((String userId, LedgerTotals totals) -> weightOf(totals))
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, snapshots, "insightsSnapshots");
+        this.changeFeed = properties.isListen() && firestore != null
+                ? listen(firestore, scheduler, properties.getReanchorInterval(), clock)
+                : null;
+    }
+
+    public Duration ttl() {
+        return ttl;
+    }
+
+    public Optional<LedgerTotals> get(String userId, Function<String, Optional<LedgerTotals>> loader) {
+        return Optional.ofNullable(snapshots.get(userId, key -> loader.apply(key).orElse(null)));
+    }
+
+    public void put(String userId, LedgerTotals totals) {
+        snapshots.put(userId, totals);
+    }
+
+    public void invalidate(String userId) {
+        snapshots.invalidate(userId);
+    }
+
+    public CacheStats stats() {
+        return snapshots.stats();
+    }
+
+    @Override
+    public void close() {
+        if (changeFeed != null) {
+            changeFeed.close();
+            scheduler.shutdownNow();
+        }
+    }
+
+    private FirestoreChangeFeed listen(Firestore firestore, ScheduledExecutorService scheduler, Duration reanchorInterval, Clock clock) {
+        // One collection-group stream per replica instead of one listener per cached user.
+        FirestoreChangeFeed feed = new FirestoreChangeFeed("Insights",
+                since -> firestore.collectionGroup(InsightsRepository.COLLECTION).whereGreaterThan(InsightsRepository.WRITTEN_AT, since),
+                this::onChanges, snapshots::invalidateAll, scheduler, reanchorInterval, clock);
+        feed.start();
+        return feed;
+    }
+
+    private void onChanges(List<DocumentChange> changes) {
+        // Unconditional: invalidate waits for an in-flight load and needs no timestamp comparison across replicas.
+        for (DocumentChange change : changes) {
+            DocumentReference user = change.getDocument().getReference().getParent().getParent();
+            if (user != null) {
+                snapshots.invalidate(user.getId());
+            }
+        }
+    }
+
+    private static int weightOf(LedgerTotals totals) {
+        int weight = 1;
+        for (CurrencyTotals currencyTotals : totals.byCurrency().values()) {
+            weight += 1 + currencyTotals.expensesMinor().size() + currencyTotals.incomesMinor().size();
+        }
+        return weight;
+    }
+}
@@ -1,19 +1,26 @@
 package com.example.ledger.repository;
 
-import com.example.ledger.domain.CategoriesSummary;
-import com.example.ledger.domain.MonthlySummary;
-import com.example.ledger.domain.RiskInsight;
+import com.example.ledger.domain.CurrencyTotals;
+import com.example.ledger.domain.LedgerTotals;
+import com.example.ledger.domain.MoneyUnits;
 import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.CollectionReference;
 import com.google.cloud.firestore.DocumentReference;
 import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldValue;
 import com.google.cloud.firestore.Firestore;
-import com.google.cloud.firestore.WriteResult;
-import java.math.BigDecimal;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.WriteBatch;
 import java.time.Instant;
-import java.util.Collections;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Repository;
@@ -22,10 +29,9 @@ import org.springframework.stereotype.Repository;
 public class InsightsRepository {
 
     private static final Logger log = LoggerFactory.getLogger(InsightsRepository.class);
-    private static final String COLLECTION = "insights";
-    private static final String MONTHLY_DOCUMENT = "monthlySummary";
-    private static final String CATEGORIES_DOCUMENT = "categoriesSummary";
-    private static final String RISK_DOCUMENT = "risk";
+    // Ledger-owned totals, one document per currency. users/{uid}/insights belongs to risk-service.
+    static final String COLLECTION = "ledgerInsights";
+    static final String WRITTEN_AT = "writtenAt";
 
     private final Firestore firestore;
 
@@ -33,51 +39,17 @@ public class InsightsRepository {
         this.firestore = firestore;
     }
 
-    public Optional<MonthlySummary> findMonthlySummary(String userId) {
-        return readDocument(userId, MONTHLY_DOCUMENT).map(this::toMonthlySummary);
-    }
-
-    public Optional<CategoriesSummary> findCategoriesSummary(String userId) {
-        return readDocument(userId, CATEGORIES_DOCUMENT).map(this::toCategoriesSummary);
-    }
-
-    public Optional<RiskInsight> findRiskInsight(String userId) {
-        return readDocument(userId, RISK_DOCUMENT).map(this::toRiskInsight);
-    }
-
-    public void saveMonthlySummary(String userId, MonthlySummary summary) {
-        saveDocument(userId, MONTHLY_DOCUMENT, Map.of(
-                "totalIncome", summary.getTotalIncome().doubleValue(),
-                "totalExpense", summary.getTotalExpense().doubleValue(),
-                "netBalance", summary.getNetBalance().doubleValue(),
-                "updatedAt", Timestamp.from(summary.getUpdatedAt())
-        ));
-    }
-
-    public void saveCategoriesSummary(String userId, CategoriesSummary summary) {
-        saveDocument(userId, CATEGORIES_DOCUMENT, Map.of(
-                "expenses", summary.getExpenses(),
-                "incomes", summary.getIncomes(),
-                "updatedAt", Timestamp.from(summary.getUpdatedAt())
-        ));
-    }
-
-    public void saveRiskInsight(String userId, RiskInsight riskInsight) {
-        saveDocument(userId, RISK_DOCUMENT, Map.of(
-                "score", riskInsight.getScore(),
-                "level", riskInsight.getLevel(),
-                "message", riskInsight.getMessage(),
-                "updatedAt", Timestamp.from(riskInsight.getUpdatedAt())
-        ));
-    }
-
-    private Optional<DocumentSnapshot> readDocument(String userId, String documentId) {
+    public Optional<LedgerTotals> findTotals(String userId) {
         try {
-            DocumentSnapshot snapshot = userInsights(userId).document(documentId).get().get();
-            if (!snapshot.exists()) {
+            List<QueryDocumentSnapshot> documents = userTotals(userId).get().get().getDocuments();
+            if (documents.isEmpty()) {
                 return Optional.empty();
             }
-            return Optional.of(snapshot);
+            Map<String, CurrencyTotals> byCurrency = new HashMap<>();
+            for (QueryDocumentSnapshot document : documents) {
+                byCurrency.put(document.getId(), toCurrencyTotals(document));
+            }
+            return Optional.of(new LedgerTotals(byCurrency));
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new IllegalStateException("Interrupted while reading insights", e);
@@ -86,11 +58,33 @@ public class InsightsRepository {
         }
     }
 
-    private void saveDocument(String userId, String documentId, Map<String, Object> payload) {
+    public void applyDeltas(String userId, Collection<CurrencyTotals> deltas) {
+        // Server-side increments: concurrent replicas add up instead of overwriting each other.
+        WriteBatch batch = firestore.batch();
+        for (CurrencyTotals delta : deltas) {
+            batch.set(userTotals(userId).document(delta.currency()), toIncrements(delta), SetOptions.merge());
+        }
+        commit(batch, userId);
+    }
+
+    public void replaceTotals(String userId, Collection<CurrencyTotals> totals) {
+        Set<String> kept = totals.stream().map(CurrencyTotals::currency).collect(Collectors.toSet());
+        WriteBatch batch = firestore.batch();
+        for (DocumentReference existing : userTotals(userId).listDocuments()) {
+            if (!kept.contains(existing.getId())) {
+                batch.delete(existing);
+            }
+        }
+        for (CurrencyTotals currencyTotals : totals) {
+            batch.set(userTotals(userId).document(currencyTotals.currency()), toDocument(currencyTotals));
+        }
+        commit(batch, userId);
+    }
+
+    private void commit(WriteBatch batch, String userId) {
         try {
-            DocumentReference reference = userInsights(userId).document(documentId);
-            WriteResult result = reference.set(payload).get();
-            log.debug("Persisted insight {} for user {} at {}", documentId, userId, result.getUpdateTime());
+            batch.commit().get();
+            log.debug("Persisted insights for user {}", userId);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new IllegalStateException("Interrupted while saving insights", e);
@@ -99,50 +93,82 @@ public class InsightsRepository {
         }
     }
 
-    private MonthlySummary toMonthlySummary(DocumentSnapshot snapshot) {
-        double income = snapshot.getDouble("totalIncome") != null ? snapshot.getDouble("totalIncome") : 0.0;
-        double expense = snapshot.getDouble("totalExpense") != null ? snapshot.getDouble("totalExpense") : 0.0;
-        double net = snapshot.getDouble("netBalance") != null ? snapshot.getDouble("netBalance") : income - expense;
-        Instant updatedAt = Optional.ofNullable(snapshot.getTimestamp("updatedAt"))
-                .map(Timestamp::toInstant)
-                .orElse(Instant.EPOCH);
-        return new MonthlySummary(BigDecimal.valueOf(income), BigDecimal.valueOf(expense), BigDecimal.valueOf(net), updatedAt);
+    private Map<String, Object> toDocument(CurrencyTotals totals) {
+        return Map.of(
+                "currency", totals.currency(),
+                "incomeMinor", totals.incomeMinor(),
+                "expenseMinor", totals.expenseMinor(),
+                "expensesMinor", totals.expensesMinor(),
+                "incomesMinor", totals.incomesMinor(),
+                "scale", MoneyUnits.scaleFor(totals.currency()),
+                "updatedAt", toTimestamp(totals.updatedAt()),
+                "recomputedAt", toTimestamp(totals.recomputedAt()),
+                WRITTEN_AT, FieldValue.serverTimestamp()
+        );
     }
 
-    @SuppressWarnings("unchecked")
-    private CategoriesSummary toCategoriesSummary(DocumentSnapshot snapshot) {
-        Map<String, Double> expenses = snapshot.get("expenses", Map.class);
-        Map<String, Double> incomes = snapshot.get("incomes", Map.class);
-        Instant updatedAt = Optional.ofNullable(snapshot.getTimestamp("updatedAt"))
-                .map(Timestamp::toInstant)
-                .orElse(Instant.EPOCH);
-        return new CategoriesSummary(
-                convertToBigDecimalMap(expenses),
-                convertToBigDecimalMap(incomes),
-                updatedAt
+    private Map<String, Object> toIncrements(CurrencyTotals delta) {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("currency", delta.currency());
+        fields.put("incomeMinor", FieldValue.increment(delta.incomeMinor()));
+        fields.put("expenseMinor", FieldValue.increment(delta.expenseMinor()));
+        // An empty map would replace the stored one under merge, so only non-empty maps are sent.
+        if (!delta.expensesMinor().isEmpty()) {
+            fields.put("expensesMinor", toIncrements(delta.expensesMinor()));
+        }
+        if (!delta.incomesMinor().isEmpty()) {
+            fields.put("incomesMinor", toIncrements(delta.incomesMinor()));
+        }
+        fields.put("updatedAt", toTimestamp(delta.updatedAt()));
+        fields.put(WRITTEN_AT, FieldValue.serverTimestamp());
+        return fields;
+    }
+
+    private Map<String, Object> toIncrements(Map<String, Long> minorByCategory) {
+        Map<String, Object> increments = new HashMap<>();
+        minorByCategory.forEach((category, minor) -> increments.put(category, FieldValue.increment(minor)));
+        return increments;
+    }
+
+    private CurrencyTotals toCurrencyTotals(DocumentSnapshot document) {
+        // Totals written at another scale (before per-currency minor units) read as never recomputed, so the next
+        // read rebuilds them; only replaceTotals sets the scale, so increments cannot hide a stale document.
+        Long scale = document.getLong("scale");
+        boolean rescaled = scale != null && scale.intValue() != MoneyUnits.scaleFor(document.getId());
+        return new CurrencyTotals(
+                document.getId(),
+                Optional.ofNullable(document.getLong("incomeMinor")).orElse(0L),
+                Optional.ofNullable(document.getLong("expenseMinor")).orElse(0L),
+                readMinor(document, "expensesMinor"),
+                readMinor(document, "incomesMinor"),
+                toInstant(document.getTimestamp("updatedAt")),
+                rescaled ? Instant.EPOCH : toInstant(document.getTimestamp("recomputedAt"))
         );
     }
 
-    private Map<String, BigDecimal> convertToBigDecimalMap(Map<String, Double> values) {
-        if (values == null) {
-            return Collections.emptyMap();
+    @SuppressWarnings("unchecked")
+    private Map<String, Long> readMinor(DocumentSnapshot document, String field) {
+        Map<String, Number> stored = document.get(field, Map.class);
+        Map<String, Long> minor = new HashMap<>();
+        if (stored != null) {
+            stored.forEach((category, value) -> {
+                if (value.longValue() != 0) {
+                    minor.put(category, value.longValue());
+                }
+            });
         }
-        return values.entrySet()
-                .stream()
-                .collect(java.util.stream.Collectors.toMap(Map.Entry::getKey, entry -> BigDecimal.valueOf(entry.getValue())));
+        return minor;
+    }
+
+    private Timestamp toTimestamp(Instant instant) {
+        return Timestamp.ofTimeSecondsAndNanos(instant.getEpochSecond(), instant.getNano());
     }
 
-    private RiskInsight toRiskInsight(DocumentSnapshot snapshot) {
-        long score = Optional.ofNullable(snapshot.getLong("score")).orElse(0L);
-        String level = Optional.ofNullable(snapshot.getString("level")).orElse("LOW");
-        String message = Optional.ofNullable(snapshot.getString("message")).orElse("");
-        Instant updatedAt = Optional.ofNullable(snapshot.getTimestamp("updatedAt"))
-                .map(Timestamp::toInstant)
-                .orElse(Instant.EPOCH);
-        return new RiskInsight((int) score, level, message, updatedAt);
+    private Instant toInstant(Timestamp timestamp) {
+        return timestamp == null ? Instant.EPOCH : Instant.ofEpochSecond(timestamp.getSeconds(), timestamp.getNanos());
     }
 
-    private com.google.cloud.firestore.CollectionReference userInsights(String userId) {
+    private CollectionReference userTotals(String userId) {
         return firestore.collection("users").document(userId).collection(COLLECTION);
     }
 }
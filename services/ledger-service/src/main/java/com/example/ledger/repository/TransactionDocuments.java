@@ -0,0 +1,82 @@
+package com.example.ledger.repository;
+
+import com.example.ledger.domain.MoneyUnits;
+import com.example.ledger.domain.Transaction;
+import com.example.ledger.domain.TransactionStatus;
+import com.example.ledger.domain.TransactionType;
+import com.google.cloud.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+
+public final class TransactionDocuments {
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
+
+    private TransactionDocuments() {
+    }
+
+    public static Transaction fromData(String id, Map<String, Object> data) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setUserId((String) data.get("userId"));
+        transaction.setTitle((String) data.get("title"));
+        transaction.setDescription((String) data.get("description"));
+        transaction.setCategory((String) data.get("category"));
+        transaction.setCurrency((String) data.get("currency"));
+
+        String eventDate = (String) data.get("eventDate");
+        if (eventDate != null) {
+            transaction.setEventDate(LocalDate.parse(eventDate, DATE_FORMATTER));
+        }
+
+        String type = (String) data.get("type");
+        if (type != null) {
+            transaction.setType(TransactionType.valueOf(type));
+        }
+
+        Number amountMinor = (Number) data.get("amountMinor");
+        Number amountScale = (Number) data.get("amountScale");
+        Number amount = (Number) data.get("amount");
+        if (amountMinor != null) {
+            transaction.setAmountMinor(amountMinor.longValue(), amountScale != null ? amountScale.intValue() : MoneyUnits.DEFAULT_SCALE);
+        } else if (amount != null) {
+            int scale = MoneyUnits.scaleFor(transaction.getCurrency());
+            transaction.setAmountMinor(MoneyUnits.fromLegacyDouble(amount.doubleValue(), scale), scale);
+        }
+
+        String status = (String) data.get("status");
+        if (status != null) {
+            transaction.setStatus(TransactionStatus.valueOf(status));
+        }
+
+        Timestamp createdAt = (Timestamp) data.get("createdAt");
+        if (createdAt != null) {
+            transaction.setCreatedAt(Instant.ofEpochSecond(createdAt.getSeconds(), createdAt.getNanos()));
+        }
+
+        return transaction;
+    }
+
+    public static Map<String, Object> toDocument(String userId, Transaction transaction) {
+        Map<String, Object> document = new HashMap<>();
+        document.put("userId", userId);
+        document.put("title", transaction.getTitle());
+        document.put("description", transaction.getDescription());
+        document.put("category", transaction.getCategory());
+        document.put("type", transaction.getType().name());
+        document.put("amount", transaction.getAmount().doubleValue());
+        document.put("amountMinor", transaction.getAmountMinor());
+        document.put("amountScale", transaction.getAmountScale());
+        document.put("eventDate", transaction.getEventDate().format(DATE_FORMATTER));
+        document.put("status", transaction.getStatus().name());
+        document.put("currency", transaction.getCurrency());
+        document.put("createdAt", Timestamp.ofTimeSecondsAndNanos(
+                transaction.getCreatedAt().getEpochSecond(),
+                transaction.getCreatedAt().getNano()
+        ));
+        return document;
+    }
+}
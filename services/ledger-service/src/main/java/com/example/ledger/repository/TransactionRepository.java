@@ -1,25 +1,29 @@
 package com.example.ledger.repository;
 
 import com.example.ledger.domain.Transaction;
-import com.example.ledger.domain.TransactionStatus;
-import com.example.ledger.domain.TransactionType;
+import com.example.ledger.domain.TransactionCursor;
+import com.example.ledger.domain.TransactionWriteOutcome;
+import com.google.api.core.ApiFuture;
 import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.BulkWriter;
 import com.google.cloud.firestore.CollectionReference;
 import com.google.cloud.firestore.DocumentReference;
 import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.FieldValue;
 import com.google.cloud.firestore.Firestore;
 import com.google.cloud.firestore.Query;
 import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.WriteBatch;
 import com.google.cloud.firestore.WriteResult;
-import java.math.BigDecimal;
 import java.time.Instant;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Repository;
@@ -28,7 +32,7 @@ import org.springframework.stereotype.Repository;
 public class TransactionRepository {
 
     private static final Logger log = LoggerFactory.getLogger(TransactionRepository.class);
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
+    private static final String LEDGER_VERSION = "ledgerVersion";
 
     private final Firestore firestore;
 
@@ -48,6 +52,46 @@ public class TransactionRepository {
         }
     }
 
+    public List<Transaction> findPageForUser(String userId, TransactionCursor after, int limit) {
+        try {
+            Query query = orderedTransactions(userId);
+            if (after != null) {
+                query = query.startAfter(
+                        Timestamp.ofTimeSecondsAndNanos(after.createdAt().getEpochSecond(), after.createdAt().getNano()),
+                        after.id()
+                );
+            }
+            return mapToTransactions(query.limit(limit).get().get().getDocuments());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading transactions", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error reading transactions from Firestore", e);
+        }
+    }
+
+    public void streamForUser(String userId, int batchSize, Consumer<Transaction> consumer) {
+        try {
+            DocumentSnapshot last = null;
+            while (true) {
+                Query query = last == null ? orderedTransactions(userId) : orderedTransactions(userId).startAfter(last);
+                List<QueryDocumentSnapshot> documents = query.limit(batchSize).get().get().getDocuments();
+                for (QueryDocumentSnapshot document : documents) {
+                    consumer.accept(fromDocument(document));
+                }
+                if (documents.size() < batchSize) {
+                    return;
+                }
+                last = documents.get(documents.size() - 1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while streaming transactions", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error streaming transactions from Firestore", e);
+        }
+    }
+
     public Optional<Transaction> findById(String userId, String id) {
         try {
             DocumentSnapshot snapshot = userTransactions(userId).document(id).get().get();
@@ -76,8 +120,11 @@ public class TransactionRepository {
                 transaction.setCreatedAt(Instant.now());
             }
 
-            WriteResult result = reference.set(toDocument(userId, transaction)).get();
-            log.debug("Persisted transaction {} at {}", documentId, result.getUpdateTime());
+            WriteBatch batch = firestore.batch();
+            batch.set(reference, TransactionDocuments.toDocument(userId, transaction));
+            bumpLedgerVersion(batch, userId);
+            List<WriteResult> results = batch.commit().get();
+            log.debug("Persisted transaction {} at {}", documentId, results.get(0).getUpdateTime());
             return transaction;
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
@@ -87,14 +134,51 @@ public class TransactionRepository {
         }
     }
 
-    public boolean delete(String userId, String id) {
+    public List<TransactionWriteOutcome> saveAll(String userId, List<Transaction> transactions) {
+        List<ApiFuture<WriteResult>> writes = new ArrayList<>(transactions.size());
+        BulkWriter writer = firestore.bulkWriter();
+        try {
+            for (Transaction transaction : transactions) {
+                DocumentReference reference = userTransactions(userId).document();
+                transaction.setId(reference.getId());
+                transaction.setUserId(userId);
+                if (transaction.getCreatedAt() == null) {
+                    transaction.setCreatedAt(Instant.now());
+                }
+                writes.add(writer.set(reference, TransactionDocuments.toDocument(userId, transaction)));
+            }
+        } finally {
+            closeAndWait(writer);
+        }
+
+        List<TransactionWriteOutcome> outcomes = new ArrayList<>(transactions.size());
+        boolean written = false;
+        for (int i = 0; i < transactions.size(); i++) {
+            TransactionWriteOutcome outcome = outcomeOf(transactions.get(i), writes.get(i));
+            written |= outcome.succeeded();
+            outcomes.add(outcome);
+        }
+        if (written) {
+            // BulkWriter is not atomic, so the version moves once after the writes are durable.
+            WriteBatch batch = firestore.batch();
+            bumpLedgerVersion(batch, userId);
+            commit(batch, "Error bumping ledger version in Firestore");
+        }
+        return outcomes;
+    }
+
+    public Optional<Transaction> delete(String userId, String id) {
         try {
             DocumentReference reference = userTransactions(userId).document(id);
-            if (!reference.get().get().exists()) {
-                return false;
+            DocumentSnapshot snapshot = reference.get().get();
+            if (!snapshot.exists()) {
+                return Optional.empty();
             }
-            reference.delete().get();
-            return true;
+            WriteBatch batch = firestore.batch();
+            batch.delete(reference);
+            bumpLedgerVersion(batch, userId);
+            batch.commit().get();
+            return Optional.of(fromDocument(snapshot));
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new IllegalStateException("Interrupted while deleting transaction", e);
@@ -103,10 +187,58 @@ public class TransactionRepository {
         }
     }
 
+    private void closeAndWait(BulkWriter writer) {
+        // close() flushes the queued writes and blocks until they finish.
+        try {
+            writer.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while saving transactions", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error saving transactions to Firestore", e);
+        }
+    }
+
+    private TransactionWriteOutcome outcomeOf(Transaction transaction, ApiFuture<WriteResult> write) {
+        try {
+            write.get();
+            return new TransactionWriteOutcome(transaction, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while saving transactions", e);
+        } catch (ExecutionException e) {
+            log.warn("Bulk write of transaction {} failed: {}", transaction.getId(), e.getCause().getMessage());
+            return new TransactionWriteOutcome(transaction, e.getCause().getMessage());
+        }
+    }
+
+    private void bumpLedgerVersion(WriteBatch batch, String userId) {
+        batch.set(firestore.collection("users").document(userId),
+                Map.of(LEDGER_VERSION, FieldValue.increment(1)),
+                SetOptions.merge());
+    }
+
+    private void commit(WriteBatch batch, String failure) {
+        try {
+            batch.commit().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while writing to Firestore", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(failure, e);
+        }
+    }
+
     private CollectionReference userTransactions(String userId) {
         return firestore.collection("users").document(userId).collection("transactions");
     }
 
+    private Query orderedTransactions(String userId) {
+        return userTransactions(userId)
+                .orderBy("createdAt", Query.Direction.DESCENDING)
+                .orderBy(FieldPath.documentId(), Query.Direction.DESCENDING);
+    }
+
     private List<Transaction> mapToTransactions(List<QueryDocumentSnapshot> documents) {
         List<Transaction> transactions = new ArrayList<>();
         for (QueryDocumentSnapshot document : documents) {
@@ -116,54 +248,6 @@ public class TransactionRepository {
     }
 
     private Transaction fromDocument(DocumentSnapshot document) {
-        Transaction transaction = new Transaction();
-        transaction.setId(document.getId());
-        transaction.setUserId(document.getString("userId"));
-        transaction.setTitle(document.getString("title"));
-        transaction.setDescription(document.getString("description"));
-        transaction.setCategory(document.getString("category"));
-        transaction.setCurrency(document.getString("currency"));
-
-        String eventDate = document.getString("eventDate");
-        if (eventDate != null) {
-            transaction.setEventDate(LocalDate.parse(eventDate, DATE_FORMATTER));
-        }
-
-        String type = document.getString("type");
-        if (type != null) {
-            transaction.setType(TransactionType.valueOf(type));
-        }
-
-        Double amount = document.getDouble("amount");
-        if (amount != null) {
-            transaction.setAmount(BigDecimal.valueOf(amount));
-        }
-
-        String status = document.getString("status");
-        if (status != null) {
-            transaction.setStatus(TransactionStatus.valueOf(status));
-        }
-
-        Timestamp createdAt = document.getTimestamp("createdAt");
-        if (createdAt != null) {
-            transaction.setCreatedAt(createdAt.toInstant());
-        }
-
-        return transaction;
-    }
-
-    private Map<String, Object> toDocument(String userId, Transaction transaction) {
-        return Map.of(
-                "userId", userId,
-                "title", transaction.getTitle(),
-                "description", transaction.getDescription(),
-                "category", transaction.getCategory(),
-                "type", transaction.getType().name(),
-                "amount", transaction.getAmount().doubleValue(),
-                "eventDate", transaction.getEventDate().format(DATE_FORMATTER),
-                "status", transaction.getStatus().name(),
-                "currency", transaction.getCurrency(),
-                "createdAt", Timestamp.from(transaction.getCreatedAt())
-        );
+        return TransactionDocuments.fromData(document.getId(), document.getData());
     }
 }
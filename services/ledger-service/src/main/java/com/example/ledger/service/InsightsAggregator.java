@@ -0,0 +1,169 @@
+package com.example.ledger.service;
+
+import com.example.ledger.domain.CurrencyTotals;
+import com.example.ledger.domain.MoneyUnits;
+import com.example.ledger.domain.Transaction;
+import com.example.ledger.domain.TransactionChange;
+import com.example.ledger.domain.TransactionType;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class InsightsAggregator {
+
+    private static final String LEGACY_CURRENCY = "USD";
+
+    private final String currency;
+    private final int scale;
+    private long incomeMinor;
+    private long expenseMinor;
+    private final Map<String, long[]> expensesByCategory = new HashMap<>();
+    private final Map<String, long[]> incomesByCategory = new HashMap<>();
+
+    private InsightsAggregator(String currency) {
+        this.currency = currency;
+        this.scale = MoneyUnits.scaleFor(currency);
+    }
+
+    public static Map<String, InsightsAggregator> byCurrency(List<Transaction> transactions) {
+        // Currencies are never added together; each one keeps its own totals.
+        Map<String, InsightsAggregator> totals = new HashMap<>();
+        InsightsAggregator last = null;
+        for (int i = 0, size = transactions.size(); i < size; i++) {
+            Transaction transaction = transactions.get(i);
+            String currency = currencyOf(transaction);
+            if (last == null || !last.currency.equals(currency)) {
+                last = totals.computeIfAbsent(currency, InsightsAggregator::new);
+            }
+            last.add(transaction, 1);
+        }
+        return totals;
+    }
+
+    public static void applyAll(Map<String, InsightsAggregator> totals, List<TransactionChange> changes) {
+        for (TransactionChange change : changes) {
+            if (change.previous() != null) {
+                totals.computeIfAbsent(currencyOf(change.previous()), InsightsAggregator::new).add(change.previous(), -1);
+            }
+            if (change.current() != null) {
+                totals.computeIfAbsent(currencyOf(change.current()), InsightsAggregator::new).add(change.current(), 1);
+            }
+        }
+    }
+
+    public static InsightsAggregator from(CurrencyTotals stored) {
+        InsightsAggregator aggregator = new InsightsAggregator(stored.currency());
+        aggregator.incomeMinor = stored.incomeMinor();
+        aggregator.expenseMinor = stored.expenseMinor();
+        stored.expensesMinor().forEach((category, minor) -> aggregator.expensesByCategory.put(category, new long[] {minor}));
+        stored.incomesMinor().forEach((category, minor) -> aggregator.incomesByCategory.put(category, new long[] {minor}));
+        return aggregator;
+    }
+
+    public static String currencyOf(Transaction transaction) {
+        String currency = transaction.getCurrency();
+        return currency == null || currency.isBlank() ? LEGACY_CURRENCY : currency;
+    }
+
+    public CurrencyTotals toTotals(Instant updatedAt) {
+        return new CurrencyTotals(currency, incomeMinor, expenseMinor, toMinor(expensesByCategory), toMinor(incomesByCategory), updatedAt,
+                updatedAt);
+    }
+
+    public String currency() {
+        return currency;
+    }
+
+    public void add(Transaction transaction, int sign) {
+        if (transaction.getAmount() == null) {
+            return;
+        }
+        long amount = transaction.getAmountScale() == scale
+                ? transaction.getAmountMinor()
+                : MoneyUnits.rescale(transaction.getAmountMinor(), transaction.getAmountScale(), scale);
+        if (sign < 0) {
+            amount = -amount;
+        }
+        TransactionType type = transaction.getType();
+        if (type == TransactionType.CREDIT) {
+            incomeMinor += amount;
+            addToCategory(incomesByCategory, transaction.getCategory(), amount);
+        } else if (type == TransactionType.DEBIT) {
+            expenseMinor += amount;
+            addToCategory(expensesByCategory, transaction.getCategory(), amount);
+        }
+    }
+
+    public long incomeMinor() {
+        return incomeMinor;
+    }
+
+    public long expenseMinor() {
+        return expenseMinor;
+    }
+
+    public BigDecimal income() {
+        return MoneyUnits.fromMinor(incomeMinor, scale);
+    }
+
+    public BigDecimal expense() {
+        return MoneyUnits.fromMinor(expenseMinor, scale);
+    }
+
+    public BigDecimal netBalance() {
+        return MoneyUnits.fromMinor(incomeMinor - expenseMinor, scale);
+    }
+
+    public Map<String, BigDecimal> expensesByCategory() {
+        return toAmounts(expensesByCategory);
+    }
+
+    public Map<String, BigDecimal> incomesByCategory() {
+        return toAmounts(incomesByCategory);
+    }
+
+    public boolean hasDrift() {
+        return incomeMinor < 0
+                || expenseMinor < 0
+                || hasNegative(expensesByCategory)
+                || hasNegative(incomesByCategory);
+    }
+
+    private static void addToCategory(Map<String, long[]> categories, String category, long amount) {
+        if (category == null || category.isBlank()) {
+            return;
+        }
+        long[] total = categories.get(category);
+        if (total == null) {
+            total = new long[1];
+            categories.put(category, total);
+        }
+        total[0] += amount;
+        if (total[0] == 0) {
+            categories.remove(category);
+        }
+    }
+
+    private static boolean hasNegative(Map<String, long[]> categories) {
+        for (long[] total : categories.values()) {
+            if (total[0] < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Map<String, Long> toMinor(Map<String, long[]> minorByCategory) {
+        Map<String, Long> minor = new HashMap<>();
+        minorByCategory.forEach((category, total) -> minor.put(category, total[0]));
+        return minor;
+    }
+
+    private Map<String, BigDecimal> toAmounts(Map<String, long[]> minorByCategory) {
+        Map<String, BigDecimal> amounts = new HashMap<>();
+        minorByCategory.forEach((category, minor) -> amounts.put(category, MoneyUnits.fromMinor(minor[0], scale)));
+        return amounts;
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.ledger.service;
+
+import com.example.ledger.domain.Transaction;
+import com.example.ledger.domain.TransactionChange;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+@Service
+public class InsightsRecalculationScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(InsightsRecalculationScheduler.class);
+    private static final Duration MIN_BACKOFF = Duration.ofSeconds(1);
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(1);
+
+    private final InsightsService insightsService;
+    private final ScheduledExecutorService executor;
+    private final Duration debounce;
+    private final int maxAttempts;
+    private final int maxPending;
+    private final ConcurrentHashMap<String, List<TransactionChange>> pending = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Integer> failures = new ConcurrentHashMap<>();
+    private final Set<String> needsRecalculation = ConcurrentHashMap.newKeySet();
+    private final Counter requested;
+    private final Counter executed;
+    private final Counter failed;
+    private final Counter abandoned;
+    private final Counter inline;
+
+    @Autowired
+    public InsightsRecalculationScheduler(
+            InsightsService insightsService,
+            MeterRegistry meterRegistry,
+            @Value("${insights.recalculation.debounce:500ms}") Duration debounce,
+            @Value("${insights.recalculation.workers:2}") int workers,
+            @Value("${insights.recalculation.max-attempts:8}") int maxAttempts,
+            @Value("${insights.recalculation.max-pending:10000}") int maxPending
+    ) {
+        this(insightsService, meterRegistry, debounce, maxAttempts, maxPending, newExecutor(workers));
+    }
+
+    InsightsRecalculationScheduler(InsightsService insightsService, MeterRegistry meterRegistry, Duration debounce,
+                                   int maxAttempts, int maxPending, ScheduledExecutorService executor) {
+        this.insightsService = insightsService;
+        this.debounce = debounce;
+        this.maxAttempts = maxAttempts;
+        this.maxPending = maxPending;
+        this.executor = executor;
+        this.requested = Counter.builder("insights.recalculation.requested").register(meterRegistry);
+        this.executed = Counter.builder("insights.recalculation.executed").register(meterRegistry);
+        this.failed = Counter.builder("insights.recalculation.failed").register(meterRegistry);
+        this.abandoned = Counter.builder("insights.recalculation.abandoned").register(meterRegistry);
+        this.inline = Counter.builder("insights.recalculation.inline").register(meterRegistry);
+        Gauge.builder("insights.recalculation.queue.depth", pending, ConcurrentHashMap::size).register(meterRegistry);
+        Gauge.builder("insights.recalculation.coalescing.ratio", this, InsightsRecalculationScheduler::coalescingRatio)
+                .register(meterRegistry);
+    }
+
+    public void submit(String userId, Transaction previous, Transaction current) {
+        submitAll(userId, List.of(new TransactionChange(previous, current)));
+    }
+
+    public void submitAll(String userId, List<TransactionChange> changes) {
+        requested.increment(changes.size());
+        if (pending.size() >= maxPending && !pending.containsKey(userId)) {
+            // Backpressure: once the queue is full, new users are applied on the caller's thread instead of queued.
+            applyInline(userId, changes);
+            return;
+        }
+        enqueue(userId, changes, debounce);
+    }
+
+    public int queueDepth() {
+        return pending.size();
+    }
+
+    public double coalescingRatio() {
+        double runs = executed.count();
+        return runs == 0 ? 0.0 : requested.count() / runs;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(debounce.toMillis() + 5_000, TimeUnit.MILLISECONDS)) {
+            log.warn("Insights recalculation did not finish before shutdown; {} users left pending", pending.size());
+            executor.shutdownNow();
+        }
+    }
+
+    void drain(String userId) {
+        List<TransactionChange> changes = pending.remove(userId);
+        if (changes == null) {
+            return;
+        }
+        boolean recalculate = needsRecalculation.remove(userId);
+        try {
+            if (recalculate) {
+                insightsService.recalculate(userId);
+            } else {
+                insightsService.applyChanges(userId, changes);
+            }
+            failures.remove(userId);
+            executed.increment();
+        } catch (RuntimeException e) {
+            failed.increment();
+            int attempt = failures.merge(userId, 1, Integer::sum);
+            if (attempt >= maxAttempts) {
+                failures.remove(userId);
+                abandoned.increment();
+                log.error("Giving up on insights recalculation for user {} after {} attempts: {}. "
+                        + "Totals are rebuilt on the first read after insights.cache.ttl", userId, attempt, e.getMessage());
+                return;
+            }
+            Duration delay = backoff(attempt);
+            log.warn("Insights recalculation failed for user {} (attempt {}): {}. Retrying with a full recalculation in {} ms",
+                    userId, attempt, e.getMessage(), delay.toMillis());
+            // The increments may already be stored, so the retry rebuilds from the transactions instead of re-applying them.
+            needsRecalculation.add(userId);
+            enqueue(userId, List.of(), delay);
+        }
+    }
+
+    private void applyInline(String userId, List<TransactionChange> changes) {
+        inline.increment();
+        try {
+            insightsService.applyChanges(userId, changes);
+            executed.increment();
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.warn("Inline insights update failed for user {} with {} users queued: {}. "
+                    + "Totals are rebuilt on the first read after insights.cache.ttl", userId, pending.size(), e.getMessage());
+        }
+    }
+
+    private void enqueue(String userId, List<TransactionChange> changes, Duration delay) {
+        boolean[] firstInWindow = new boolean[1];
+        pending.compute(userId, (key, queued) -> {
+            if (queued == null) {
+                queued = new ArrayList<>();
+                firstInWindow[0] = true;
+            }
+            queued.addAll(changes);
+            return queued;
+        });
+        if (firstInWindow[0]) {
+            executor.schedule(() -> drain(userId), delay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private Duration backoff(int attempt) {
+        Duration base = debounce.compareTo(MIN_BACKOFF) < 0 ? MIN_BACKOFF : debounce;
+        Duration delay = base.multipliedBy(1L << Math.min(attempt - 1, 16));
+        return delay.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : delay;
+    }
+
+    private static ScheduledExecutorService newExecutor(int workers) {
+        AtomicInteger sequence = new AtomicInteger();
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(workers, runnable -> {
+            Thread thread = new Thread(runnable, "insights-recalculation-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+}
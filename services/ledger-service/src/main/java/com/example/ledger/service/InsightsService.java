@@ -1,131 +1,159 @@
 package com.example.ledger.service;
 
 import com.example.ledger.domain.CategoriesSummary;
+import com.example.ledger.domain.CurrencyTotals;
 import com.example.ledger.domain.InsightsSnapshot;
+import com.example.ledger.domain.LedgerTotals;
 import com.example.ledger.domain.MonthlySummary;
 import com.example.ledger.domain.RiskInsight;
 import com.example.ledger.domain.Transaction;
-import com.example.ledger.domain.TransactionType;
+import com.example.ledger.domain.TransactionChange;
+import com.example.ledger.repository.InsightsCache;
 import com.example.ledger.repository.InsightsRepository;
 import com.example.ledger.repository.TransactionRepository;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.Clock;
-import java.time.Duration;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
 public class InsightsService {
 
     private static final Logger log = LoggerFactory.getLogger(InsightsService.class);
-    private static final Duration CACHE_TTL = Duration.ofMinutes(30);
 
     private final InsightsRepository insightsRepository;
     private final TransactionRepository transactionRepository;
+    private final InsightsCache insightsCache;
+    private final boolean incremental;
+    private final String defaultCurrency;
     private final Clock clock;
-
-    public InsightsService(InsightsRepository insightsRepository, TransactionRepository transactionRepository) {
-        this(insightsRepository, transactionRepository, Clock.systemUTC());
+    private final Object[] userLocks = new Object[64];
+
+    @Autowired
+    public InsightsService(
+            InsightsRepository insightsRepository,
+            TransactionRepository transactionRepository,
+            InsightsCache insightsCache,
+            @Value("${insights.incremental.enabled:true}") boolean incremental,
+            @Value("${insights.reporting-currency:USD}") String defaultCurrency
+    ) {
+        this(insightsRepository, transactionRepository, insightsCache, incremental, defaultCurrency, Clock.systemUTC());
     }
 
-    InsightsService(InsightsRepository insightsRepository, TransactionRepository transactionRepository, Clock clock) {
+    InsightsService(InsightsRepository insightsRepository, TransactionRepository transactionRepository, InsightsCache insightsCache,
+                    boolean incremental, String defaultCurrency, Clock clock) {
         this.insightsRepository = insightsRepository;
         this.transactionRepository = transactionRepository;
+        this.insightsCache = insightsCache;
+        this.incremental = incremental;
+        this.defaultCurrency = defaultCurrency;
         this.clock = clock;
+        for (int i = 0; i < userLocks.length; i++) {
+            userLocks[i] = new Object();
+        }
     }
 
-    public InsightsSnapshot getInsights(String userId) {
-        Optional<MonthlySummary> monthlySummary = insightsRepository.findMonthlySummary(userId);
-        Optional<CategoriesSummary> categoriesSummary = insightsRepository.findCategoriesSummary(userId);
-        Optional<RiskInsight> riskInsight = insightsRepository.findRiskInsight(userId);
-
-        if (monthlySummary.isPresent() && categoriesSummary.isPresent() && riskInsight.isPresent()
-                && !isStale(monthlySummary.get().getUpdatedAt(), categoriesSummary.get().getUpdatedAt(), riskInsight.get().getUpdatedAt())) {
-            return new InsightsSnapshot(monthlySummary.get(), categoriesSummary.get(), riskInsight.get(), false);
+    public InsightsSnapshot getInsights(String userId, String currency) {
+        Optional<LedgerTotals> cached = insightsCache.get(userId, insightsRepository::findTotals);
+        if (cached.isPresent() && !isStale(cached.get())) {
+            return snapshot(cached.get(), currency, false);
         }
 
         log.debug("Insights cache missing or stale for user {}. Recalculating.", userId);
-        return recalculate(userId);
+        return snapshot(recalculate(userId), currency, true);
     }
 
-    public InsightsSnapshot recalculate(String userId) {
-        List<Transaction> transactions = transactionRepository.findAllForUser(userId);
-        Instant now = clock.instant();
+    public InsightsSnapshot refresh(String userId, String currency) {
+        return snapshot(recalculate(userId), currency, true);
+    }
 
-        BigDecimal totalIncome = transactions.stream()
-                .filter(tx -> tx.getType() == TransactionType.CREDIT)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalExpense = transactions.stream()
-                .filter(tx -> tx.getType() == TransactionType.DEBIT)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        Map<String, BigDecimal> expensesByCategory = new HashMap<>();
-        Map<String, BigDecimal> incomesByCategory = new HashMap<>();
-        for (Transaction transaction : transactions) {
-            if (transaction.getCategory() == null || transaction.getCategory().isBlank()) {
-                continue;
-            }
-            if (transaction.getType() == TransactionType.CREDIT) {
-                incomesByCategory.merge(transaction.getCategory(), transaction.getAmount(), BigDecimal::add);
-            } else if (transaction.getType() == TransactionType.DEBIT) {
-                expensesByCategory.merge(transaction.getCategory(), transaction.getAmount(), BigDecimal::add);
-            }
+    public LedgerTotals recalculate(String userId) {
+        synchronized (lockFor(userId)) {
+            List<Transaction> transactions = transactionRepository.findAllForUser(userId);
+            LedgerTotals totals = toLedgerTotals(InsightsAggregator.byCurrency(transactions).values());
+            insightsRepository.replaceTotals(userId, totals.byCurrency().values());
+            insightsCache.put(userId, totals);
+            return totals;
         }
+    }
 
-        MonthlySummary monthlySummary = new MonthlySummary(
-                totalIncome,
-                totalExpense,
-                totalIncome.subtract(totalExpense),
-                now
-        );
+    public LedgerTotals applyChange(String userId, Transaction previous, Transaction current) {
+        return applyChanges(userId, List.of(new TransactionChange(previous, current)));
+    }
+
+    public LedgerTotals applyChanges(String userId, List<TransactionChange> changes) {
+        if (!incremental) {
+            return recalculate(userId);
+        }
 
-        CategoriesSummary categoriesSummary = new CategoriesSummary(expensesByCategory, incomesByCategory, now);
-        RiskInsight riskInsight = buildRiskInsight(totalIncome, totalExpense, now);
+        Map<String, InsightsAggregator> deltas = new HashMap<>();
+        InsightsAggregator.applyAll(deltas, changes);
+        if (deltas.isEmpty()) {
+            return insightsCache.get(userId, insightsRepository::findTotals).orElseGet(() -> recalculate(userId));
+        }
 
-        insightsRepository.saveMonthlySummary(userId, monthlySummary);
-        insightsRepository.saveCategoriesSummary(userId, categoriesSummary);
-        insightsRepository.saveRiskInsight(userId, riskInsight);
+        synchronized (lockFor(userId)) {
+            Instant now = clock.instant();
+            insightsRepository.applyDeltas(userId, deltas.values().stream().map(delta -> delta.toTotals(now)).toList());
+            insightsCache.invalidate(userId);
 
-        return new InsightsSnapshot(monthlySummary, categoriesSummary, riskInsight, true);
+            Optional<LedgerTotals> stored = insightsRepository.findTotals(userId);
+            if (stored.isEmpty() || isStale(stored.get())) {
+                log.debug("Insights for user {} are due for reconciliation. Running a full recalculation.", userId);
+                return recalculate(userId);
+            }
+            if (hasDrift(stored.get())) {
+                log.warn("Insights drift detected for user {}. Reconciling with a full recalculation.", userId);
+                return recalculate(userId);
+            }
+            insightsCache.put(userId, stored.get());
+            return stored.get();
+        }
     }
 
-    private boolean isStale(Instant monthlyUpdated, Instant categoriesUpdated, Instant riskUpdated) {
-        Instant threshold = clock.instant().minus(CACHE_TTL);
-        return monthlyUpdated.isBefore(threshold) || categoriesUpdated.isBefore(threshold) || riskUpdated.isBefore(threshold);
+    private static boolean hasDrift(LedgerTotals totals) {
+        return totals.byCurrency().values().stream().map(InsightsAggregator::from).anyMatch(InsightsAggregator::hasDrift);
     }
 
-    private RiskInsight buildRiskInsight(BigDecimal totalIncome, BigDecimal totalExpense, Instant updatedAt) {
-        if (totalIncome.signum() == 0 && totalExpense.signum() == 0) {
-            return new RiskInsight(20, "LOW", "Aún no hay suficientes movimientos para evaluar riesgos", updatedAt);
+    private LedgerTotals toLedgerTotals(Collection<InsightsAggregator> aggregators) {
+        Instant now = clock.instant();
+        Map<String, CurrencyTotals> byCurrency = new HashMap<>();
+        for (InsightsAggregator aggregator : aggregators) {
+            byCurrency.put(aggregator.currency(), aggregator.toTotals(now));
         }
+        return new LedgerTotals(byCurrency);
+    }
 
-        BigDecimal utilization = totalIncome.signum() == 0
-                ? BigDecimal.valueOf(1)
-                : totalExpense.divide(totalIncome.max(BigDecimal.ONE), 2, RoundingMode.HALF_UP);
-
-        int score = utilization.multiply(BigDecimal.valueOf(100)).min(BigDecimal.valueOf(100)).intValue();
-        String level;
-        String message;
-        if (score >= 80) {
-            level = "HIGH";
-            message = "Tu nivel de gasto es alto respecto a tus ingresos";
-        } else if (score >= 50) {
-            level = "MEDIUM";
-            message = "Tus gastos están creciendo, revisa tus categorías principales";
-        } else {
-            level = "LOW";
-            message = "Tus gastos se mantienen bajo control";
-        }
-        return new RiskInsight(score, level, message, updatedAt);
+    private InsightsSnapshot snapshot(LedgerTotals totals, String requested, boolean refreshed) {
+        String currency = requested == null ? defaultCurrency : requested;
+        CurrencyTotals selected = totals.currency(currency).orElseGet(() -> CurrencyTotals.empty(currency, totals.latestUpdate()));
+        InsightsAggregator aggregator = InsightsAggregator.from(selected);
+        MonthlySummary monthlySummary = new MonthlySummary(
+                aggregator.income(),
+                aggregator.expense(),
+                aggregator.netBalance(),
+                selected.updatedAt()
+        );
+        CategoriesSummary categoriesSummary = new CategoriesSummary(aggregator.expensesByCategory(), aggregator.incomesByCategory(),
+                selected.updatedAt());
+        RiskInsight riskInsight = RiskInsight.fromTotals(monthlySummary.getTotalIncome(), monthlySummary.getTotalExpense(), selected.updatedAt());
+        return new InsightsSnapshot(monthlySummary, categoriesSummary, riskInsight, currency, totals.currencies(), refreshed);
+    }
+
+    private Object lockFor(String userId) {
+        return userLocks[Math.floorMod(userId.hashCode(), userLocks.length)];
+    }
+
+    private boolean isStale(LedgerTotals totals) {
+        // Measured from the last full recompute: incremental writes refresh updatedAt but never prove the totals are right.
+        return totals.oldestRecompute().isBefore(clock.instant().minus(insightsCache.ttl()));
     }
 }
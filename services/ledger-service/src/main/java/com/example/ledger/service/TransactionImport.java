@@ -0,0 +1,81 @@
+package com.example.ledger.service;
+
+import com.example.ledger.domain.Transaction;
+import com.example.ledger.domain.TransactionChange;
+import com.example.ledger.domain.TransactionImportResult;
+import com.example.ledger.domain.TransactionWriteOutcome;
+import com.example.ledger.repository.TransactionRepository;
+import com.example.ledger.web.dto.TransactionRequest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+public class TransactionImport {
+
+    private final String userId;
+    private final TransactionRepository repository;
+    private final InsightsRecalculationScheduler recalculationScheduler;
+    private final int chunkSize;
+    private final List<Integer> pendingIndexes = new ArrayList<>();
+    private final List<Transaction> pending = new ArrayList<>();
+    private final List<TransactionImportResult> results = new ArrayList<>();
+    private final List<TransactionChange> changes = new ArrayList<>();
+    private boolean finished;
+
+    TransactionImport(String userId, TransactionRepository repository,
+                      InsightsRecalculationScheduler recalculationScheduler, int chunkSize) {
+        this.userId = userId;
+        this.repository = repository;
+        this.recalculationScheduler = recalculationScheduler;
+        this.chunkSize = chunkSize;
+    }
+
+    public void add(int index, TransactionRequest request) {
+        ensureOpen();
+        pendingIndexes.add(index);
+        pending.add(TransactionService.newTransaction(userId, request));
+        if (pending.size() >= chunkSize) {
+            flush();
+        }
+    }
+
+    public void reject(int index, List<String> errors) {
+        ensureOpen();
+        results.add(new TransactionImportResult(index, null, List.copyOf(errors)));
+    }
+
+    public List<TransactionImportResult> finish() {
+        ensureOpen();
+        flush();
+        finished = true;
+        if (!changes.isEmpty()) {
+            recalculationScheduler.submitAll(userId, changes);
+        }
+        results.sort(Comparator.comparingInt(TransactionImportResult::index));
+        return results;
+    }
+
+    private void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<TransactionWriteOutcome> outcomes = repository.saveAll(userId, pending);
+        for (int i = 0; i < outcomes.size(); i++) {
+            TransactionWriteOutcome outcome = outcomes.get(i);
+            if (outcome.succeeded()) {
+                results.add(new TransactionImportResult(pendingIndexes.get(i), outcome.transaction(), List.of()));
+                changes.add(new TransactionChange(null, outcome.transaction()));
+            } else {
+                results.add(new TransactionImportResult(pendingIndexes.get(i), null, List.of(outcome.error())));
+            }
+        }
+        pending.clear();
+        pendingIndexes.clear();
+    }
+
+    private void ensureOpen() {
+        if (finished) {
+            throw new IllegalStateException("Import already finished");
+        }
+    }
+}
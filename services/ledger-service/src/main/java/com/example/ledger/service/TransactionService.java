@@ -1,6 +1,8 @@
 package com.example.ledger.service;
 
 import com.example.ledger.domain.Transaction;
+import com.example.ledger.domain.TransactionCursor;
+import com.example.ledger.domain.TransactionPage;
 import com.example.ledger.domain.TransactionStatus;
 import com.example.ledger.repository.TransactionRepository;
 import com.example.ledger.web.dto.TransactionRequest;
@@ -8,65 +10,108 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import org.springframework.stereotype.Service;
 
 @Service
 public class TransactionService {
 
+    private static final int STREAM_BATCH_SIZE = 500;
+    private static final int IMPORT_CHUNK_SIZE = 500;
+    private static final String DEFAULT_CURRENCY = "USD";
+
     private final TransactionRepository repository;
-    private final InsightsService insightsService;
+    private final InsightsRecalculationScheduler recalculationScheduler;
 
-    public TransactionService(TransactionRepository repository, InsightsService insightsService) {
+    public TransactionService(TransactionRepository repository, InsightsRecalculationScheduler recalculationScheduler) {
         this.repository = repository;
-        this.insightsService = insightsService;
+        this.recalculationScheduler = recalculationScheduler;
     }
 
     public List<Transaction> findAll(String userId) {
         return repository.findAllForUser(userId);
     }
 
+    public TransactionPage findPage(String userId, TransactionCursor cursor, int limit) {
+        List<Transaction> transactions = repository.findPageForUser(userId, cursor, limit + 1);
+        if (transactions.size() <= limit) {
+            return new TransactionPage(transactions, null);
+        }
+        List<Transaction> page = transactions.subList(0, limit);
+        return new TransactionPage(page, TransactionCursor.of(page.get(limit - 1)));
+    }
+
+    public void streamAll(String userId, Consumer<Transaction> consumer) {
+        repository.streamForUser(userId, STREAM_BATCH_SIZE, consumer);
+    }
+
     public Optional<Transaction> findById(String userId, String id) {
         return repository.findById(userId, id);
     }
 
     public Transaction create(String userId, TransactionRequest request) {
-        Transaction transaction = new Transaction(
-                null,
-                userId,
-                request.type(),
-                request.amount(),
-                request.title(),
-                request.description(),
-                request.category(),
-                LocalDate.parse(request.date()),
-                TransactionStatus.POSTED,
-                "USD",
-                Instant.now()
-        );
-        Transaction created = repository.save(userId, transaction);
-        insightsService.recalculate(userId);
+        Transaction created = repository.save(userId, newTransaction(userId, request));
+        recalculationScheduler.submit(userId, null, created);
         return created;
     }
 
     public Optional<Transaction> update(String userId, String id, TransactionRequest request) {
         return repository.findById(userId, id).map(existing -> {
+            Transaction previous = copyOf(existing);
             existing.setType(request.type());
+            if (request.currency() != null) {
+                existing.setCurrency(request.currency());
+            }
             existing.setAmount(request.amount());
             existing.setTitle(request.title());
             existing.setDescription(request.description());
             existing.setCategory(request.category());
             existing.setEventDate(LocalDate.parse(request.date()));
             Transaction updated = repository.save(userId, existing);
-            insightsService.recalculate(userId);
+            recalculationScheduler.submit(userId, previous, updated);
             return updated;
         });
     }
 
     public boolean delete(String userId, String id) {
-        boolean deleted = repository.delete(userId, id);
-        if (deleted) {
-            insightsService.recalculate(userId);
-        }
-        return deleted;
+        Optional<Transaction> deleted = repository.delete(userId, id);
+        deleted.ifPresent(transaction -> recalculationScheduler.submit(userId, transaction, null));
+        return deleted.isPresent();
+    }
+
+    public TransactionImport startImport(String userId) {
+        return new TransactionImport(userId, repository, recalculationScheduler, IMPORT_CHUNK_SIZE);
+    }
+
+    static Transaction newTransaction(String userId, TransactionRequest request) {
+        return new Transaction(
+                null,
+                userId,
+                request.type(),
+                request.amount(),
+                request.title(),
+                request.description(),
+                request.category(),
+                LocalDate.parse(request.date()),
+                TransactionStatus.POSTED,
+                request.currency() == null ? DEFAULT_CURRENCY : request.currency(),
+                Instant.now()
+        );
+    }
+
+    private Transaction copyOf(Transaction transaction) {
+        return new Transaction(
+                transaction.getId(),
+                transaction.getUserId(),
+                transaction.getType(),
+                transaction.getAmount(),
+                transaction.getTitle(),
+                transaction.getDescription(),
+                transaction.getCategory(),
+                transaction.getEventDate(),
+                transaction.getStatus(),
+                transaction.getCurrency(),
+                transaction.getCreatedAt()
+        );
     }
 }
@@ -3,11 +3,14 @@ package com.example.ledger.web.controller;
 import com.example.ledger.domain.InsightsSnapshot;
 import com.example.ledger.service.InsightsService;
 import com.example.ledger.web.dto.InsightsResponse;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 @RestController
 @RequestMapping("/api/insights")
@@ -20,16 +23,26 @@ public class InsightsController {
     }
 
     @GetMapping
-    public InsightsResponse getInsights(Authentication authentication) {
+    public InsightsResponse getInsights(@RequestParam(required = false) String currency, Authentication authentication) {
         String userId = (String) authentication.getPrincipal();
-        InsightsSnapshot snapshot = insightsService.getInsights(userId);
+        InsightsSnapshot snapshot = insightsService.getInsights(userId, validCurrency(currency));
         return InsightsResponse.from(snapshot);
     }
 
     @PostMapping("/refresh")
-    public InsightsResponse refreshInsights(Authentication authentication) {
+    public InsightsResponse refreshInsights(@RequestParam(required = false) String currency, Authentication authentication) {
         String userId = (String) authentication.getPrincipal();
-        InsightsSnapshot snapshot = insightsService.recalculate(userId);
+        InsightsSnapshot snapshot = insightsService.refresh(userId, validCurrency(currency));
         return InsightsResponse.from(snapshot);
     }
+
+    private String validCurrency(String currency) {
+        if (currency == null || currency.isBlank()) {
+            return null;
+        }
+        if (!currency.matches("[A-Z]{3}")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "currency debe ser un código ISO 4217 (por ejemplo USD)");
+        }
+        return currency;
+    }
 }
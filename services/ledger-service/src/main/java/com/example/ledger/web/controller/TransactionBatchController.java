@@ -0,0 +1,141 @@
+package com.example.ledger.web.controller;
+
+import com.example.ledger.domain.Transaction;
+import com.example.ledger.domain.TransactionImportResult;
+import com.example.ledger.service.TransactionImport;
+import com.example.ledger.service.TransactionService;
+import com.example.ledger.web.dto.TransactionBatchItemResponse;
+import com.example.ledger.web.dto.TransactionBatchResponse;
+import com.example.ledger.web.dto.TransactionRequest;
+import com.example.ledger.web.dto.TransactionResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import jakarta.validation.constraints.Size;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/transactions:batch")
+public class TransactionBatchController {
+
+    static final int MAX_ITEMS = 10000;
+    private static final String TOO_MANY_ITEMS = "como máximo " + MAX_ITEMS + " transacciones por lote";
+
+    private final TransactionService service;
+    private final Validator validator;
+    private final ObjectReader requestReader;
+
+    public TransactionBatchController(TransactionService service, Validator validator, ObjectMapper objectMapper) {
+        this.service = service;
+        this.validator = validator;
+        this.requestReader = objectMapper.readerFor(TransactionRequest.class);
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public TransactionBatchResponse importJson(@RequestBody @Size(max = MAX_ITEMS, message = TOO_MANY_ITEMS) List<TransactionRequest> requests,
+                                               Authentication authentication) {
+        String userId = (String) authentication.getPrincipal();
+        TransactionImport transactionImport = service.startImport(userId);
+        for (int index = 0; index < requests.size(); index++) {
+            accept(transactionImport, index, requests.get(index));
+        }
+        return toResponse(transactionImport.finish());
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public TransactionBatchResponse importNdjson(InputStream body, Authentication authentication) throws IOException {
+        String userId = (String) authentication.getPrincipal();
+        TransactionImport transactionImport = service.startImport(userId);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        int index = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            if (index == MAX_ITEMS) {
+                // The stream is written as it is read, so the accepted prefix stays and the rest is not read.
+                transactionImport.reject(index, List.of(TOO_MANY_ITEMS));
+                break;
+            }
+            try {
+                accept(transactionImport, index, requestReader.readValue(line));
+            } catch (JsonProcessingException e) {
+                transactionImport.reject(index, List.of("JSON inválido: " + e.getOriginalMessage()));
+            }
+            index++;
+        }
+        return toResponse(transactionImport.finish());
+    }
+
+    private void accept(TransactionImport transactionImport, int index, TransactionRequest request) {
+        List<String> errors = validate(request);
+        if (errors.isEmpty()) {
+            transactionImport.add(index, request);
+        } else {
+            transactionImport.reject(index, errors);
+        }
+    }
+
+    private List<String> validate(TransactionRequest request) {
+        if (request == null) {
+            return List.of("la transacción es requerida");
+        }
+        List<String> errors = new ArrayList<>();
+        for (ConstraintViolation<TransactionRequest> violation : validator.validate(request)) {
+            errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        if (request.date() != null && errors.isEmpty()) {
+            try {
+                LocalDate.parse(request.date());
+            } catch (DateTimeParseException e) {
+                errors.add("date: date debe usar formato ISO-8601 (YYYY-MM-DD)");
+            }
+        }
+        return errors;
+    }
+
+    private TransactionBatchResponse toResponse(List<TransactionImportResult> results) {
+        List<TransactionBatchItemResponse> items = new ArrayList<>(results.size());
+        int created = 0;
+        for (TransactionImportResult result : results) {
+            if (result.succeeded()) {
+                created++;
+                items.add(new TransactionBatchItemResponse(result.index(), "CREATED", toResponse(result.transaction()), List.of()));
+            } else {
+                items.add(new TransactionBatchItemResponse(result.index(), "REJECTED", null, result.errors()));
+            }
+        }
+        return new TransactionBatchResponse(created, results.size() - created, items);
+    }
+
+    private TransactionResponse toResponse(Transaction transaction) {
+        return new TransactionResponse(
+                transaction.getId(),
+                transaction.getType(),
+                transaction.getAmount(),
+                transaction.getCurrency(),
+                transaction.getTitle(),
+                transaction.getDescription(),
+                transaction.getCategory(),
+                transaction.getEventDate(),
+                transaction.getCreatedAt()
+        );
+    }
+}
@@ -1,13 +1,21 @@
 package com.example.ledger.web.controller;
 
 import com.example.ledger.domain.Transaction;
+import com.example.ledger.domain.TransactionCursor;
+import com.example.ledger.domain.TransactionPage;
 import com.example.ledger.service.TransactionService;
+import com.example.ledger.web.dto.TransactionPageResponse;
 import com.example.ledger.web.dto.TransactionRequest;
 import com.example.ledger.web.dto.TransactionResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.util.List;
 import java.util.stream.Collectors;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -17,16 +25,24 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/transactions")
 public class TransactionController {
 
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final byte[] NEW_LINE = {'\n'};
+
     private final TransactionService service;
+    private final ObjectMapper objectMapper;
 
-    public TransactionController(TransactionService service) {
+    public TransactionController(TransactionService service, ObjectMapper objectMapper) {
         this.service = service;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
@@ -37,6 +53,35 @@ public class TransactionController {
                 .collect(Collectors.toList());
     }
 
+    @GetMapping(params = "limit")
+    public TransactionPageResponse findPage(@RequestParam int limit,
+                                            @RequestParam(required = false) String cursor,
+                                            Authentication authentication) {
+        String userId = (String) authentication.getPrincipal();
+        TransactionPage page = service.findPage(userId, decodeCursor(cursor), Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+        return new TransactionPageResponse(
+                page.getTransactions().stream().map(this::toResponse).collect(Collectors.toList()),
+                page.hasMore() ? page.getNextCursor().encode() : null,
+                page.hasMore()
+        );
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll(Authentication authentication) {
+        String userId = (String) authentication.getPrincipal();
+        StreamingResponseBody body = outputStream -> service.streamAll(userId, transaction -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(toResponse(transaction)));
+                outputStream.write(NEW_LINE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<TransactionResponse> findById(@PathVariable String id, Authentication authentication) {
         String userId = (String) authentication.getPrincipal();
@@ -59,9 +104,14 @@ public class TransactionController {
                                                       @Valid @RequestBody TransactionRequest request,
                                                       Authentication authentication) {
         String userId = (String) authentication.getPrincipal();
-        return service.update(userId, id, request)
-                .map(updated -> ResponseEntity.ok(toResponse(updated)))
-                .orElseGet(() -> ResponseEntity.notFound().build());
+        try {
+            return service.update(userId, id, request)
+                    .map(updated -> ResponseEntity.ok(toResponse(updated)))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            // The request may omit currency and keep the stored one, whose minor unit the request could not check.
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
     }
 
     @DeleteMapping("/{id}")
@@ -70,11 +120,23 @@ public class TransactionController {
         return service.delete(userId, id) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
     }
 
+    private TransactionCursor decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return TransactionCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "cursor inválido", e);
+        }
+    }
+
     private TransactionResponse toResponse(Transaction transaction) {
         return new TransactionResponse(
                 transaction.getId(),
                 transaction.getType(),
                 transaction.getAmount(),
+                transaction.getCurrency(),
                 transaction.getTitle(),
                 transaction.getDescription(),
                 transaction.getCategory(),
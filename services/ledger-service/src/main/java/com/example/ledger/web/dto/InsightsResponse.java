@@ -7,14 +7,19 @@ import com.example.ledger.domain.RiskInsight;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
-public record InsightsResponse(MonthlySummaryDto monthlySummary, CategoriesSummaryDto categoriesSummary, RiskInsightDto risk, boolean refreshed) {
+public record InsightsResponse(MonthlySummaryDto monthlySummary, CategoriesSummaryDto categoriesSummary, RiskInsightDto risk, String currency,
+                               Set<String> currencies, boolean refreshed) {
 
     public static InsightsResponse from(InsightsSnapshot snapshot) {
         return new InsightsResponse(
                 MonthlySummaryDto.from(snapshot.getMonthlySummary()),
                 CategoriesSummaryDto.from(snapshot.getCategoriesSummary()),
                 RiskInsightDto.from(snapshot.getRiskInsight()),
+                snapshot.getCurrency(),
+                new TreeSet<>(snapshot.getCurrencies()),
                 snapshot.isRefreshed()
         );
     }
@@ -0,0 +1,11 @@
+package com.example.ledger.web.dto;
+
+import java.util.List;
+
+public record TransactionBatchItemResponse(
+        int index,
+        String status,
+        TransactionResponse transaction,
+        List<String> errors
+) {
+}
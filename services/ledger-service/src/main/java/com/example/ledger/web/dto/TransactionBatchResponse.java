@@ -0,0 +1,10 @@
+package com.example.ledger.web.dto;
+
+import java.util.List;
+
+public record TransactionBatchResponse(
+        int created,
+        int rejected,
+        List<TransactionBatchItemResponse> items
+) {
+}
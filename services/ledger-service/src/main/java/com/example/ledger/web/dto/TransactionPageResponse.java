@@ -0,0 +1,10 @@
+package com.example.ledger.web.dto;
+
+import java.util.List;
+
+public record TransactionPageResponse(
+        List<TransactionResponse> items,
+        String nextCursor,
+        boolean hasMore
+) {
+}
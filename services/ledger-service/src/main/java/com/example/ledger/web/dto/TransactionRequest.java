@@ -1,8 +1,13 @@
 package com.example.ledger.web.dto;
 
+import com.example.ledger.domain.MoneyUnits;
 import com.example.ledger.domain.TransactionType;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Positive;
 import io.swagger.v3.oas.annotations.media.Schema;
 import java.math.BigDecimal;
@@ -17,6 +22,7 @@ public record TransactionRequest(
         TransactionType type,
         @NotNull(message = "amount es requerido")
         @Positive(message = "amount debe ser mayor a cero")
+        @Digits(integer = 15, fraction = 4, message = "amount admite hasta 15 enteros y 4 decimales")
         BigDecimal amount,
         @NotBlank(message = "description es requerida")
         @Size(max = 200)
@@ -26,6 +32,16 @@ public record TransactionRequest(
         String category,
         @NotBlank(message = "date es requerida")
         @Size(min = 10, max = 10, message = "date debe usar formato ISO-8601 (YYYY-MM-DD)")
-        String date
+        String date,
+        @Pattern(regexp = "[A-Z]{3}", message = "currency debe ser un código ISO 4217 (por ejemplo USD)")
+        @Schema(description = "Moneda de la transacción; USD si se omite", example = "MXN")
+        String currency
 ) {
+
+    // Money is never rounded on the way in: 10.50 JPY is rejected instead of being stored as 11.
+    @JsonIgnore
+    @AssertTrue(message = "amount tiene más decimales de los que admite la moneda")
+    public boolean isAmountWithinCurrencyScale() {
+        return amount == null || MoneyUnits.fitsScale(amount, MoneyUnits.scaleFor(currency));
+    }
 }
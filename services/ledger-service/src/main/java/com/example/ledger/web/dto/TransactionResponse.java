@@ -9,6 +9,7 @@ public record TransactionResponse(
         String id,
         TransactionType type,
         BigDecimal amount,
+        String currency,
         String title,
         String description,
         String category,
@@ -0,0 +1,134 @@
+package com.example.ledger;
+
+import com.example.ledger.domain.TransactionType;
+import com.example.ledger.service.TransactionImport;
+import com.example.ledger.service.TransactionService;
+import com.example.ledger.web.controller.TransactionBatchController;
+import com.example.ledger.web.dto.TransactionRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(TransactionBatchController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class TransactionBatchControllerTest {
+
+    private static final UsernamePasswordAuthenticationToken USER =
+            new UsernamePasswordAuthenticationToken("test-user", null, List.of());
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private TransactionService service;
+
+    @Test
+    @DisplayName("importa un lote JSON dentro del límite")
+    void shouldImportJsonBatch() throws Exception {
+        TransactionImport transactionImport = startImport();
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/transactions:batch")
+                        .principal(USER)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(request(), request()))))
+                .andExpect(status().isOk());
+
+        verify(transactionImport, times(2)).add(anyInt(), any(TransactionRequest.class));
+    }
+
+    @Test
+    @DisplayName("rechaza lotes JSON con más de 10000 transacciones")
+    void shouldRejectJsonBatchOverTheLimit() throws Exception {
+        String payload = objectMapper.writeValueAsString(Collections.nCopies(10001, request()));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/transactions:batch")
+                        .principal(USER)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(payload))
+                .andExpect(status().isBadRequest());
+
+        verify(service, never()).startImport(anyString());
+    }
+
+    @Test
+    @DisplayName("deja de leer un NDJSON al superar 10000 transacciones")
+    void shouldStopReadingNdjsonOverTheLimit() throws Exception {
+        TransactionImport transactionImport = startImport();
+        String line = objectMapper.writeValueAsString(request());
+        List<String> lines = new ArrayList<>(Collections.nCopies(10002, line));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/transactions:batch")
+                        .principal(USER)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(String.join("\n", lines)))
+                .andExpect(status().isOk());
+
+        verify(transactionImport, times(10000)).add(anyInt(), any(TransactionRequest.class));
+        verify(transactionImport).reject(10000, List.of("como máximo 10000 transacciones por lote"));
+        verify(transactionImport, never()).add(10000, request());
+    }
+
+    @Test
+    @DisplayName("rechaza importes con más decimales de los que admite la moneda")
+    void shouldRejectAmountsFinerThanTheCurrencyMinorUnit() throws Exception {
+        TransactionImport transactionImport = startImport();
+        List<TransactionRequest> requests = List.of(
+                request(new BigDecimal("10.50"), "JPY"),
+                request(new BigDecimal("10"), "JPY"),
+                request(new BigDecimal("1.234"), "KWD"),
+                request(new BigDecimal("1.234"), "USD"));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/transactions:batch")
+                        .principal(USER)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isOk());
+
+        List<String> tooFine = List.of("amountWithinCurrencyScale: amount tiene más decimales de los que admite la moneda");
+        verify(transactionImport).reject(0, tooFine);
+        verify(transactionImport).add(1, requests.get(1));
+        verify(transactionImport).add(2, requests.get(2));
+        verify(transactionImport).reject(3, tooFine);
+    }
+
+    private TransactionImport startImport() {
+        TransactionImport transactionImport = mock(TransactionImport.class);
+        when(transactionImport.finish()).thenReturn(List.of());
+        when(service.startImport("test-user")).thenReturn(transactionImport);
+        return transactionImport;
+    }
+
+    private TransactionRequest request() {
+        return request(BigDecimal.valueOf(120.50), null);
+    }
+
+    private TransactionRequest request(BigDecimal amount, String currency) {
+        return new TransactionRequest("Pago recibido", TransactionType.CREDIT, amount,
+                "Pago mensual", "Ingresos", "2024-06-01", currency);
+    }
+}
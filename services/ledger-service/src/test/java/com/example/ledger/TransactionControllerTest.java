@@ -72,7 +72,8 @@ class TransactionControllerTest {
                 BigDecimal.valueOf(120.50),
                 "Pago mensual",
                 "Ingresos",
-                LocalDate.now().toString()
+                LocalDate.now().toString(),
+                null
         ));
 
         String location = mockMvc.perform(MockMvcRequestBuilders.post("/api/transactions")
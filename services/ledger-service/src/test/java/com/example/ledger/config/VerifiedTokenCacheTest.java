@@ -0,0 +1,88 @@
+package com.example.ledger.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+class VerifiedTokenCacheTest {
+
+    private static final Instant NOW = Instant.parse("2024-06-05T10:00:00Z");
+
+    private final FirebaseAuth firebaseAuth = mock(FirebaseAuth.class);
+    private MockedStatic<FirebaseAuth> firebaseAuthStatic;
+    private VerifiedTokenCache cache;
+
+    @BeforeEach
+    void setUp() {
+        firebaseAuthStatic = mockStatic(FirebaseAuth.class);
+        firebaseAuthStatic.when(FirebaseAuth::getInstance).thenReturn(firebaseAuth);
+        cache = new VerifiedTokenCache(new FirebaseProperties.TokenCache(), new SimpleMeterRegistry(),
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.close();
+        firebaseAuthStatic.close();
+    }
+
+    @Test
+    void verifyShouldReuseCachedTokenUntilExpiry() throws Exception {
+        FirebaseToken token = token("user-123", NOW.plusSeconds(3600));
+        when(firebaseAuth.verifyIdToken("id-token")).thenReturn(token);
+
+        assertThat(cache.verify("id-token")).isEqualTo("user-123");
+        assertThat(cache.verify("id-token")).isEqualTo("user-123");
+
+        verify(firebaseAuth, times(1)).verifyIdToken(anyString());
+        assertThat(cache.hitCount()).isEqualTo(1);
+        assertThat(cache.missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void verifyShouldNotCacheTokensWithoutExpiry() throws Exception {
+        FirebaseToken token = mock(FirebaseToken.class);
+        when(token.getUid()).thenReturn("user-123");
+        when(token.getClaims()).thenReturn(Map.of());
+        when(firebaseAuth.verifyIdToken("id-token")).thenReturn(token);
+
+        cache.verify("id-token");
+        cache.verify("id-token");
+
+        verify(firebaseAuth, times(2)).verifyIdToken("id-token");
+    }
+
+    @Test
+    void verifyShouldNotCacheAlreadyExpiredTokens() throws Exception {
+        FirebaseToken token = token("user-123", NOW.minusSeconds(1));
+        when(firebaseAuth.verifyIdToken("id-token")).thenReturn(token);
+
+        cache.verify("id-token");
+        cache.verify("id-token");
+
+        verify(firebaseAuth, times(2)).verifyIdToken("id-token");
+    }
+
+    private FirebaseToken token(String uid, Instant expiresAt) {
+        FirebaseToken token = mock(FirebaseToken.class);
+        when(token.getUid()).thenReturn(uid);
+        when(token.getClaims()).thenReturn(Map.of("exp", expiresAt.getEpochSecond()));
+        return token;
+    }
+}
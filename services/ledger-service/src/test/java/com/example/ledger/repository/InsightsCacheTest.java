@@ -0,0 +1,152 @@
+package com.example.ledger.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.ledger.config.InsightsCacheProperties;
+import com.example.ledger.domain.LedgerTotals;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.CollectionGroup;
+import com.google.cloud.firestore.DocumentChange;
+import com.google.cloud.firestore.EventListener;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.FirestoreException;
+import com.google.cloud.firestore.ListenerRegistration;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QuerySnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class InsightsCacheTest {
+
+    private static final String USER_ID = "user-123";
+    private static final Instant STARTED = Instant.parse("2024-06-01T10:00:00Z");
+    private static final Instant LATER = Instant.parse("2024-06-01T10:30:00Z");
+
+    @Mock
+    private Firestore firestore;
+
+    @Mock
+    private CollectionGroup ledgerInsights;
+
+    @Mock
+    private Query query;
+
+    @Mock
+    private ListenerRegistration firstRegistration;
+
+    @Mock
+    private ListenerRegistration secondRegistration;
+
+    @Mock
+    private ScheduledExecutorService scheduler;
+
+    @Mock
+    private Clock clock;
+
+    @Captor
+    private ArgumentCaptor<EventListener<QuerySnapshot>> listenerCaptor;
+
+    @Captor
+    private ArgumentCaptor<Runnable> taskCaptor;
+
+    private InsightsCache cache;
+
+    @BeforeEach
+    void setUp() {
+        when(clock.instant()).thenReturn(STARTED, LATER);
+        when(firestore.collectionGroup(InsightsRepository.COLLECTION)).thenReturn(ledgerInsights);
+        when(ledgerInsights.whereGreaterThan(eq(InsightsRepository.WRITTEN_AT), any(Timestamp.class))).thenReturn(query);
+        when(query.addSnapshotListener(listenerCaptor.capture())).thenReturn(firstRegistration, secondRegistration);
+        cache = new InsightsCache(new InsightsCacheProperties(), firestore, new SimpleMeterRegistry(), scheduler, clock);
+    }
+
+    @Test
+    void anyWriteToTheUserTotalsShouldEvictTheCachedCopy() {
+        cache.put(USER_ID, new LedgerTotals(Map.of()));
+
+        listenerCaptor.getValue().onEvent(changesFor(USER_ID), null);
+
+        assertThat(cache.get(USER_ID, userId -> Optional.empty())).isEmpty();
+    }
+
+    @Test
+    void listenerErrorShouldDropTheCacheAndResubscribeFromTheFailure() {
+        cache.put(USER_ID, new LedgerTotals(Map.of()));
+
+        listenerCaptor.getValue().onEvent(null, mock(FirestoreException.class));
+
+        assertThat(cache.get(USER_ID, userId -> Optional.empty())).isEmpty();
+        verify(scheduler).schedule(taskCaptor.capture(), eq(1000L), eq(TimeUnit.MILLISECONDS));
+        taskCaptor.getValue().run();
+        verify(query, times(2)).addSnapshotListener(any(EventListener.class));
+        verify(ledgerInsights).whereGreaterThan(InsightsRepository.WRITTEN_AT, timestamp(LATER.minusSeconds(60)));
+        verify(firstRegistration, never()).remove();
+
+        cache.put(USER_ID, new LedgerTotals(Map.of()));
+        listenerCaptor.getValue().onEvent(changesFor(USER_ID), null);
+        assertThat(cache.get(USER_ID, userId -> Optional.empty())).isEmpty();
+    }
+
+    @Test
+    void reanchorShouldMoveTheAnchorForwardBeforeDroppingTheOldListener() {
+        verify(ledgerInsights).whereGreaterThan(InsightsRepository.WRITTEN_AT, timestamp(STARTED.minusSeconds(60)));
+        verify(scheduler).scheduleWithFixedDelay(taskCaptor.capture(), eq(600_000L), eq(600_000L), eq(TimeUnit.MILLISECONDS));
+
+        taskCaptor.getValue().run();
+
+        InOrder order = inOrder(query, firstRegistration);
+        order.verify(query, times(2)).addSnapshotListener(any(EventListener.class));
+        order.verify(firstRegistration).remove();
+        verify(ledgerInsights).whereGreaterThan(InsightsRepository.WRITTEN_AT, timestamp(LATER.minusSeconds(60)));
+    }
+
+    @Test
+    void errorFromAReplacedListenerShouldBeIgnored() {
+        verify(scheduler).scheduleWithFixedDelay(taskCaptor.capture(), anyLong(), anyLong(), any(TimeUnit.class));
+        EventListener<QuerySnapshot> replaced = listenerCaptor.getValue();
+        taskCaptor.getValue().run();
+        cache.put(USER_ID, new LedgerTotals(Map.of()));
+
+        replaced.onEvent(null, mock(FirestoreException.class));
+
+        assertThat(cache.get(USER_ID, userId -> Optional.empty())).isPresent();
+        verify(scheduler, never()).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+    }
+
+    private QuerySnapshot changesFor(String userId) {
+        DocumentChange change = mock(DocumentChange.class, RETURNS_DEEP_STUBS);
+        when(change.getDocument().getReference().getParent().getParent().getId()).thenReturn(userId);
+        QuerySnapshot snapshot = mock(QuerySnapshot.class);
+        when(snapshot.getDocumentChanges()).thenReturn(List.of(change));
+        return snapshot;
+    }
+
+    private static Timestamp timestamp(Instant instant) {
+        return Timestamp.ofTimeSecondsAndNanos(instant.getEpochSecond(), instant.getNano());
+    }
+}
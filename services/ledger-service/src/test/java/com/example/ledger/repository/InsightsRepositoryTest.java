@@ -0,0 +1,99 @@
+package com.example.ledger.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.ledger.domain.CurrencyTotals;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.WriteBatch;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class InsightsRepositoryTest {
+
+    private static final String USER_ID = "user-123";
+    private static final Instant NOW = Instant.parse("2024-06-01T10:00:00Z");
+
+    @Mock
+    private Firestore firestore;
+
+    @Mock
+    private CollectionReference users;
+
+    @Mock
+    private DocumentReference user;
+
+    @Mock
+    private CollectionReference ledgerInsights;
+
+    @Mock
+    private DocumentReference usd;
+
+    @Mock
+    private WriteBatch batch;
+
+    @Captor
+    private ArgumentCaptor<Map<String, Object>> fieldsCaptor;
+
+    private InsightsRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        when(firestore.collection("users")).thenReturn(users);
+        when(users.document(USER_ID)).thenReturn(user);
+        when(user.collection(InsightsRepository.COLLECTION)).thenReturn(ledgerInsights);
+        when(ledgerInsights.document("USD")).thenReturn(usd);
+        when(firestore.batch()).thenReturn(batch);
+        when(batch.commit()).thenReturn(ApiFutures.immediateFuture(List.of()));
+        repository = new InsightsRepository(firestore);
+    }
+
+    @Test
+    void applyDeltasShouldIncrementTheLedgerOwnedDocumentOnly() {
+        CurrencyTotals delta = new CurrencyTotals("USD", 0L, 5000L, Map.of("food", -10000L, "leisure", 15000L), Map.of(), NOW, NOW);
+
+        repository.applyDeltas(USER_ID, List.of(delta));
+
+        verify(batch).set(eq(usd), fieldsCaptor.capture(), any(SetOptions.class));
+        verify(user, never()).collection("insights");
+        Map<String, Object> fields = fieldsCaptor.getValue();
+        assertThat(fields.get("expenseMinor")).isInstanceOf(FieldValue.class);
+        assertThat(fields.get("expensesMinor")).asInstanceOf(InstanceOfAssertFactories.MAP)
+                .containsOnlyKeys("food", "leisure")
+                .allSatisfy((category, value) -> assertThat(value).isInstanceOf(FieldValue.class));
+        assertThat(fields).doesNotContainKeys("incomesMinor", "recomputedAt");
+    }
+
+    @Test
+    void replaceTotalsShouldStampTheRecomputeWithoutTouchingSharedInsights() {
+        when(ledgerInsights.listDocuments()).thenReturn(List.of());
+        CurrencyTotals totals = new CurrencyTotals("USD", 100000L, 30000L, Map.of("food", 30000L), Map.of(), NOW, NOW);
+
+        repository.replaceTotals(USER_ID, List.of(totals));
+
+        verify(batch).set(eq(usd), fieldsCaptor.capture());
+        verify(batch, never()).set(any(DocumentReference.class), anyMap(), any(SetOptions.class));
+        verify(user, never()).collection("insights");
+        assertThat(fieldsCaptor.getValue()).containsEntry("expenseMinor", 30000L).containsKey("recomputedAt");
+    }
+}
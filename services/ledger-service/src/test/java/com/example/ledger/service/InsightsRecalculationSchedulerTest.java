@@ -0,0 +1,173 @@
+package com.example.ledger.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.example.ledger.domain.Transaction;
+import com.example.ledger.domain.TransactionChange;
+import com.example.ledger.domain.TransactionStatus;
+import com.example.ledger.domain.TransactionType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class InsightsRecalculationSchedulerTest {
+
+    private static final String USER_ID = "user-123";
+
+    @Mock
+    private InsightsService insightsService;
+
+    @Mock
+    private ScheduledExecutorService executor;
+
+    @Captor
+    private ArgumentCaptor<Runnable> taskCaptor;
+
+    @Captor
+    private ArgumentCaptor<List<TransactionChange>> changesCaptor;
+
+    private InsightsRecalculationScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new InsightsRecalculationScheduler(insightsService, new SimpleMeterRegistry(), Duration.ofMillis(500), 3, 2, executor);
+    }
+
+    @Test
+    void submitShouldCoalesceBurstIntoSingleRecalculation() {
+        for (int i = 0; i < 500; i++) {
+            scheduler.submit(USER_ID, null, transaction(i + 1));
+        }
+
+        verify(executor, times(1)).schedule(taskCaptor.capture(), eq(500L), eq(TimeUnit.MILLISECONDS));
+        assertThat(scheduler.queueDepth()).isEqualTo(1);
+
+        taskCaptor.getValue().run();
+
+        verify(insightsService, times(1)).applyChanges(eq(USER_ID), changesCaptor.capture());
+        assertThat(changesCaptor.getValue()).hasSize(500);
+        assertThat(scheduler.queueDepth()).isZero();
+        assertThat(scheduler.coalescingRatio()).isEqualTo(500.0);
+    }
+
+    @Test
+    void submitAfterDrainShouldScheduleAnotherRecalculation() {
+        scheduler.submit(USER_ID, null, transaction(10));
+        verify(executor).schedule(taskCaptor.capture(), anyLong(), any(TimeUnit.class));
+        taskCaptor.getValue().run();
+
+        scheduler.submit(USER_ID, transaction(10), null);
+
+        verify(executor, times(2)).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    void failedDrainShouldRetryWithAFullRecalculationAndBackoff() {
+        doThrow(new IllegalStateException("Firestore unavailable")).when(insightsService).applyChanges(eq(USER_ID), any());
+        scheduler.submit(USER_ID, null, transaction(10));
+        verify(executor).schedule(taskCaptor.capture(), eq(500L), eq(TimeUnit.MILLISECONDS));
+
+        taskCaptor.getValue().run();
+
+        assertThat(scheduler.queueDepth()).isEqualTo(1);
+        verify(executor).schedule(taskCaptor.capture(), eq(1000L), eq(TimeUnit.MILLISECONDS));
+        doThrow(new IllegalStateException("Firestore unavailable")).when(insightsService).recalculate(USER_ID);
+
+        taskCaptor.getValue().run();
+
+        verify(insightsService).recalculate(USER_ID);
+        verify(executor).schedule(taskCaptor.capture(), eq(2000L), eq(TimeUnit.MILLISECONDS));
+        doReturn(null).when(insightsService).recalculate(USER_ID);
+
+        taskCaptor.getValue().run();
+
+        verify(insightsService, times(1)).applyChanges(eq(USER_ID), any());
+        verify(insightsService, times(2)).recalculate(USER_ID);
+        assertThat(scheduler.queueDepth()).isZero();
+        verify(executor, times(3)).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    void changesSubmittedAfterARecoveredFailureShouldBeAppliedIncrementally() {
+        doThrow(new IllegalStateException("Firestore unavailable")).doReturn(null)
+                .when(insightsService).applyChanges(eq(USER_ID), any());
+        scheduler.submit(USER_ID, null, transaction(10));
+        verify(executor).schedule(taskCaptor.capture(), anyLong(), any(TimeUnit.class));
+        taskCaptor.getValue().run();
+        verify(executor, times(2)).schedule(taskCaptor.capture(), anyLong(), any(TimeUnit.class));
+        taskCaptor.getValue().run();
+
+        scheduler.submit(USER_ID, transaction(10), null);
+        verify(executor, times(3)).schedule(taskCaptor.capture(), anyLong(), any(TimeUnit.class));
+        taskCaptor.getValue().run();
+
+        verify(insightsService, times(1)).recalculate(USER_ID);
+        verify(insightsService, times(2)).applyChanges(eq(USER_ID), any());
+    }
+
+    @Test
+    void drainShouldGiveUpAfterTheMaximumNumberOfAttempts() {
+        doThrow(new IllegalStateException("Firestore unavailable")).when(insightsService).applyChanges(eq(USER_ID), any());
+        doThrow(new IllegalStateException("Firestore unavailable")).when(insightsService).recalculate(USER_ID);
+        scheduler.submit(USER_ID, null, transaction(10));
+
+        for (int attempt = 1; attempt <= 3; attempt++) {
+            verify(executor, times(attempt)).schedule(taskCaptor.capture(), anyLong(), any(TimeUnit.class));
+            taskCaptor.getValue().run();
+        }
+
+        verify(insightsService, times(2)).recalculate(USER_ID);
+        verify(executor, times(3)).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+        assertThat(scheduler.queueDepth()).isZero();
+    }
+
+    @Test
+    void submitShouldApplyOnTheCallerThreadOnceTheQueueIsFull() {
+        scheduler.submit("user-1", null, transaction(10));
+        scheduler.submit("user-2", null, transaction(10));
+
+        scheduler.submit(USER_ID, null, transaction(10));
+        scheduler.submit("user-1", null, transaction(20));
+
+        verify(insightsService).applyChanges(eq(USER_ID), changesCaptor.capture());
+        assertThat(changesCaptor.getValue()).hasSize(1);
+        verify(executor, times(2)).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+        assertThat(scheduler.queueDepth()).isEqualTo(2);
+    }
+
+    private Transaction transaction(long amount) {
+        return new Transaction(
+                null,
+                USER_ID,
+                TransactionType.DEBIT,
+                BigDecimal.valueOf(amount),
+                "title",
+                "description",
+                "food",
+                LocalDate.parse("2024-06-01"),
+                TransactionStatus.POSTED,
+                "USD",
+                Instant.parse("2024-06-05T10:00:00Z")
+        );
+    }
+}
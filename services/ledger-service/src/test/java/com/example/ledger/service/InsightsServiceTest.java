@@ -0,0 +1,295 @@
+package com.example.ledger.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.ledger.config.InsightsCacheProperties;
+import com.example.ledger.domain.CurrencyTotals;
+import com.example.ledger.domain.InsightsSnapshot;
+import com.example.ledger.domain.LedgerTotals;
+import com.example.ledger.domain.Transaction;
+import com.example.ledger.domain.TransactionStatus;
+import com.example.ledger.domain.TransactionType;
+import com.example.ledger.repository.InsightsCache;
+import com.example.ledger.repository.InsightsRepository;
+import com.example.ledger.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.mockito.ArgumentCaptor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class InsightsServiceTest {
+
+    private static final String USER_ID = "user-123";
+    private static final Instant NOW = Instant.parse("2024-06-05T10:00:00Z");
+
+    @Mock
+    private InsightsRepository insightsRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    private InsightsCache insightsCache;
+
+    private InsightsService insightsService;
+
+    @BeforeEach
+    void setUp() {
+        InsightsCacheProperties properties = new InsightsCacheProperties();
+        properties.setListen(false);
+        insightsCache = new InsightsCache(properties, null, new SimpleMeterRegistry());
+        insightsService = new InsightsService(insightsRepository, transactionRepository, insightsCache, true, "USD",
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void getInsightsShouldServeRepeatedReadsFromTheInProcessCache() {
+        givenStoredTotals(totals("USD", 100000, 30000, Map.of("food", 30000L), Map.of()));
+
+        InsightsSnapshot first = insightsService.getInsights(USER_ID, null);
+        InsightsSnapshot second = insightsService.getInsights(USER_ID, null);
+
+        assertThat(second.getMonthlySummary().getTotalExpense()).isEqualByComparingTo(first.getMonthlySummary().getTotalExpense());
+        verify(insightsRepository, times(1)).findTotals(USER_ID);
+        assertThat(insightsCache.stats().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void getInsightsShouldNeverAddDifferentCurrenciesTogether() {
+        givenStoredTotals(
+                totals("USD", 100000, 30000, Map.of("food", 30000L), Map.of()),
+                totals("MXN", 0, 50000, Map.of("food", 50000L), Map.of()));
+
+        InsightsSnapshot usd = insightsService.getInsights(USER_ID, null);
+        InsightsSnapshot mxn = insightsService.getInsights(USER_ID, "MXN");
+        InsightsSnapshot eur = insightsService.getInsights(USER_ID, "EUR");
+
+        assertThat(usd.getCurrency()).isEqualTo("USD");
+        assertThat(usd.getMonthlySummary().getTotalExpense()).isEqualByComparingTo("300");
+        assertThat(usd.getCurrencies()).containsExactlyInAnyOrder("USD", "MXN");
+        assertThat(mxn.getMonthlySummary().getTotalExpense()).isEqualByComparingTo("500");
+        assertThat(mxn.getCategoriesSummary().getExpenses().get("food")).isEqualByComparingTo("500");
+        assertThat(eur.getMonthlySummary().getTotalExpense()).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void recalculateShouldKeepOneTotalPerCurrency() {
+        Transaction dollars = transaction(TransactionType.DEBIT, 100, "food");
+        Transaction pesos = transaction(TransactionType.DEBIT, 900, "food");
+        pesos.setCurrency("MXN");
+        Transaction legacy = transaction(TransactionType.DEBIT, 50, "food");
+        legacy.setCurrency(null);
+        when(transactionRepository.findAllForUser(USER_ID)).thenReturn(List.of(dollars, pesos, legacy));
+
+        LedgerTotals totals = insightsService.recalculate(USER_ID);
+
+        assertThat(totals.currency("USD").orElseThrow().expenseMinor()).isEqualTo(15000L);
+        assertThat(totals.currency("MXN").orElseThrow().expenseMinor()).isEqualTo(90000L);
+        verify(insightsRepository).replaceTotals(eq(USER_ID), anyCollection());
+    }
+
+    @Test
+    void applyChangeShouldReplaceTheInProcessCopyWithTheStoredTotalsAfterTheIncrement() {
+        when(insightsRepository.findTotals(USER_ID)).thenReturn(
+                Optional.of(ledger(totals("USD", 100000, 0, Map.of(), Map.of("salary", 100000L)))),
+                Optional.of(ledger(totals("USD", 100000, 10000, Map.of("food", 10000L), Map.of("salary", 100000L)))));
+        insightsService.getInsights(USER_ID, null);
+
+        insightsService.applyChange(USER_ID, null, transaction(TransactionType.DEBIT, 100, "food"));
+        InsightsSnapshot afterChange = insightsService.getInsights(USER_ID, null);
+
+        verify(insightsRepository, times(2)).findTotals(USER_ID);
+        assertThat(afterChange.getMonthlySummary().getTotalExpense()).isEqualByComparingTo("100");
+        assertThat(afterChange.isRefreshed()).isFalse();
+    }
+
+    @Test
+    void applyChangeShouldSendOnlyIncrementsAndNeverReadTransactions() {
+        givenStoredTotals(totals("USD", 100000, 35000, Map.of("food", 20000L, "leisure", 15000L), Map.of("salary", 100000L)));
+        Transaction previous = transaction(TransactionType.DEBIT, 100, "food");
+        Transaction current = transaction(TransactionType.DEBIT, 150, "leisure");
+
+        insightsService.applyChange(USER_ID, previous, current);
+
+        verify(transactionRepository, never()).findAllForUser(USER_ID);
+        verify(insightsRepository, never()).replaceTotals(any(), anyCollection());
+        assertThat(writtenDeltas()).singleElement().satisfies(usd -> {
+            assertThat(usd.currency()).isEqualTo("USD");
+            assertThat(usd.incomeMinor()).isZero();
+            assertThat(usd.expenseMinor()).isEqualTo(5000L);
+            assertThat(usd.expensesMinor()).containsEntry("food", -10000L).containsEntry("leisure", 15000L);
+        });
+    }
+
+    @Test
+    void applyChangeShouldServeTheTotalsReadBackAfterTheIncrement() {
+        givenStoredTotals(totals("USD", 100000, 35000, Map.of("food", 20000L, "leisure", 15000L), Map.of("salary", 100000L)));
+
+        insightsService.applyChange(USER_ID, transaction(TransactionType.DEBIT, 100, "food"),
+                transaction(TransactionType.DEBIT, 150, "leisure"));
+        InsightsSnapshot snapshot = insightsService.getInsights(USER_ID, null);
+
+        assertThat(snapshot.getMonthlySummary().getNetBalance()).isEqualByComparingTo("650");
+        assertThat(snapshot.getCategoriesSummary().getExpenses().get("food")).isEqualByComparingTo("200");
+        assertThat(snapshot.getRiskInsight().getScore()).isEqualTo(35);
+        verify(insightsRepository, times(1)).findTotals(USER_ID);
+    }
+
+    @Test
+    void applyChangeShouldOnlyIncrementTheCurrenciesItTouched() {
+        givenStoredTotals(
+                totals("USD", 100000, 0, Map.of(), Map.of()),
+                totals("MXN", 0, 60000, Map.of("food", 60000L), Map.of()));
+        Transaction pesos = transaction(TransactionType.DEBIT, 100, "food");
+        pesos.setCurrency("MXN");
+
+        insightsService.applyChange(USER_ID, null, pesos);
+
+        assertThat(writtenDeltas()).singleElement().satisfies(mxn -> {
+            assertThat(mxn.currency()).isEqualTo("MXN");
+            assertThat(mxn.expenseMinor()).isEqualTo(10000L);
+        });
+    }
+
+    @Test
+    void applyChangeShouldReconcileWhenTheIncrementLeavesNegativeTotals() {
+        givenStoredTotals(totals("USD", 0, -3000, Map.of("food", -3000L), Map.of()));
+        when(transactionRepository.findAllForUser(USER_ID)).thenReturn(List.of());
+
+        LedgerTotals totals = insightsService.applyChange(USER_ID, transaction(TransactionType.DEBIT, 80, "food"), null);
+
+        verify(transactionRepository).findAllForUser(USER_ID);
+        verify(insightsRepository).replaceTotals(eq(USER_ID), anyCollection());
+        assertThat(totals.byCurrency()).isEmpty();
+    }
+
+    @Test
+    void reconciliationShouldDependOnTheLastFullRecomputeAndNotOnTheLastIncrement() {
+        CurrencyTotals incrementedJustNow = new CurrencyTotals("USD", 100000, 0, Map.of(), Map.of(), NOW,
+                NOW.minus(Duration.ofHours(2)));
+        givenStoredTotals(incrementedJustNow);
+        when(transactionRepository.findAllForUser(USER_ID)).thenReturn(List.of());
+
+        InsightsSnapshot snapshot = insightsService.getInsights(USER_ID, null);
+
+        assertThat(snapshot.isRefreshed()).isTrue();
+        verify(insightsRepository).replaceTotals(eq(USER_ID), anyCollection());
+    }
+
+    @Test
+    void applyChangeShouldRecalculateWhenNothingIsStored() {
+        when(insightsRepository.findTotals(USER_ID)).thenReturn(Optional.empty());
+        Transaction created = transaction(TransactionType.CREDIT, 500, "salary");
+        when(transactionRepository.findAllForUser(USER_ID)).thenReturn(List.of(created));
+
+        LedgerTotals totals = insightsService.applyChange(USER_ID, null, created);
+
+        assertThat(totals.currency("USD").orElseThrow().incomeMinor()).isEqualTo(50000L);
+        assertThat(totals.currency("USD").orElseThrow().incomesMinor()).containsEntry("salary", 50000L);
+    }
+
+    @Test
+    void applyChangeShouldRecalculateWhenIncrementalModeIsDisabled() {
+        InsightsService fullRecompute = new InsightsService(insightsRepository, transactionRepository, insightsCache, false, "USD",
+                Clock.fixed(NOW, ZoneOffset.UTC));
+        when(transactionRepository.findAllForUser(USER_ID)).thenReturn(List.of());
+
+        fullRecompute.applyChange(USER_ID, null, transaction(TransactionType.CREDIT, 10, "salary"));
+
+        verify(transactionRepository).findAllForUser(USER_ID);
+        verify(insightsRepository, never()).findTotals(USER_ID);
+    }
+
+    @Test
+    void recalculateShouldSumAmountsExactlyInMinorUnits() {
+        Transaction first = transaction(TransactionType.DEBIT, 0, "food");
+        first.setAmount(new BigDecimal("0.10"));
+        Transaction second = transaction(TransactionType.DEBIT, 0, "food");
+        second.setAmount(new BigDecimal("0.20"));
+        when(transactionRepository.findAllForUser(USER_ID)).thenReturn(List.of(first, second));
+
+        insightsService.recalculate(USER_ID);
+        InsightsSnapshot snapshot = insightsService.getInsights(USER_ID, null);
+
+        assertThat(first.getAmountMinor()).isEqualTo(10L);
+        assertThat(snapshot.getMonthlySummary().getTotalExpense()).isEqualTo(new BigDecimal("0.30"));
+        assertThat(snapshot.getCategoriesSummary().getExpenses().get("food")).isEqualTo(new BigDecimal("0.30"));
+    }
+
+    @Test
+    void recalculateShouldKeepTheThirdDecimalOfThreeDecimalCurrencies() {
+        Transaction first = transaction(TransactionType.DEBIT, 0, "food");
+        first.setCurrency("KWD");
+        first.setAmount(new BigDecimal("1.234"));
+        Transaction second = transaction(TransactionType.DEBIT, 0, "food");
+        second.setCurrency("KWD");
+        second.setAmount(new BigDecimal("0.001"));
+        when(transactionRepository.findAllForUser(USER_ID)).thenReturn(List.of(first, second));
+
+        insightsService.recalculate(USER_ID);
+        InsightsSnapshot snapshot = insightsService.getInsights(USER_ID, "KWD");
+
+        assertThat(snapshot.getMonthlySummary().getTotalExpense()).isEqualTo(new BigDecimal("1.235"));
+        assertThat(snapshot.getCategoriesSummary().getExpenses().get("food")).isEqualTo(new BigDecimal("1.235"));
+    }
+
+    private void givenStoredTotals(CurrencyTotals... totals) {
+        when(insightsRepository.findTotals(USER_ID)).thenReturn(Optional.of(ledger(totals)));
+    }
+
+    private LedgerTotals ledger(CurrencyTotals... totals) {
+        Map<String, CurrencyTotals> byCurrency = new HashMap<>();
+        for (CurrencyTotals currencyTotals : totals) {
+            byCurrency.put(currencyTotals.currency(), currencyTotals);
+        }
+        return new LedgerTotals(byCurrency);
+    }
+
+    private List<CurrencyTotals> writtenDeltas() {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CurrencyTotals>> deltas = ArgumentCaptor.forClass(List.class);
+        verify(insightsRepository).applyDeltas(eq(USER_ID), deltas.capture());
+        return deltas.getValue();
+    }
+
+    private CurrencyTotals totals(String currency, long incomeMinor, long expenseMinor, Map<String, Long> expenses,
+                                  Map<String, Long> incomes) {
+        return new CurrencyTotals(currency, incomeMinor, expenseMinor, expenses, incomes, NOW, NOW);
+    }
+
+    private Transaction transaction(TransactionType type, long amount, String category) {
+        return new Transaction(
+                null,
+                USER_ID,
+                type,
+                BigDecimal.valueOf(amount),
+                "title",
+                "description",
+                category,
+                LocalDate.parse("2024-06-01"),
+                TransactionStatus.POSTED,
+                "USD",
+                NOW
+        );
+    }
+}
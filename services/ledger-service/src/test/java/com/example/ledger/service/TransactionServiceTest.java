@@ -1,21 +1,32 @@
 package com.example.ledger.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.example.ledger.domain.Transaction;
+import com.example.ledger.domain.TransactionChange;
+import com.example.ledger.domain.TransactionCursor;
+import com.example.ledger.domain.TransactionImportResult;
+import com.example.ledger.domain.TransactionPage;
 import com.example.ledger.domain.TransactionStatus;
 import com.example.ledger.domain.TransactionType;
+import com.example.ledger.domain.TransactionWriteOutcome;
 import com.example.ledger.repository.TransactionRepository;
 import com.example.ledger.web.dto.TransactionRequest;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -35,7 +46,7 @@ class TransactionServiceTest {
     private TransactionRepository transactionRepository;
 
     @Mock
-    private InsightsService insightsService;
+    private InsightsRecalculationScheduler recalculationScheduler;
 
     @InjectMocks
     private TransactionService transactionService;
@@ -43,6 +54,12 @@ class TransactionServiceTest {
     @Captor
     private ArgumentCaptor<Transaction> transactionCaptor;
 
+    @Captor
+    private ArgumentCaptor<Transaction> previousCaptor;
+
+    @Captor
+    private ArgumentCaptor<List<TransactionChange>> changesCaptor;
+
     private TransactionRequest request;
 
     @BeforeEach
@@ -53,12 +70,13 @@ class TransactionServiceTest {
                 BigDecimal.valueOf(1500),
                 "Monthly salary",
                 "income",
-                "2024-06-01"
+                "2024-06-01",
+                null
         );
     }
 
     @Test
-    void createShouldPersistTransactionForUserAndRecalculateInsights() {
+    void createShouldPersistTransactionForUserAndApplyInsightsDelta() {
         Transaction persisted = new Transaction(
                 "tx-1",
                 USER_ID,
@@ -86,11 +104,12 @@ class TransactionServiceTest {
         assertThat(saved.getDescription()).isEqualTo(request.description());
         assertThat(saved.getCategory()).isEqualTo(request.category());
         assertThat(saved.getEventDate()).isEqualTo(LocalDate.parse(request.date()));
-        verify(insightsService).recalculate(USER_ID);
+        assertThat(saved.getCurrency()).isEqualTo("USD");
+        verify(recalculationScheduler).submit(USER_ID, null, persisted);
     }
 
     @Test
-    void updateShouldApplyChangesAndRecalculateInsights() {
+    void updateShouldApplyChangesAndInsightsDeltaAgainstPreviousValues() {
         String transactionId = "tx-5";
         Transaction existing = new Transaction(
                 transactionId,
@@ -122,7 +141,12 @@ class TransactionServiceTest {
 
         verify(transactionRepository).save(eq(USER_ID), transactionCaptor.capture());
         assertThat(transactionCaptor.getValue().getUserId()).isEqualTo(USER_ID);
-        verify(insightsService).recalculate(USER_ID);
+        verify(recalculationScheduler).submit(eq(USER_ID), previousCaptor.capture(), eq(updated));
+        Transaction previous = previousCaptor.getValue();
+        assertThat(previous).isNotSameAs(updated);
+        assertThat(previous.getType()).isEqualTo(TransactionType.DEBIT);
+        assertThat(previous.getAmount()).isEqualByComparingTo(BigDecimal.valueOf(100));
+        assertThat(previous.getCategory()).isEqualTo("food");
     }
 
     @Test
@@ -133,19 +157,127 @@ class TransactionServiceTest {
 
         assertThat(result).isEmpty();
         verify(transactionRepository, never()).save(eq(USER_ID), any(Transaction.class));
-        verify(insightsService, never()).recalculate(USER_ID);
+        verify(recalculationScheduler, never()).submit(eq(USER_ID), any(), any());
     }
 
     @Test
-    void deleteShouldRecalculateInsightsOnlyWhenDeletionSucceeds() {
-        when(transactionRepository.delete(USER_ID, "tx-7")).thenReturn(true);
-        when(transactionRepository.delete(USER_ID, "tx-8")).thenReturn(false);
+    void deleteShouldRetractInsightsOnlyWhenDeletionSucceeds() {
+        Transaction existing = new Transaction(
+                "tx-7",
+                USER_ID,
+                TransactionType.DEBIT,
+                BigDecimal.valueOf(40),
+                "Cinema",
+                "Movie night",
+                "leisure",
+                LocalDate.parse("2024-06-02"),
+                TransactionStatus.POSTED,
+                "USD",
+                Instant.parse("2024-06-02T20:00:00Z")
+        );
+        when(transactionRepository.delete(USER_ID, "tx-7")).thenReturn(Optional.of(existing));
+        when(transactionRepository.delete(USER_ID, "tx-8")).thenReturn(Optional.empty());
 
         boolean deleted = transactionService.delete(USER_ID, "tx-7");
         boolean notFound = transactionService.delete(USER_ID, "tx-8");
 
         assertThat(deleted).isTrue();
         assertThat(notFound).isFalse();
-        verify(insightsService, times(1)).recalculate(USER_ID);
+        verify(recalculationScheduler, times(1)).submit(eq(USER_ID), eq(existing), isNull());
+    }
+
+    @Test
+    void importShouldWriteValidItemsTogetherAndSubmitOneInsightsUpdate() {
+        when(transactionRepository.saveAll(eq(USER_ID), anyList())).thenAnswer(invocation -> {
+            List<Transaction> transactions = invocation.getArgument(1);
+            return transactions.stream()
+                    .map(transaction -> new TransactionWriteOutcome(transaction, null))
+                    .toList();
+        });
+
+        TransactionImport transactionImport = transactionService.startImport(USER_ID);
+        transactionImport.add(0, request);
+        transactionImport.reject(1, List.of("amount: amount debe ser mayor a cero"));
+        transactionImport.add(2, request);
+        List<TransactionImportResult> results = transactionImport.finish();
+
+        assertThat(results).extracting(TransactionImportResult::index).containsExactly(0, 1, 2);
+        assertThat(results).extracting(TransactionImportResult::succeeded).containsExactly(true, false, true);
+        verify(transactionRepository, times(1)).saveAll(eq(USER_ID), anyList());
+        verify(recalculationScheduler, times(1)).submitAll(eq(USER_ID), changesCaptor.capture());
+        assertThat(changesCaptor.getValue()).hasSize(2);
+        verify(recalculationScheduler, never()).submit(eq(USER_ID), any(), any());
+    }
+
+    @Test
+    void importShouldReportFailedWritesWithoutUpdatingInsightsForThem() {
+        when(transactionRepository.saveAll(eq(USER_ID), anyList())).thenAnswer(invocation -> {
+            List<Transaction> transactions = invocation.getArgument(1);
+            return List.of(new TransactionWriteOutcome(transactions.get(0), "DEADLINE_EXCEEDED"));
+        });
+
+        TransactionImport transactionImport = transactionService.startImport(USER_ID);
+        transactionImport.add(0, request);
+        List<TransactionImportResult> results = transactionImport.finish();
+
+        assertThat(results).singleElement().satisfies(result -> {
+            assertThat(result.succeeded()).isFalse();
+            assertThat(result.errors()).containsExactly("DEADLINE_EXCEEDED");
+        });
+        verify(recalculationScheduler, never()).submitAll(eq(USER_ID), anyList());
+    }
+
+    @Test
+    void findPageShouldFetchOneExtraRowToBuildNextCursor() {
+        Transaction first = pagedTransaction("tx-3", "2024-06-03T10:00:00Z");
+        Transaction second = pagedTransaction("tx-2", "2024-06-02T10:00:00Z");
+        Transaction third = pagedTransaction("tx-1", "2024-06-01T10:00:00Z");
+        when(transactionRepository.findPageForUser(USER_ID, null, 3)).thenReturn(List.of(first, second, third));
+
+        TransactionPage page = transactionService.findPage(USER_ID, null, 2);
+
+        assertThat(page.getTransactions()).containsExactly(first, second);
+        assertThat(page.hasMore()).isTrue();
+        assertThat(page.getNextCursor()).isEqualTo(new TransactionCursor(second.getCreatedAt(), "tx-2"));
+        assertThat(TransactionCursor.decode(page.getNextCursor().encode())).isEqualTo(page.getNextCursor());
+    }
+
+    @Test
+    void cursorDecodeShouldRejectOutOfRangeInstantsAsMalformed() {
+        String outOfRange = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((Long.MAX_VALUE + ":0:tx-1").getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> TransactionCursor.decode(outOfRange))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Malformed transaction cursor");
+    }
+
+    @Test
+    void findPageShouldNotReturnCursorOnLastPage() {
+        TransactionCursor cursor = new TransactionCursor(Instant.parse("2024-06-02T10:00:00Z"), "tx-2");
+        Transaction last = pagedTransaction("tx-1", "2024-06-01T10:00:00Z");
+        when(transactionRepository.findPageForUser(USER_ID, cursor, 3)).thenReturn(List.of(last));
+
+        TransactionPage page = transactionService.findPage(USER_ID, cursor, 2);
+
+        assertThat(page.getTransactions()).containsExactly(last);
+        assertThat(page.hasMore()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    private Transaction pagedTransaction(String id, String createdAt) {
+        return new Transaction(
+                id,
+                USER_ID,
+                TransactionType.DEBIT,
+                BigDecimal.TEN,
+                "Coffee",
+                "Morning coffee",
+                "food",
+                LocalDate.parse("2024-06-01"),
+                TransactionStatus.POSTED,
+                "USD",
+                Instant.parse(createdAt)
+        );
     }
 }
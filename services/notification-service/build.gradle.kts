@@ -17,9 +17,10 @@ dependencies {
     implementation(libs.spring.boot.starter.web)
     implementation(libs.spring.boot.starter.validation)
     implementation(libs.spring.boot.starter.data.jpa)
+    implementation(libs.spring.boot.starter.actuator)
     implementation(libs.springdoc.openapi.starter.webmvc.ui)
     runtimeOnly(libs.h2)
-    runtimeOnly(libs.postgresql)
+    implementation(libs.postgresql)
     implementation("org.flywaydb:flyway-core")
     testImplementation(libs.spring.boot.starter.test)
 }
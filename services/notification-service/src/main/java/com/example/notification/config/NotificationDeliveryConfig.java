@@ -0,0 +1,32 @@
+package com.example.notification.config;
+
+import com.example.notification.domain.NotificationChannel;
+import com.example.notification.service.LoggingNotificationSender;
+import com.example.notification.service.NotificationSender;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+@Configuration
+@EnableConfigurationProperties(NotificationDeliveryProperties.class)
+public class NotificationDeliveryConfig {
+
+    @Bean
+    @Profile("!prod")
+    public NotificationSender emailStubSender() {
+        return new LoggingNotificationSender(NotificationChannel.EMAIL);
+    }
+
+    @Bean
+    @Profile("!prod")
+    public NotificationSender smsStubSender() {
+        return new LoggingNotificationSender(NotificationChannel.SMS);
+    }
+
+    @Bean
+    @Profile("!prod")
+    public NotificationSender pushStubSender() {
+        return new LoggingNotificationSender(NotificationChannel.PUSH);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.notification.config;
+
+import com.example.notification.domain.NotificationChannel;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "notifications.delivery")
+public class NotificationDeliveryProperties {
+
+    private boolean enabled = true;
+    private int batchSize = 100;
+    private int workers = 8;
+    private int maxAttempts = 5;
+    private Duration lease = Duration.ofMinutes(5);
+    private Duration initialBackoff = Duration.ofSeconds(30);
+    private Duration maxBackoff = Duration.ofMinutes(30);
+    private Map<NotificationChannel, ChannelLimits> channels = new EnumMap<>(NotificationChannel.class);
+
+    public ChannelLimits limitsFor(NotificationChannel channel) {
+        return channels.getOrDefault(channel, new ChannelLimits());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public Duration getLease() {
+        return lease;
+    }
+
+    public void setLease(Duration lease) {
+        this.lease = lease;
+    }
+
+    public Duration getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    public void setInitialBackoff(Duration initialBackoff) {
+        this.initialBackoff = initialBackoff;
+    }
+
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    public void setMaxBackoff(Duration maxBackoff) {
+        this.maxBackoff = maxBackoff;
+    }
+
+    public Map<NotificationChannel, ChannelLimits> getChannels() {
+        return channels;
+    }
+
+    public void setChannels(Map<NotificationChannel, ChannelLimits> channels) {
+        this.channels = channels;
+    }
+
+    public static class ChannelLimits {
+
+        private int concurrency = 4;
+        private double ratePerSecond = 10;
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        public double getRatePerSecond() {
+            return ratePerSecond;
+        }
+
+        public void setRatePerSecond(double ratePerSecond) {
+            this.ratePerSecond = ratePerSecond;
+        }
+    }
+}
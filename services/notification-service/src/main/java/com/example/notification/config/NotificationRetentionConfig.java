@@ -0,0 +1,9 @@
+package com.example.notification.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(NotificationRetentionProperties.class)
+public class NotificationRetentionConfig {
+}
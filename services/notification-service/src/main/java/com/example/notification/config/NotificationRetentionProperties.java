@@ -0,0 +1,55 @@
+package com.example.notification.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "notifications.retention")
+public class NotificationRetentionProperties {
+
+    private Duration archiveAfter = Duration.ofDays(90);
+    private Path archiveDir = Path.of("archive", "notifications");
+    private int batchSize = 1000;
+    private Duration keyTtl = Duration.ofDays(7);
+    private int partitionsAhead = 2;
+
+    public Duration getArchiveAfter() {
+        return archiveAfter;
+    }
+
+    public void setArchiveAfter(Duration archiveAfter) {
+        this.archiveAfter = archiveAfter;
+    }
+
+    public Path getArchiveDir() {
+        return archiveDir;
+    }
+
+    public void setArchiveDir(Path archiveDir) {
+        this.archiveDir = archiveDir;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getKeyTtl() {
+        return keyTtl;
+    }
+
+    public void setKeyTtl(Duration keyTtl) {
+        this.keyTtl = keyTtl;
+    }
+
+    public int getPartitionsAhead() {
+        return partitionsAhead;
+    }
+
+    public void setPartitionsAhead(int partitionsAhead) {
+        this.partitionsAhead = partitionsAhead;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.notification.config;
+
+import com.example.notification.repository.NotificationOutboxRepository;
+import com.example.notification.service.LocalStreamFanOut;
+import com.example.notification.service.NotificationStreamService;
+import com.example.notification.service.PostgresStreamFanOut;
+import com.example.notification.service.StreamFanOut;
+import javax.sql.DataSource;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration
+@EnableConfigurationProperties(NotificationStreamProperties.class)
+public class NotificationStreamConfig implements SchedulingConfigurer {
+
+    private final NotificationStreamService streamService;
+    private final NotificationStreamProperties properties;
+
+    public NotificationStreamConfig(NotificationStreamService streamService, NotificationStreamProperties properties) {
+        this.streamService = streamService;
+        this.properties = properties;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addFixedDelayTask(streamService::heartbeat, properties.getHeartbeatInterval());
+    }
+
+    @Bean
+    public StreamFanOut streamFanOut(DataSource dataSource,
+                                     NotificationOutboxRepository outboxRepository,
+                                     PlatformTransactionManager transactionManager) {
+        return switch (properties.getFanOut()) {
+            case LOCAL -> new LocalStreamFanOut(streamService);
+            case POSTGRES -> new PostgresStreamFanOut(dataSource, outboxRepository, streamService, transactionManager,
+                    properties.getFetchBatchSize(), properties.getListenTimeout());
+        };
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.notification.config;
+
+import com.example.notification.service.StreamFanOutMode;
+import com.example.notification.service.StreamOverflowPolicy;
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "notifications.stream")
+public class NotificationStreamProperties {
+
+    private int queueCapacity = 256;
+    private StreamOverflowPolicy overflowPolicy = StreamOverflowPolicy.DROP_OLDEST;
+    private int workers = 4;
+    private int replaySize = 100;
+    private int replayRecipients = 10_000;
+    private int maxStreams = 10_000;
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+    private Duration staleAfter = Duration.ofSeconds(45);
+    private StreamFanOutMode fanOut = StreamFanOutMode.LOCAL;
+    private int fetchBatchSize = 500;
+    private Duration listenTimeout = Duration.ofSeconds(1);
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public StreamOverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public void setOverflowPolicy(StreamOverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    public int getReplaySize() {
+        return replaySize;
+    }
+
+    public void setReplaySize(int replaySize) {
+        this.replaySize = replaySize;
+    }
+
+    public int getReplayRecipients() {
+        return replayRecipients;
+    }
+
+    public void setReplayRecipients(int replayRecipients) {
+        this.replayRecipients = replayRecipients;
+    }
+
+    public int getMaxStreams() {
+        return maxStreams;
+    }
+
+    public void setMaxStreams(int maxStreams) {
+        this.maxStreams = maxStreams;
+    }
+
+    public Duration getHeartbeatInterval() {
+        return heartbeatInterval;
+    }
+
+    public void setHeartbeatInterval(Duration heartbeatInterval) {
+        this.heartbeatInterval = heartbeatInterval;
+    }
+
+    public Duration getStaleAfter() {
+        return staleAfter;
+    }
+
+    public void setStaleAfter(Duration staleAfter) {
+        this.staleAfter = staleAfter;
+    }
+
+    public StreamFanOutMode getFanOut() {
+        return fanOut;
+    }
+
+    public void setFanOut(StreamFanOutMode fanOut) {
+        this.fanOut = fanOut;
+    }
+
+    public int getFetchBatchSize() {
+        return fetchBatchSize;
+    }
+
+    public void setFetchBatchSize(int fetchBatchSize) {
+        this.fetchBatchSize = fetchBatchSize;
+    }
+
+    public Duration getListenTimeout() {
+        return listenTimeout;
+    }
+
+    public void setListenTimeout(Duration listenTimeout) {
+        this.listenTimeout = listenTimeout;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.notification.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import java.time.Instant;
+import org.springframework.data.domain.Persistable;
+
+@Entity
+@Table(name = "notification_keys")
+public class NotificationKey implements Persistable<String> {
+
+    @Id
+    @Column(length = 320)
+    private String dedupKey;
+
+    @Column(nullable = false)
+    private Long notificationId;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @Transient
+    private boolean stored;
+
+    public NotificationKey() {
+    }
+
+    public NotificationKey(String dedupKey, Long notificationId, Instant createdAt) {
+        this.dedupKey = dedupKey;
+        this.notificationId = notificationId;
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String getId() {
+        return dedupKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !stored;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markStored() {
+        stored = true;
+    }
+
+    public String getDedupKey() {
+        return dedupKey;
+    }
+
+    public Long getNotificationId() {
+        return notificationId;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
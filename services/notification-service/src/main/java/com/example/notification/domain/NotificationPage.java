@@ -0,0 +1,26 @@
+package com.example.notification.domain;
+
+import java.util.List;
+
+public class NotificationPage {
+
+    private final List<Notification> notifications;
+    private final NotificationCursor nextCursor;
+
+    public NotificationPage(List<Notification> notifications, NotificationCursor nextCursor) {
+        this.notifications = List.copyOf(notifications);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Notification> getNotifications() {
+        return notifications;
+    }
+
+    public NotificationCursor getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.notification.repository;
+
+import com.example.notification.domain.NotificationKey;
+import java.time.Instant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface NotificationKeyRepository extends JpaRepository<NotificationKey, String> {
+
+    @Modifying
+    @Query("delete from NotificationKey k where k.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") Instant before);
+
+    @Modifying
+    @Query("delete from NotificationKey k where k.notificationId = :notificationId")
+    int deleteByNotificationId(@Param("notificationId") Long notificationId);
+}
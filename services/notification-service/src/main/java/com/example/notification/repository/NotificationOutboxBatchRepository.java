@@ -0,0 +1,10 @@
+package com.example.notification.repository;
+
+import com.example.notification.domain.Notification;
+import java.time.Instant;
+import java.util.List;
+
+public interface NotificationOutboxBatchRepository {
+
+    void insertAll(List<Notification> notifications, Instant createdAt);
+}
@@ -0,0 +1,56 @@
+package com.example.notification.repository;
+
+import com.example.notification.domain.Notification;
+import java.sql.DatabaseMetaData;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import javax.sql.DataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+class NotificationOutboxBatchRepositoryImpl implements NotificationOutboxBatchRepository {
+
+    private static final String SEQUENCE = "notification_outbox_seq";
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile String insertSql;
+
+    NotificationOutboxBatchRepositoryImpl(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void insertAll(List<Notification> notifications, Instant createdAt) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        // Ids come from the step-1 sequence inside the INSERT, so the whole chunk still goes out as one batch.
+        OffsetDateTime created = createdAt.atOffset(ZoneOffset.UTC);
+        jdbcTemplate.batchUpdate(insertSql(), notifications, notifications.size(), (statement, notification) -> {
+            statement.setLong(1, notification.getId());
+            statement.setObject(2, created);
+        });
+    }
+
+    private String insertSql() {
+        String sql = insertSql;
+        if (sql == null) {
+            sql = "INSERT INTO notification_outbox (id, notification_id, created_at) VALUES (" + nextValue() + ", ?, ?)";
+            insertSql = sql;
+        }
+        return sql;
+    }
+
+    private String nextValue() {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                    DatabaseMetaData::getDatabaseProductName);
+            return "PostgreSQL".equals(product) ? "nextval('" + SEQUENCE + "')" : "NEXT VALUE FOR " + SEQUENCE;
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("Could not detect the database vendor for the outbox sequence", e);
+        }
+    }
+}
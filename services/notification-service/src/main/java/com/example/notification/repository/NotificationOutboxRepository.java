@@ -0,0 +1,56 @@
+package com.example.notification.repository;
+
+import com.example.notification.domain.NotificationOutboxEvent;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutboxEvent, Long>,
+        NotificationOutboxBatchRepository {
+
+    @Query(value = """
+            SELECT id FROM notification_outbox
+            WHERE published_at IS NULL
+            ORDER BY id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Long> findUnpublishedIds(@Param("limit") int limit);
+
+    @Query("select e from NotificationOutboxEvent e join fetch e.notification where e.id in :ids order by e.id")
+    List<NotificationOutboxEvent> findAllWithNotification(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+            select e from NotificationOutboxEvent e join fetch e.notification
+            where e.publishSeq > :after
+            order by e.publishSeq
+            """)
+    List<NotificationOutboxEvent> findPublishedAfter(@Param("after") Long after, Pageable pageable);
+
+    // Held until the relay commits, so publish sequence numbers become visible in the order they are assigned.
+    // Returns null while another relay holds it.
+    @Query(value = "SELECT last_publish_seq FROM notification_outbox_relay WHERE id = 1 FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    Long lockLastPublishSeq();
+
+    @Modifying
+    @Query(value = "UPDATE notification_outbox_relay SET last_publish_seq = :seq WHERE id = 1", nativeQuery = true)
+    int updateLastPublishSeq(@Param("seq") long seq);
+
+    @Query(value = "SELECT last_publish_seq FROM notification_outbox_relay WHERE id = 1", nativeQuery = true)
+    Long findLastPublishSeq();
+
+    @Modifying
+    @Query("delete from NotificationOutboxEvent e where e.notification.id = :notificationId")
+    int deleteByNotificationId(@Param("notificationId") Long notificationId);
+
+    @Modifying
+    @Query("delete from NotificationOutboxEvent e where e.publishedAt < :before")
+    int deletePublishedBefore(@Param("before") Instant before);
+}
@@ -0,0 +1,13 @@
+package com.example.notification.repository;
+
+import com.example.notification.domain.Notification;
+import com.example.notification.domain.NotificationChannel;
+import com.example.notification.domain.NotificationCursor;
+import com.example.notification.domain.NotificationStatus;
+import java.util.List;
+
+public interface NotificationPageRepository {
+
+    List<Notification> findPageForRecipient(String recipient, NotificationStatus status, NotificationChannel channel,
+                                            NotificationCursor after, int limit);
+}
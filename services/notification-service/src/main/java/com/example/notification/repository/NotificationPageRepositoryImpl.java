@@ -0,0 +1,47 @@
+package com.example.notification.repository;
+
+import com.example.notification.domain.Notification;
+import com.example.notification.domain.NotificationChannel;
+import com.example.notification.domain.NotificationCursor;
+import com.example.notification.domain.NotificationStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import java.util.List;
+
+class NotificationPageRepositoryImpl implements NotificationPageRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Notification> findPageForRecipient(String recipient, NotificationStatus status,
+                                                   NotificationChannel channel, NotificationCursor after, int limit) {
+        StringBuilder jpql = new StringBuilder("select n from Notification n where n.recipient = :recipient");
+        if (status != null) {
+            jpql.append(" and n.status = :status");
+        }
+        if (channel != null) {
+            jpql.append(" and n.channel = :channel");
+        }
+        if (after != null) {
+            jpql.append(" and (n.createdAt < :createdAt or (n.createdAt = :createdAt and n.id < :id))");
+        }
+        jpql.append(" order by n.createdAt desc, n.id desc");
+
+        TypedQuery<Notification> query = entityManager.createQuery(jpql.toString(), Notification.class)
+                .setParameter("recipient", recipient)
+                .setMaxResults(limit);
+        if (status != null) {
+            query.setParameter("status", status);
+        }
+        if (channel != null) {
+            query.setParameter("channel", channel);
+        }
+        if (after != null) {
+            query.setParameter("createdAt", after.createdAt());
+            query.setParameter("id", after.id());
+        }
+        return query.getResultList();
+    }
+}
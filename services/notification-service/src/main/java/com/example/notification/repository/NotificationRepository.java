@@ -1,9 +1,46 @@
 package com.example.notification.repository;
 
 import com.example.notification.domain.Notification;
+import com.example.notification.domain.NotificationStatus;
+import java.time.Instant;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface NotificationRepository extends JpaRepository<Notification, Long> {
+public interface NotificationRepository extends JpaRepository<Notification, Long>, NotificationPageRepository {
+
+    @Query(value = """
+            SELECT * FROM notifications
+            WHERE status = 'PENDING' AND channel = :channel AND next_attempt_at <= :now
+            ORDER BY next_attempt_at, id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<Notification> lockDue(@Param("channel") String channel, @Param("now") Instant now, @Param("limit") int limit);
+
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            update Notification n
+            set n.occurrences = n.occurrences + 1, n.body = :body
+            where n.id = :id and n.attempts = 0
+              and n.status = com.example.notification.domain.NotificationStatus.PENDING
+            """)
+    int mergeIntoDigest(@Param("id") Long id, @Param("body") String body);
+
+    @Modifying
+    @Query("""
+            update Notification n
+            set n.status = :status, n.nextAttemptAt = :nextAttemptAt, n.lastError = :lastError
+            where n.id = :id and n.attempts = :attempts
+              and n.status = com.example.notification.domain.NotificationStatus.PENDING
+            """)
+    int completeAttempt(@Param("id") Long id,
+                        @Param("attempts") int attempts,
+                        @Param("status") NotificationStatus status,
+                        @Param("nextAttemptAt") Instant nextAttemptAt,
+                        @Param("lastError") String lastError);
 }
@@ -0,0 +1,17 @@
+package com.example.notification.service;
+
+import java.time.Instant;
+
+record ArchivedNotification(
+        Long id,
+        String recipient,
+        String channel,
+        String subject,
+        String body,
+        String status,
+        Instant createdAt,
+        int attempts,
+        String lastError,
+        int occurrences
+) {
+}
@@ -0,0 +1,36 @@
+package com.example.notification.service;
+
+import com.example.notification.domain.NotificationOutboxEvent;
+import java.util.List;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class LocalStreamFanOut implements StreamFanOut {
+
+    private final NotificationStreamService streamService;
+
+    public LocalStreamFanOut(NotificationStreamService streamService) {
+        this.streamService = streamService;
+    }
+
+    @Override
+    public void publish(List<NotificationOutboxEvent> events) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            send(events);
+            return;
+        }
+        // A rolled-back batch hands its publish sequence numbers to the next one, so clients must not see them first.
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                send(events);
+            }
+        });
+    }
+
+    private void send(List<NotificationOutboxEvent> events) {
+        for (NotificationOutboxEvent event : events) {
+            streamService.send(event.getPublishSeq(), event.getNotification());
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.notification.service;
+
+import com.example.notification.domain.Notification;
+import com.example.notification.domain.NotificationChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class LoggingNotificationSender implements NotificationSender {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingNotificationSender.class);
+
+    private final NotificationChannel channel;
+
+    public LoggingNotificationSender(NotificationChannel channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public NotificationChannel channel() {
+        return channel;
+    }
+
+    @Override
+    public void send(Notification notification) {
+        log.info("[{}] {} (x{}) -> {}", channel, notification.getSubject(), notification.getOccurrences(),
+                notification.getRecipient());
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.notification.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+final class NotificationArchiveWriter implements AutoCloseable {
+
+    private static final byte[] NEW_LINE = {'\n'};
+
+    private final FileOutputStream file;
+    private final ObjectMapper objectMapper;
+
+    NotificationArchiveWriter(Path path, ObjectMapper objectMapper) throws IOException {
+        Files.createDirectories(path.getParent());
+        this.file = new FileOutputStream(path.toFile(), true);
+        this.objectMapper = objectMapper;
+    }
+
+    // Each chunk is a complete gzip member that is synced before its rows are deleted, so a
+    // crash can only leave a truncated trailing member for rows that are still in the table.
+    void append(List<ArchivedNotification> chunk) throws IOException {
+        try (GZIPOutputStream gzip = new GZIPOutputStream(new FilterOutputStream(file) {
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                out.write(bytes, offset, length);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        })) {
+            for (ArchivedNotification notification : chunk) {
+                gzip.write(objectMapper.writeValueAsBytes(notification));
+                gzip.write(NEW_LINE);
+            }
+        }
+        file.getFD().sync();
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.notification.service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+final class NotificationDedupIndex {
+
+    private final Map<String, Long> entries;
+
+    NotificationDedupIndex(int maxEntries) {
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    Long get(String key) {
+        return entries.get(key);
+    }
+
+    void put(String key, Long notificationId) {
+        entries.put(key, notificationId);
+    }
+
+    void remove(String key) {
+        entries.remove(key);
+    }
+}
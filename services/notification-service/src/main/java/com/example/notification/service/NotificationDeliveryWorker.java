@@ -0,0 +1,191 @@
+package com.example.notification.service;
+
+import com.example.notification.config.NotificationDeliveryProperties;
+import com.example.notification.config.NotificationDeliveryProperties.ChannelLimits;
+import com.example.notification.domain.Notification;
+import com.example.notification.domain.NotificationChannel;
+import com.example.notification.domain.NotificationStatus;
+import com.example.notification.repository.NotificationRepository;
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Component
+public class NotificationDeliveryWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationDeliveryWorker.class);
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final NotificationRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final NotificationDeliveryProperties properties;
+    private final ExecutorService executor;
+    private final Clock clock;
+    private final Map<NotificationChannel, ChannelLane> lanes = new EnumMap<>(NotificationChannel.class);
+
+    @Autowired
+    public NotificationDeliveryWorker(NotificationRepository repository,
+                                      List<NotificationSender> senders,
+                                      PlatformTransactionManager transactionManager,
+                                      NotificationDeliveryProperties properties) {
+        this(repository, senders, transactionManager, properties, newExecutor(properties.getWorkers()), Clock.systemUTC());
+    }
+
+    NotificationDeliveryWorker(NotificationRepository repository,
+                               List<NotificationSender> senders,
+                               PlatformTransactionManager transactionManager,
+                               NotificationDeliveryProperties properties,
+                               ExecutorService executor,
+                               Clock clock) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.executor = executor;
+        this.clock = clock;
+        if (!properties.isEnabled()) {
+            log.info("Notification delivery is disabled. Pending notifications stay queued.");
+            return;
+        }
+        if (senders.isEmpty()) {
+            // Without this the service would start, accept notifications and silently never send any of them.
+            throw new IllegalStateException("Notification delivery is enabled but no NotificationSender is registered. "
+                    + "Register senders or set notifications.delivery.enabled=false.");
+        }
+        for (NotificationSender sender : senders) {
+            ChannelLimits limits = properties.limitsFor(sender.channel());
+            ChannelLane lane = new ChannelLane(sender, new Semaphore(limits.getConcurrency()),
+                    new TokenBucket(limits.getRatePerSecond(), clock));
+            if (lanes.putIfAbsent(sender.channel(), lane) != null) {
+                throw new IllegalStateException("More than one sender registered for channel " + sender.channel());
+            }
+        }
+        for (NotificationChannel channel : NotificationChannel.values()) {
+            if (!lanes.containsKey(channel)) {
+                log.warn("No sender registered for channel {}. Its pending notifications will not be claimed.", channel);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.delivery.poll-interval-ms:1000}")
+    public void poll() {
+        lanes.forEach(this::dispatch);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void dispatch(NotificationChannel channel, ChannelLane lane) {
+        int limit = Math.min(properties.getBatchSize(),
+                Math.min(lane.inFlight().availablePermits(), lane.rate().available()));
+        if (limit <= 0) {
+            return;
+        }
+        List<Notification> claimed = transactionTemplate.execute(status -> claim(channel, limit));
+        lane.rate().consume(claimed.size());
+        for (Notification notification : claimed) {
+            lane.inFlight().acquireUninterruptibly();
+            try {
+                executor.execute(() -> {
+                    try {
+                        deliver(lane.sender(), notification);
+                    } finally {
+                        lane.inFlight().release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                lane.inFlight().release();
+                log.debug("Delivery pool is shutting down. Notification {} will be retried after its lease.",
+                        notification.getId());
+                return;
+            }
+        }
+    }
+
+    private List<Notification> claim(NotificationChannel channel, int limit) {
+        Instant now = clock.instant();
+        List<Notification> due = repository.lockDue(channel.name(), now, limit);
+        for (Notification notification : due) {
+            notification.setAttempts(notification.getAttempts() + 1);
+            notification.setNextAttemptAt(now.plus(properties.getLease()));
+        }
+        return due;
+    }
+
+    void deliver(NotificationSender sender, Notification notification) {
+        NotificationStatus status;
+        Instant nextAttemptAt = null;
+        String lastError = null;
+        try {
+            sender.send(notification);
+            status = NotificationStatus.SENT;
+        } catch (RuntimeException e) {
+            lastError = truncate(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+            boolean retryable = !(e instanceof NotificationDeliveryException failure) || failure.isRetryable();
+            if (retryable && notification.getAttempts() < properties.getMaxAttempts()) {
+                status = NotificationStatus.PENDING;
+                nextAttemptAt = clock.instant().plus(backoff(notification.getAttempts()));
+            } else {
+                status = NotificationStatus.FAILED;
+            }
+            log.warn("Delivery of notification {} over {} failed on attempt {}: {}",
+                    notification.getId(), sender.channel(), notification.getAttempts(), lastError);
+        }
+        NotificationStatus outcome = status;
+        Instant retryAt = nextAttemptAt;
+        String error = lastError;
+        Integer updated = transactionTemplate.execute(tx -> repository.completeAttempt(
+                notification.getId(), notification.getAttempts(), outcome, retryAt, error));
+        if (updated == null || updated == 0) {
+            log.debug("Notification {} was reclaimed or modified before attempt {} completed",
+                    notification.getId(), notification.getAttempts());
+        }
+    }
+
+    Duration backoff(int attempts) {
+        long initial = properties.getInitialBackoff().toMillis();
+        long cap = properties.getMaxBackoff().toMillis();
+        long exponential = initial << Math.min(attempts - 1, 30);
+        long capped = exponential <= 0 ? cap : Math.min(cap, exponential);
+        long half = capped / 2;
+        return Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(half + 1));
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private static ExecutorService newExecutor(int workers) {
+        AtomicInteger sequence = new AtomicInteger();
+        return Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "notification-delivery-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private record ChannelLane(NotificationSender sender, Semaphore inFlight, TokenBucket rate) {
+    }
+}
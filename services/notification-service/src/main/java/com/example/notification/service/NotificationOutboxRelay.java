@@ -0,0 +1,104 @@
+package com.example.notification.service;
+
+import com.example.notification.domain.NotificationOutboxEvent;
+import com.example.notification.repository.NotificationOutboxRepository;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Component
+public class NotificationOutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationOutboxRelay.class);
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final NotificationStreamService streamService;
+    private final StreamFanOut fanOut;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration retention;
+    private final Clock clock;
+    private volatile boolean resumed;
+
+    @Autowired
+    public NotificationOutboxRelay(
+            NotificationOutboxRepository outboxRepository,
+            NotificationStreamService streamService,
+            StreamFanOut fanOut,
+            PlatformTransactionManager transactionManager,
+            @Value("${notifications.outbox.batch-size:200}") int batchSize,
+            @Value("${notifications.outbox.retention:24h}") Duration retention
+    ) {
+        this(outboxRepository, streamService, fanOut, transactionManager, batchSize, retention, Clock.systemUTC());
+    }
+
+    NotificationOutboxRelay(NotificationOutboxRepository outboxRepository,
+                            NotificationStreamService streamService,
+                            StreamFanOut fanOut,
+                            PlatformTransactionManager transactionManager,
+                            int batchSize,
+                            Duration retention,
+                            Clock clock) {
+        this.outboxRepository = outboxRepository;
+        this.streamService = streamService;
+        this.fanOut = fanOut;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.retention = retention;
+        this.clock = clock;
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.outbox.poll-interval-ms:500}")
+    public void relay() {
+        if (!resumed) {
+            streamService.resumeAfter(outboxRepository.findLastPublishSeq());
+            resumed = true;
+        }
+        int published;
+        do {
+            published = transactionTemplate.execute(status -> publishBatch());
+        } while (published == batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.outbox.purge-interval-ms:3600000}")
+    public void purge() {
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxRepository.deletePublishedBefore(clock.instant().minus(retention)));
+        if (deleted != null && deleted > 0) {
+            log.debug("Purged {} published outbox events", deleted);
+        }
+    }
+
+    int publishBatch() {
+        Long lastPublishSeq = outboxRepository.lockLastPublishSeq();
+        if (lastPublishSeq == null) {
+            // Another relay is publishing; running both would let a later batch commit before an earlier one.
+            log.debug("Outbox relay is busy on another node. Skipping this tick.");
+            return 0;
+        }
+        long publishSeq = lastPublishSeq;
+        List<Long> ids = outboxRepository.findUnpublishedIds(batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<NotificationOutboxEvent> events = outboxRepository.findAllWithNotification(ids);
+        Instant now = clock.instant();
+        for (NotificationOutboxEvent event : events) {
+            event.setPublishSeq(++publishSeq);
+            event.setPublishedAt(now);
+        }
+        outboxRepository.updateLastPublishSeq(publishSeq);
+        outboxRepository.flush();
+        fanOut.publish(events);
+        return ids.size();
+    }
+}
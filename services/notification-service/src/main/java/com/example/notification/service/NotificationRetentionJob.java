@@ -0,0 +1,298 @@
+package com.example.notification.service;
+
+import com.example.notification.config.NotificationRetentionProperties;
+import com.example.notification.repository.NotificationKeyRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Component
+public class NotificationRetentionJob {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationRetentionJob.class);
+    private static final long LOCK_KEY = "notifications.retention".hashCode();
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final DateTimeFormatter RUN_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss")
+            .withZone(ZoneOffset.UTC);
+    private static final String SELECT_SENT = """
+            SELECT id, recipient, channel, subject, body, status, created_at, attempts, last_error, occurrences
+            FROM notifications
+            WHERE status = 'SENT' AND created_at >= ? AND created_at < ?
+              AND (created_at > ? OR (created_at = ? AND id > ?))
+            ORDER BY created_at, id
+            LIMIT ?
+            """;
+    private static final String DELETE_ARCHIVED = """
+            DELETE FROM notifications
+            WHERE created_at >= ? AND created_at < ? AND id IN (
+                SELECT id FROM notifications
+                WHERE status = 'SENT' AND created_at >= ? AND created_at < ?
+                  AND (created_at < ? OR (created_at = ? AND id <= ?))
+                LIMIT ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final NotificationKeyRepository keyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final NotificationRetentionProperties properties;
+    private final Clock clock;
+    private final boolean partitioned;
+
+    @Autowired
+    public NotificationRetentionJob(JdbcTemplate jdbcTemplate,
+                                    NotificationKeyRepository keyRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    ObjectMapper objectMapper,
+                                    NotificationRetentionProperties properties) {
+        this(jdbcTemplate, keyRepository, transactionManager, objectMapper, properties, Clock.systemUTC());
+    }
+
+    NotificationRetentionJob(JdbcTemplate jdbcTemplate,
+                             NotificationKeyRepository keyRepository,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper,
+                             NotificationRetentionProperties properties,
+                             Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.keyRepository = keyRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.clock = clock;
+        this.partitioned = isPostgres(jdbcTemplate);
+    }
+
+    @Scheduled(cron = "${notifications.retention.cron:0 30 3 * * *}", zone = "UTC")
+    public void run() {
+        if (!partitioned) {
+            retain();
+            return;
+        }
+        // Every replica fires the cron. The lock lives in a transaction on its own connection, so it is
+        // held for the whole run and released on commit, rollback or a dropped connection.
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                if (tryLock(connection)) {
+                    retain();
+                } else {
+                    log.info("Notification retention is already running on another replica. Skipping this run");
+                }
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(autoCommit);
+            }
+            return null;
+        });
+    }
+
+    private void retain() {
+        Instant now = clock.instant();
+        if (partitioned) {
+            createUpcomingPartitions(YearMonth.from(now.atOffset(ZoneOffset.UTC)));
+        }
+        Instant cutoff = now.minus(properties.getArchiveAfter());
+        OffsetDateTime oldest = jdbcTemplate.queryForObject(
+                "SELECT MIN(created_at) FROM notifications WHERE status = 'SENT' AND created_at < ?",
+                OffsetDateTime.class, utc(cutoff));
+        if (oldest != null) {
+            String runStamp = RUN_STAMP.format(now);
+            YearMonth last = YearMonth.from(cutoff.atOffset(ZoneOffset.UTC));
+            for (YearMonth month = YearMonth.from(oldest.withOffsetSameInstant(ZoneOffset.UTC));
+                 !month.isAfter(last); month = month.plusMonths(1)) {
+                retainMonth(month, cutoff, runStamp);
+            }
+        }
+        Integer expiredKeys = transactionTemplate.execute(status ->
+                keyRepository.deleteCreatedBefore(now.minus(properties.getKeyTtl())));
+        if (expiredKeys != null && expiredKeys > 0) {
+            log.debug("Deleted {} expired dedup keys", expiredKeys);
+        }
+    }
+
+    private void retainMonth(YearMonth month, Instant cutoff, String runStamp) {
+        Instant start = month.atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+        Instant end = month.plusMonths(1).atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+        boolean wholeMonth = !end.isAfter(cutoff);
+        Instant until = wholeMonth ? end : cutoff;
+        Path file = properties.getArchiveDir().resolve("notifications-" + month + "-" + runStamp + ".ndjson.gz");
+        String partition = "notifications_p" + month.format(PARTITION_SUFFIX);
+
+        if (partitioned && wholeMonth && partitionExists(partition)) {
+            ArchiveResult archived = archive(file, start, until, false);
+            if (!dropPartition(partition, archived.count()) && archived.count() > 0) {
+                deleteArchived(start, until, archived);
+            }
+            log.info("Archived {} notifications from {} to {}", archived.count(), month, file);
+        } else {
+            ArchiveResult archived = archive(file, start, until, true);
+            if (archived.count() > 0) {
+                log.info("Archived {} notifications from {} to {}", archived.count(), month, file);
+            }
+        }
+    }
+
+    private ArchiveResult archive(Path file, Instant start, Instant end, boolean deleteChunks) {
+        ArchiveResult result = new ArchiveResult(0, start, -1L);
+        NotificationArchiveWriter writer = null;
+        try {
+            while (true) {
+                List<ArchivedNotification> chunk = jdbcTemplate.query(SELECT_SENT, NotificationRetentionJob::toArchived,
+                        utc(start), utc(end), utc(result.lastCreatedAt()), utc(result.lastCreatedAt()),
+                        result.lastId(), properties.getBatchSize());
+                if (chunk.isEmpty()) {
+                    return result;
+                }
+                if (writer == null) {
+                    writer = new NotificationArchiveWriter(file, objectMapper);
+                }
+                writer.append(chunk);
+                if (deleteChunks) {
+                    List<Long> ids = chunk.stream().map(ArchivedNotification::id).toList();
+                    transactionTemplate.executeWithoutResult(status -> namedJdbcTemplate.update(
+                            "DELETE FROM notifications WHERE created_at >= :start AND created_at < :end AND id IN (:ids)",
+                            Map.of("start", utc(start), "end", utc(end), "ids", ids)));
+                }
+                ArchivedNotification last = chunk.get(chunk.size() - 1);
+                result = new ArchiveResult(result.count() + chunk.size(), last.createdAt(), last.id());
+                if (chunk.size() < properties.getBatchSize()) {
+                    return result;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write notification archive " + file, e);
+        } finally {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    log.warn("Could not close notification archive {}", file, e);
+                }
+            }
+        }
+    }
+
+    // Dropping is only safe when every row in the partition was archived by this run; anything
+    // else (failed or pending rows, rows that turned SENT meanwhile) falls back to chunked deletes.
+    private boolean dropPartition(String partition, long archived) {
+        Boolean dropped = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("LOCK TABLE " + partition + " IN ACCESS EXCLUSIVE MODE");
+            Map<String, Object> counts = jdbcTemplate.queryForMap(
+                    "SELECT COUNT(*) AS total, COUNT(*) FILTER (WHERE status <> 'SENT') AS other FROM " + partition);
+            long total = ((Number) counts.get("total")).longValue();
+            long other = ((Number) counts.get("other")).longValue();
+            if (other > 0 || total != archived) {
+                return false;
+            }
+            jdbcTemplate.execute("DROP TABLE " + partition);
+            return true;
+        });
+        if (Boolean.TRUE.equals(dropped)) {
+            log.info("Dropped partition {}", partition);
+            return true;
+        }
+        return false;
+    }
+
+    private void deleteArchived(Instant start, Instant end, ArchiveResult archived) {
+        int deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> jdbcTemplate.update(DELETE_ARCHIVED,
+                    utc(start), utc(end), utc(start), utc(end),
+                    utc(archived.lastCreatedAt()), utc(archived.lastCreatedAt()), archived.lastId(),
+                    properties.getBatchSize()));
+        } while (deleted == properties.getBatchSize());
+    }
+
+    private void createUpcomingPartitions(YearMonth current) {
+        for (int i = 0; i <= properties.getPartitionsAhead(); i++) {
+            YearMonth month = current.plusMonths(i);
+            String partition = "notifications_p" + month.format(PARTITION_SUFFIX);
+            try {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF notifications"
+                        + " FOR VALUES FROM ('" + month.atDay(1) + " 00:00:00+00')"
+                        + " TO ('" + month.plusMonths(1).atDay(1) + " 00:00:00+00')");
+            } catch (DataAccessException e) {
+                log.warn("Could not create partition {}: {}", partition, e.getMessage());
+            }
+        }
+    }
+
+    private static boolean tryLock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_try_advisory_xact_lock(?)")) {
+            statement.setLong(1, LOCK_KEY);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getBoolean(1);
+            }
+        }
+    }
+
+    private boolean partitionExists(String partition) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT to_regclass(?) IS NOT NULL", Boolean.class, partition));
+    }
+
+    private static boolean isPostgres(JdbcTemplate jdbcTemplate) {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                    DatabaseMetaData::getDatabaseProductName);
+            return "PostgreSQL".equals(product);
+        } catch (MetaDataAccessException e) {
+            log.warn("Could not detect the database vendor. Using chunked purges.", e);
+            return false;
+        }
+    }
+
+    private static ArchivedNotification toArchived(ResultSet rs, int row) throws SQLException {
+        return new ArchivedNotification(
+                rs.getLong("id"),
+                rs.getString("recipient"),
+                rs.getString("channel"),
+                rs.getString("subject"),
+                rs.getString("body"),
+                rs.getString("status"),
+                rs.getObject("created_at", OffsetDateTime.class).toInstant(),
+                rs.getInt("attempts"),
+                rs.getString("last_error"),
+                rs.getInt("occurrences")
+        );
+    }
+
+    private static OffsetDateTime utc(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
+
+    private record ArchiveResult(long count, Instant lastCreatedAt, Long lastId) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.notification.service;
+
+import com.example.notification.domain.Notification;
+import com.example.notification.domain.NotificationChannel;
+
+public interface NotificationSender {
+
+    NotificationChannel channel();
+
+    void send(Notification notification) throws NotificationDeliveryException;
+}
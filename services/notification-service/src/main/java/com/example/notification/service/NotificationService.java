@@ -1,43 +1,124 @@
 package com.example.notification.service;
 
 import com.example.notification.domain.Notification;
+import com.example.notification.domain.NotificationChannel;
+import com.example.notification.domain.NotificationCursor;
+import com.example.notification.domain.NotificationKey;
+import com.example.notification.domain.NotificationOutboxEvent;
+import com.example.notification.domain.NotificationPage;
+import com.example.notification.domain.NotificationStatus;
+import com.example.notification.repository.NotificationKeyRepository;
+import com.example.notification.repository.NotificationOutboxRepository;
 import com.example.notification.repository.NotificationRepository;
 import com.example.notification.web.dto.NotificationRequest;
+import jakarta.persistence.EntityManager;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 public class NotificationService {
 
+    private static final Logger log = LoggerFactory.getLogger(NotificationService.class);
+    private static final int FLUSH_CHUNK_SIZE = 500;
+
     private final NotificationRepository repository;
+    private final NotificationOutboxRepository outboxRepository;
+    private final NotificationKeyRepository keyRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration coalesceWindow;
+    private final NotificationDedupIndex dedupIndex;
 
-    public NotificationService(NotificationRepository repository) {
+    public NotificationService(
+            NotificationRepository repository,
+            NotificationOutboxRepository outboxRepository,
+            NotificationKeyRepository keyRepository,
+            EntityManager entityManager,
+            PlatformTransactionManager transactionManager,
+            @Value("${notifications.dedup.coalesce-window:5m}") Duration coalesceWindow,
+            @Value("${notifications.dedup.index-size:10000}") int indexSize
+    ) {
         this.repository = repository;
+        this.outboxRepository = outboxRepository;
+        this.keyRepository = keyRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.coalesceWindow = coalesceWindow;
+        this.dedupIndex = new NotificationDedupIndex(indexSize);
     }
 
-    public List<Notification> findAll() {
-        return repository.findAll();
+    @Transactional(readOnly = true)
+    public NotificationPage findPage(String recipient, NotificationStatus status, NotificationChannel channel,
+                                     NotificationCursor cursor, int limit) {
+        List<Notification> notifications = repository.findPageForRecipient(recipient, status, channel, cursor, limit + 1);
+        if (notifications.size() <= limit) {
+            return new NotificationPage(notifications, null);
+        }
+        List<Notification> page = notifications.subList(0, limit);
+        return new NotificationPage(page, NotificationCursor.of(page.get(limit - 1)));
     }
 
     public Optional<Notification> findById(Long id) {
         return repository.findById(id);
     }
 
+    public NotificationWrite create(NotificationRequest request) {
+        NotificationWrite write;
+        try {
+            write = transactionTemplate.execute(status -> write(request, false));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Concurrent write for {} hit a dedup constraint. Resolving against the stored row.",
+                    request.recipient());
+            write = transactionTemplate.execute(status -> write(request, true));
+        }
+        Notification notification = write.notification();
+        if (notification.getIdempotencyKey() != null) {
+            dedupIndex.put(idempotencyKey(notification.getRecipient(), notification.getIdempotencyKey()),
+                    notification.getId());
+        }
+        if (notification.getDigestKey() != null) {
+            dedupIndex.put(notification.getDigestKey(), notification.getId());
+        }
+        return write;
+    }
+
     @Transactional
-    public Notification create(NotificationRequest request) {
-        Notification notification = new Notification(
-                null,
-                request.recipient(),
-                request.channel(),
-                request.subject(),
-                request.body(),
-                request.status(),
-                Instant.now()
-        );
-        return repository.save(notification);
+    public List<Notification> createAll(List<NotificationRequest> requests) {
+        Instant now = Instant.now();
+        List<Notification> created = new ArrayList<>(requests.size());
+        List<Notification> chunk = new ArrayList<>(FLUSH_CHUNK_SIZE);
+        for (NotificationRequest request : requests) {
+            Notification notification = newNotification(request, now);
+            entityManager.persist(notification);
+            created.add(notification);
+            chunk.add(notification);
+            if (chunk.size() == FLUSH_CHUNK_SIZE) {
+                flushWithOutbox(chunk, now);
+            }
+        }
+        flushWithOutbox(chunk, now);
+        return created;
+    }
+
+    private void flushWithOutbox(List<Notification> chunk, Instant now) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        entityManager.flush();
+        outboxRepository.insertAll(chunk, now);
+        entityManager.clear();
+        chunk.clear();
     }
 
     @Transactional
@@ -47,6 +128,11 @@ public class NotificationService {
             existing.setChannel(request.channel());
             existing.setSubject(request.subject());
             existing.setBody(request.body());
+            if (request.status() == NotificationStatus.PENDING && existing.getStatus() != NotificationStatus.PENDING) {
+                existing.setAttempts(0);
+                existing.setNextAttemptAt(Instant.now());
+                existing.setLastError(null);
+            }
             existing.setStatus(request.status());
             return repository.save(existing);
         });
@@ -54,10 +140,106 @@ public class NotificationService {
 
     @Transactional
     public boolean delete(Long id) {
-        if (repository.existsById(id)) {
-            repository.deleteById(id);
-            return true;
+        Optional<Notification> existing = repository.findById(id);
+        if (existing.isEmpty()) {
+            return false;
+        }
+        Notification notification = existing.get();
+        outboxRepository.deleteByNotificationId(id);
+        // Leftover keys would make the next create with the same idempotencyKey collide with a row that is gone.
+        keyRepository.deleteByNotificationId(id);
+        repository.delete(notification);
+        if (notification.getIdempotencyKey() != null) {
+            dedupIndex.remove(idempotencyKey(notification.getRecipient(), notification.getIdempotencyKey()));
+        }
+        if (notification.getDigestKey() != null) {
+            dedupIndex.remove(notification.getDigestKey());
+        }
+        return true;
+    }
+
+    private NotificationWrite write(NotificationRequest request, boolean conflicted) {
+        String idempotencyKey = request.idempotencyKey() == null
+                ? null
+                : idempotencyKey(request.recipient(), request.idempotencyKey());
+        if (idempotencyKey != null) {
+            Optional<Notification> existing = Optional.ofNullable(lookup(idempotencyKey, conflicted))
+                    .flatMap(repository::findById);
+            if (existing.isPresent()) {
+                return new NotificationWrite(existing.get(), false);
+            }
+        }
+        Instant now = Instant.now();
+        String digestKey = digestKey(request, now);
+        if (digestKey != null) {
+            Long digestId = lookup(digestKey, conflicted);
+            if (digestId != null) {
+                if (repository.mergeIntoDigest(digestId, request.body()) == 1) {
+                    return new NotificationWrite(repository.findById(digestId).orElseThrow(), false);
+                }
+                dedupIndex.remove(digestKey);
+                digestKey = null;
+            }
+        }
+
+        Notification notification = newNotification(request, now);
+        notification.setIdempotencyKey(request.idempotencyKey());
+        if (digestKey != null) {
+            notification.setDigestKey(digestKey);
+            notification.setNextAttemptAt(windowEnd(now));
+        }
+        Notification saved = repository.save(notification);
+        outboxRepository.save(new NotificationOutboxEvent(saved, saved.getCreatedAt()));
+        if (idempotencyKey != null) {
+            keyRepository.save(new NotificationKey(idempotencyKey, saved.getId(), now));
+        }
+        if (digestKey != null) {
+            keyRepository.save(new NotificationKey(digestKey, saved.getId(), now));
+        }
+        keyRepository.flush();
+        return new NotificationWrite(saved, true);
+    }
+
+    private Long lookup(String dedupKey, boolean conflicted) {
+        Long id = dedupIndex.get(dedupKey);
+        if (id == null && conflicted) {
+            id = keyRepository.findById(dedupKey).map(NotificationKey::getNotificationId).orElse(null);
+        }
+        return id;
+    }
+
+    // Digests use tumbling windows: the bucket is part of the key, so the primary key of
+    // notification_keys is enough to keep concurrent writers on different nodes on a single row.
+    private String digestKey(NotificationRequest request, Instant now) {
+        if (request.template() == null || request.status() != NotificationStatus.PENDING) {
+            return null;
+        }
+        long bucket = now.toEpochMilli() / coalesceWindow.toMillis();
+        return "digest|" + request.recipient() + "|" + request.channel() + "|" + request.template() + "|" + bucket;
+    }
+
+    private Instant windowEnd(Instant now) {
+        long window = coalesceWindow.toMillis();
+        return Instant.ofEpochMilli((now.toEpochMilli() / window + 1) * window);
+    }
+
+    private static String idempotencyKey(String recipient, String idempotencyKey) {
+        return "idempotency|" + recipient + "|" + idempotencyKey;
+    }
+
+    private Notification newNotification(NotificationRequest request, Instant createdAt) {
+        Notification notification = new Notification(
+                null,
+                request.recipient(),
+                request.channel(),
+                request.subject(),
+                request.body(),
+                request.status(),
+                createdAt
+        );
+        if (notification.getStatus() == NotificationStatus.PENDING) {
+            notification.setNextAttemptAt(createdAt);
         }
-        return false;
+        return notification;
     }
 }
@@ -1,45 +1,187 @@
 package com.example.notification.service;
 
+import com.example.notification.config.NotificationStreamProperties;
 import com.example.notification.domain.Notification;
-import java.io.IOException;
-import java.util.ArrayList;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @Service
 public class NotificationStreamService {
 
-    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private static final Logger log = LoggerFactory.getLogger(NotificationStreamService.class);
+    private static final Set<DataWithMediaType> RESET_EVENT = SseEmitter.event()
+            .name("reset")
+            .data("replay-unavailable")
+            .build();
+    private static final Set<DataWithMediaType> HEARTBEAT_EVENT = SseEmitter.event()
+            .comment("heartbeat")
+            .build();
 
-    public SseEmitter subscribe() {
-        SseEmitter emitter = new SseEmitter(0L);
+    private final ConcurrentHashMap<String, Set<StreamSubscription>> subscriptions = new ConcurrentHashMap<>();
+    private final Map<String, ReplayBuffer> replayBuffers;
+    private final AtomicLong lastEventId = new AtomicLong();
+    private final AtomicInteger activeStreams = new AtomicInteger();
+    private final NotificationStreamProperties properties;
+    private final ExecutorService executor;
+    private final Clock clock;
+    private final Timer sendLatency;
+    private final Counter reaped;
+    private final Counter rejected;
 
-        emitters.add(emitter);
+    @Autowired
+    public NotificationStreamService(NotificationStreamProperties properties, MeterRegistry meterRegistry) {
+        this(properties, newExecutor(properties.getWorkers()), meterRegistry, Clock.systemUTC());
+    }
+
+    NotificationStreamService(NotificationStreamProperties properties, ExecutorService executor, MeterRegistry meterRegistry,
+                              Clock clock) {
+        this.properties = properties;
+        this.executor = executor;
+        this.clock = clock;
+        this.replayBuffers = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ReplayBuffer> eldest) {
+                return size() > properties.getReplayRecipients();
+            }
+        });
+        this.sendLatency = Timer.builder("notifications.stream.send.latency").register(meterRegistry);
+        this.reaped = Counter.builder("notifications.stream.reaped").register(meterRegistry);
+        this.rejected = Counter.builder("notifications.stream.rejected").register(meterRegistry);
+        Gauge.builder("notifications.stream.active", activeStreams, AtomicInteger::get).register(meterRegistry);
+    }
 
-        emitter.onCompletion(() -> emitters.remove(emitter));
-        emitter.onTimeout(() -> emitters.remove(emitter));
-        emitter.onError(e -> emitters.remove(emitter));
+    public SseEmitter subscribe(String recipient, Long lastEventId) {
+        return subscribe(recipient, lastEventId, new SseEmitter(0L));
+    }
+
+    public SseEmitter subscribe(String recipient, Long lastEventId, SseEmitter emitter) {
+        if (activeStreams.incrementAndGet() > properties.getMaxStreams()) {
+            activeStreams.decrementAndGet();
+            rejected.increment();
+            throw new StreamLimitExceededException(properties.getMaxStreams());
+        }
+        StreamSubscription subscription = new StreamSubscription(
+                recipient, emitter, properties, executor, sendLatency, clock, this::remove);
+        ReplayBuffer buffer = replayBufferFor(recipient);
+        synchronized (buffer) {
+            subscriptions.compute(recipient, (key, streams) -> {
+                Set<StreamSubscription> updated = streams == null ? ConcurrentHashMap.newKeySet() : streams;
+                updated.add(subscription);
+                return updated;
+            });
+            if (lastEventId != null) {
+                buffer.since(lastEventId).ifPresentOrElse(
+                        missed -> missed.forEach(subscription::offer),
+                        () -> subscription.offer(RESET_EVENT)
+                );
+            }
+        }
+
+        emitter.onCompletion(() -> remove(subscription));
+        emitter.onTimeout(() -> remove(subscription));
+        emitter.onError(e -> remove(subscription));
 
         return emitter;
     }
 
-    public void send(Notification notification) {
-        List<SseEmitter> deadEmitters = new ArrayList<>();
+    public void send(Long eventId, Notification notification) {
+        Set<DataWithMediaType> event = SseEmitter.event()
+                .id(String.valueOf(eventId))
+                .name("notification")
+                .data(notification)
+                .build();
+        ReplayBuffer buffer = replayBufferFor(notification.getRecipient());
+        lastEventId.accumulateAndGet(eventId, Math::max);
+        synchronized (buffer) {
+            buffer.append(eventId, event);
+            Set<StreamSubscription> streams = subscriptions.get(notification.getRecipient());
+            if (streams == null) {
+                return;
+            }
+            for (StreamSubscription subscription : streams) {
+                subscription.offer(event);
+            }
+        }
+    }
+
+    public void resumeAfter(long eventId) {
+        lastEventId.accumulateAndGet(eventId, Math::max);
+    }
 
-        for (SseEmitter emitter : emitters) {
-            try {
-                emitter.send(
-                        SseEmitter.event()
-                                .name("notification")
-                                .data(notification)
-                );
-            } catch (IOException ex) {
-                deadEmitters.add(emitter);
+    public void heartbeat() {
+        long now = clock.millis();
+        long staleAfter = properties.getStaleAfter().toMillis();
+        for (Set<StreamSubscription> streams : subscriptions.values()) {
+            for (StreamSubscription subscription : streams) {
+                if (subscription.isStale(now, staleAfter)) {
+                    log.debug("Reaping stalled stream of {}", subscription.recipient());
+                    subscription.reap();
+                } else {
+                    subscription.offer(HEARTBEAT_EVENT);
+                }
             }
         }
+    }
+
+    public int activeStreams() {
+        return activeStreams.get();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        List<StreamSubscription> open = subscriptions.values().stream().flatMap(Set::stream).toList();
+        open.forEach(StreamSubscription::disconnect);
+        executor.shutdown();
+        if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    private ReplayBuffer replayBufferFor(String recipient) {
+        return replayBuffers.computeIfAbsent(recipient, key -> new ReplayBuffer(properties.getReplaySize(), lastEventId.get()));
+    }
+
+    private void remove(StreamSubscription subscription) {
+        boolean[] removed = new boolean[1];
+        subscriptions.computeIfPresent(subscription.recipient(), (key, streams) -> {
+            removed[0] = streams.remove(subscription);
+            return streams.isEmpty() ? null : streams;
+        });
+        if (removed[0]) {
+            activeStreams.decrementAndGet();
+            if (subscription.isDead()) {
+                reaped.increment();
+            }
+        }
+    }
 
-        emitters.removeAll(deadEmitters);
+    private static ExecutorService newExecutor(int workers) {
+        AtomicInteger sequence = new AtomicInteger();
+        return Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "notification-stream-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 }
@@ -0,0 +1,6 @@
+package com.example.notification.service;
+
+import com.example.notification.domain.Notification;
+
+public record NotificationWrite(Notification notification, boolean created) {
+}
@@ -0,0 +1,155 @@
+package com.example.notification.service;
+
+import com.example.notification.domain.NotificationOutboxEvent;
+import com.example.notification.repository.NotificationOutboxRepository;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+public class PostgresStreamFanOut implements StreamFanOut, SmartLifecycle {
+
+    static final String CHANNEL = "notification_events";
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresStreamFanOut.class);
+    private static final Duration RECONNECT_DELAY = Duration.ofSeconds(2);
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final NotificationOutboxRepository outboxRepository;
+    private final NotificationStreamService streamService;
+    private final TransactionTemplate readTemplate;
+    private final int fetchBatchSize;
+    private final Duration listenTimeout;
+    private volatile boolean running;
+    private volatile Thread listener;
+    private Long lastSeenSeq;
+
+    public PostgresStreamFanOut(DataSource dataSource,
+                                NotificationOutboxRepository outboxRepository,
+                                NotificationStreamService streamService,
+                                PlatformTransactionManager transactionManager,
+                                int fetchBatchSize,
+                                Duration listenTimeout) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.outboxRepository = outboxRepository;
+        this.streamService = streamService;
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setReadOnly(true);
+        this.fetchBatchSize = fetchBatchSize;
+        this.listenTimeout = listenTimeout;
+    }
+
+    @Override
+    public void publish(List<NotificationOutboxEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        String payload = Long.toString(events.get(events.size() - 1).getPublishSeq());
+        jdbcTemplate.execute("SELECT pg_notify(?, ?)", (PreparedStatementCallback<Boolean>) statement -> {
+            statement.setString(1, CHANNEL);
+            statement.setString(2, payload);
+            return statement.execute();
+        });
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        Thread thread = new Thread(this::listen, "notification-listener");
+        thread.setDaemon(true);
+        listener = thread;
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = listener;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Each NOTIFY only carries the last publish_seq of its batch; the events themselves are read in publish order.
+    void deliver(List<String> payloads) {
+        long latest = payloads.stream().mapToLong(payload -> Long.parseLong(payload.trim())).max().orElse(0L);
+        if (lastSeenSeq == null || latest > lastSeenSeq) {
+            catchUp();
+        }
+    }
+
+    // The relay commits publish_seq values in the order it assigns them, so every event above lastSeenSeq is either
+    // already visible or still to come; nothing can commit below it later.
+    void catchUp() {
+        if (lastSeenSeq == null) {
+            lastSeenSeq = readTemplate.execute(status -> outboxRepository.findLastPublishSeq());
+            return;
+        }
+        List<NotificationOutboxEvent> missed;
+        do {
+            Long after = lastSeenSeq;
+            missed = readTemplate.execute(status ->
+                    outboxRepository.findPublishedAfter(after, PageRequest.of(0, fetchBatchSize)));
+            for (NotificationOutboxEvent event : missed) {
+                streamService.send(event.getPublishSeq(), event.getNotification());
+                lastSeenSeq = event.getPublishSeq();
+            }
+        } while (missed.size() == fetchBatchSize);
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                catchUp();
+                log.info("Listening for notification events on channel {}", CHANNEL);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) listenTimeout.toMillis());
+                    if (notifications == null || notifications.length == 0) {
+                        continue;
+                    }
+                    List<String> payloads = new ArrayList<>(notifications.length);
+                    for (PGNotification notification : notifications) {
+                        payloads.add(notification.getParameter());
+                    }
+                    deliver(payloads);
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Notification listener failed. Reconnecting in {}.", RECONNECT_DELAY, e);
+                try {
+                    Thread.sleep(RECONNECT_DELAY.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.notification.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+
+final class ReplayBuffer {
+
+    private final int capacity;
+    private final Deque<Entry> entries;
+    private long floor;
+
+    ReplayBuffer(int capacity, long floor) {
+        this.capacity = capacity;
+        this.entries = new ArrayDeque<>(capacity);
+        this.floor = floor;
+    }
+
+    void append(long eventId, Set<DataWithMediaType> event) {
+        if (capacity == 0) {
+            floor = Math.max(floor, eventId);
+            return;
+        }
+        if (entries.size() == capacity) {
+            floor = entries.removeFirst().eventId();
+        }
+        entries.addLast(new Entry(eventId, event));
+    }
+
+    Optional<List<Set<DataWithMediaType>>> since(long lastEventId) {
+        if (lastEventId < floor) {
+            return Optional.empty();
+        }
+        List<Set<DataWithMediaType>> missed = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.eventId() > lastEventId) {
+                missed.add(entry.event());
+            }
+        }
+        return Optional.of(missed);
+    }
+
+    private record Entry(long eventId, Set<DataWithMediaType> event) {
+    }
+}
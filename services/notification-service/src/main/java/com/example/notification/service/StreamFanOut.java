@@ -0,0 +1,9 @@
+package com.example.notification.service;
+
+import com.example.notification.domain.NotificationOutboxEvent;
+import java.util.List;
+
+public interface StreamFanOut {
+
+    void publish(List<NotificationOutboxEvent> events);
+}
@@ -0,0 +1,6 @@
+package com.example.notification.service;
+
+public enum StreamFanOutMode {
+    LOCAL,
+    POSTGRES
+}
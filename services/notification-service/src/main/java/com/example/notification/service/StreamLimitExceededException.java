@@ -0,0 +1,10 @@
+package com.example.notification.service;
+
+public class StreamLimitExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public StreamLimitExceededException(int maxStreams) {
+        super("Stream limit of " + maxStreams + " reached on this node");
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.notification.service;
+
+public enum StreamOverflowPolicy {
+    DROP_OLDEST,
+    DISCONNECT
+}
@@ -0,0 +1,130 @@
+package com.example.notification.service;
+
+import com.example.notification.config.NotificationStreamProperties;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.time.Clock;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+final class StreamSubscription {
+
+    private static final Logger log = LoggerFactory.getLogger(StreamSubscription.class);
+
+    private final String recipient;
+    private final SseEmitter emitter;
+    private final BlockingQueue<Set<DataWithMediaType>> outbound;
+    private final StreamOverflowPolicy overflowPolicy;
+    private final Executor executor;
+    private final Timer sendLatency;
+    private final Clock clock;
+    private final Consumer<StreamSubscription> onClose;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final AtomicBoolean completed = new AtomicBoolean();
+    private volatile long lastWriteMillis;
+    private volatile boolean dead;
+
+    StreamSubscription(String recipient, SseEmitter emitter, NotificationStreamProperties properties, Executor executor,
+                       Timer sendLatency, Clock clock, Consumer<StreamSubscription> onClose) {
+        this.recipient = recipient;
+        this.emitter = emitter;
+        this.outbound = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.overflowPolicy = properties.getOverflowPolicy();
+        this.executor = executor;
+        this.sendLatency = sendLatency;
+        this.clock = clock;
+        this.onClose = onClose;
+        this.lastWriteMillis = clock.millis();
+    }
+
+    String recipient() {
+        return recipient;
+    }
+
+    boolean isDead() {
+        return dead;
+    }
+
+    boolean isStale(long nowMillis, long staleAfterMillis) {
+        boolean waiting = draining.get() || !outbound.isEmpty();
+        return waiting && nowMillis - lastWriteMillis > staleAfterMillis;
+    }
+
+    void offer(Set<DataWithMediaType> event) {
+        if (closed.get()) {
+            return;
+        }
+        while (!outbound.offer(event)) {
+            if (overflowPolicy == StreamOverflowPolicy.DISCONNECT) {
+                log.warn("Outbound queue full for a stream of {}. Disconnecting it.", recipient);
+                disconnect();
+                return;
+            }
+            outbound.poll();
+            log.debug("Outbound queue full for a stream of {}. Dropped the oldest event.", recipient);
+        }
+        scheduleDrain();
+    }
+
+    // Never completes the emitter on the caller's thread: complete() waits for the emitter lock, which a
+    // blocked send holds until the servlet write timeout fires. The drain worker completes it instead.
+    void disconnect() {
+        if (closed.compareAndSet(false, true)) {
+            outbound.clear();
+            onClose.accept(this);
+            scheduleDrain();
+        }
+    }
+
+    void reap() {
+        dead = true;
+        disconnect();
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            Set<DataWithMediaType> event;
+            while (!closed.get() && (event = outbound.poll()) != null) {
+                long start = System.nanoTime();
+                emitter.send(event);
+                sendLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                lastWriteMillis = clock.millis();
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Stream of {} failed: {}", recipient, e.getMessage());
+            if (closed.compareAndSet(false, true)) {
+                dead = true;
+                outbound.clear();
+                onClose.accept(this);
+            }
+            if (completed.compareAndSet(false, true)) {
+                emitter.completeWithError(e);
+            }
+        } finally {
+            draining.set(false);
+        }
+        if (closed.get()) {
+            if (completed.compareAndSet(false, true)) {
+                emitter.complete();
+            }
+        } else if (!outbound.isEmpty()) {
+            scheduleDrain();
+        }
+    }
+}
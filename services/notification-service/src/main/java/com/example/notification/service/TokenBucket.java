@@ -0,0 +1,31 @@
+package com.example.notification.service;
+
+import java.time.Clock;
+
+final class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerMilli;
+    private final Clock clock;
+    private double tokens;
+    private long lastRefillMillis;
+
+    TokenBucket(double ratePerSecond, Clock clock) {
+        this.capacity = Math.max(1, ratePerSecond);
+        this.refillPerMilli = ratePerSecond / 1000;
+        this.clock = clock;
+        this.tokens = capacity;
+        this.lastRefillMillis = clock.millis();
+    }
+
+    synchronized int available() {
+        long now = clock.millis();
+        tokens = Math.min(capacity, tokens + (now - lastRefillMillis) * refillPerMilli);
+        lastRefillMillis = now;
+        return (int) tokens;
+    }
+
+    synchronized void consume(int permits) {
+        tokens -= permits;
+    }
+}
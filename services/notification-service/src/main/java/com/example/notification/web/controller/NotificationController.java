@@ -1,13 +1,22 @@
 package com.example.notification.web.controller;
 
 import com.example.notification.domain.Notification;
+import com.example.notification.domain.NotificationChannel;
+import com.example.notification.domain.NotificationCursor;
+import com.example.notification.domain.NotificationPage;
+import com.example.notification.domain.NotificationStatus;
 import com.example.notification.service.NotificationService;
+import com.example.notification.service.NotificationWrite;
+import com.example.notification.web.dto.NotificationBatchRequest;
+import com.example.notification.web.dto.NotificationBatchResponse;
+import com.example.notification.web.dto.NotificationPageResponse;
 import com.example.notification.web.dto.NotificationRequest;
 import com.example.notification.web.dto.NotificationResponse;
 import jakarta.validation.Valid;
 import java.net.URI;
 import java.util.List;
 import java.util.stream.Collectors;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -16,12 +25,16 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 @RestController
 @RequestMapping("/api/notifications")
 public class NotificationController {
 
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final NotificationService service;
 
     public NotificationController(NotificationService service) {
@@ -29,10 +42,18 @@ public class NotificationController {
     }
 
     @GetMapping
-    public List<NotificationResponse> findAll() {
-        return service.findAll().stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+    public NotificationPageResponse findPage(@RequestParam String recipient,
+                                             @RequestParam(required = false) NotificationStatus status,
+                                             @RequestParam(required = false) NotificationChannel channel,
+                                             @RequestParam(defaultValue = "50") int limit,
+                                             @RequestParam(required = false) String cursor) {
+        NotificationPage page = service.findPage(recipient, status, channel, decodeCursor(cursor),
+                Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+        return new NotificationPageResponse(
+                page.getNotifications().stream().map(this::toResponse).collect(Collectors.toList()),
+                page.hasMore() ? page.getNextCursor().encode() : null,
+                page.hasMore()
+        );
     }
 
     @GetMapping("/{id}")
@@ -44,9 +65,28 @@ public class NotificationController {
 
     @PostMapping
     public ResponseEntity<NotificationResponse> create(@Valid @RequestBody NotificationRequest request) {
-        Notification created = service.create(request);
-        return ResponseEntity.created(URI.create("/api/notifications/" + created.getId()))
-                .body(toResponse(created));
+        NotificationWrite write = service.create(request);
+        Notification notification = write.notification();
+        if (!write.created()) {
+            return ResponseEntity.ok(toResponse(notification));
+        }
+        return ResponseEntity.created(URI.create("/api/notifications/" + notification.getId()))
+                .body(toResponse(notification));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<NotificationBatchResponse> createBatch(@Valid @RequestBody NotificationBatchRequest request) {
+        boolean keyed = request.notifications().stream()
+                .anyMatch(item -> item.idempotencyKey() != null || item.template() != null);
+        if (keyed) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "idempotencyKey y template no se admiten en lotes; usa POST /api/notifications");
+        }
+        List<Notification> created = service.createAll(request.notifications());
+        return ResponseEntity.status(HttpStatus.CREATED).body(new NotificationBatchResponse(
+                created.size(),
+                created.stream().map(Notification::getId).collect(Collectors.toList())
+        ));
     }
 
     @PutMapping("/{id}")
@@ -62,6 +102,17 @@ public class NotificationController {
         return service.delete(id) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
     }
 
+    private NotificationCursor decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return NotificationCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "cursor inválido", e);
+        }
+    }
+
     private NotificationResponse toResponse(Notification notification) {
         return new NotificationResponse(
                 notification.getId(),
@@ -70,7 +121,8 @@ public class NotificationController {
                 notification.getSubject(),
                 notification.getBody(),
                 notification.getStatus(),
-                notification.getCreatedAt()
+                notification.getCreatedAt(),
+                notification.getOccurrences()
         );
     }
 }
@@ -1,10 +1,15 @@
 package com.example.notification.web.controller;
 
 import com.example.notification.service.NotificationStreamService;
+import com.example.notification.service.StreamLimitExceededException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
@@ -18,7 +23,14 @@ public class NotificationStreamController {
     }
 
     @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter stream() {
-        return streamService.subscribe();
+    public SseEmitter stream(
+            @RequestParam String recipient,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId
+    ) {
+        try {
+            return streamService.subscribe(recipient, lastEventId);
+        } catch (StreamLimitExceededException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "límite de streams alcanzado en este nodo", e);
+        }
     }
 }
@@ -0,0 +1,13 @@
+package com.example.notification.web.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public record NotificationBatchRequest(
+        @NotEmpty(message = "notifications es requerido")
+        @Size(max = 10000, message = "como máximo 10000 notificaciones por lote")
+        List<@Valid NotificationRequest> notifications
+) {
+}
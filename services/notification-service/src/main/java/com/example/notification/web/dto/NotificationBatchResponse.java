@@ -0,0 +1,9 @@
+package com.example.notification.web.dto;
+
+import java.util.List;
+
+public record NotificationBatchResponse(
+        int created,
+        List<Long> ids
+) {
+}
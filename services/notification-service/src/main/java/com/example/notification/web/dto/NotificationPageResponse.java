@@ -0,0 +1,10 @@
+package com.example.notification.web.dto;
+
+import java.util.List;
+
+public record NotificationPageResponse(
+        List<NotificationResponse> items,
+        String nextCursor,
+        boolean hasMore
+) {
+}
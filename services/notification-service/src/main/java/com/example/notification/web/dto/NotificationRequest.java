@@ -19,6 +19,10 @@ public record NotificationRequest(
         @Size(max = 500)
         String body,
         @NotNull(message = "status es requerido")
-        NotificationStatus status
+        NotificationStatus status,
+        @Size(max = 100)
+        String idempotencyKey,
+        @Size(max = 140)
+        String template
 ) {
 }
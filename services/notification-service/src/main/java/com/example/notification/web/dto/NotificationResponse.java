@@ -11,6 +11,7 @@ public record NotificationResponse(
         String subject,
         String body,
         NotificationStatus status,
-        Instant createdAt
+        Instant createdAt,
+        int occurrences
 ) {
 }
@@ -0,0 +1,16 @@
+-- SSE event ids are handed out when an event is published, not when it is inserted: the relay holds the single row
+-- of notification_outbox_relay while it numbers a batch, so ids commit in the order they are assigned and a reader
+-- resuming with publish_seq > lastSeen cannot skip an event that committed late.
+ALTER TABLE notification_outbox ADD COLUMN publish_seq BIGINT;
+
+UPDATE notification_outbox SET publish_seq = id WHERE published_at IS NOT NULL;
+
+CREATE UNIQUE INDEX uq_notification_outbox_publish_seq ON notification_outbox (publish_seq);
+
+CREATE TABLE notification_outbox_relay (
+    id INT PRIMARY KEY,
+    last_publish_seq BIGINT NOT NULL
+);
+
+INSERT INTO notification_outbox_relay (id, last_publish_seq)
+SELECT 1, COALESCE(MAX(publish_seq), 0) FROM notification_outbox;
@@ -0,0 +1,7 @@
+ALTER TABLE notifications ADD COLUMN attempts INT NOT NULL DEFAULT 0;
+ALTER TABLE notifications ADD COLUMN next_attempt_at TIMESTAMP WITH TIME ZONE;
+ALTER TABLE notifications ADD COLUMN last_error VARCHAR(500);
+
+UPDATE notifications SET next_attempt_at = created_at WHERE status = 'PENDING';
+
+CREATE INDEX idx_notifications_due ON notifications (status, channel, next_attempt_at, id);
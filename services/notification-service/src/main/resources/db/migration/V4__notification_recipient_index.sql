@@ -0,0 +1 @@
+CREATE INDEX idx_notifications_recipient_created ON notifications (recipient, created_at, id);
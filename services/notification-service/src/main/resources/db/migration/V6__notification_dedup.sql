@@ -0,0 +1,14 @@
+ALTER TABLE notifications ADD COLUMN idempotency_key VARCHAR(100);
+ALTER TABLE notifications ADD COLUMN digest_key VARCHAR(300);
+ALTER TABLE notifications ADD COLUMN occurrences INT NOT NULL DEFAULT 1;
+
+-- Dedup keys live in their own table rather than as unique indexes on notifications: a partitioned table can only
+-- enforce uniqueness together with its partition key.
+CREATE TABLE notification_keys (
+    dedup_key VARCHAR(320) PRIMARY KEY,
+    notification_id BIGINT NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX idx_notification_keys_created ON notification_keys (created_at);
+CREATE INDEX idx_notification_keys_notification ON notification_keys (notification_id);
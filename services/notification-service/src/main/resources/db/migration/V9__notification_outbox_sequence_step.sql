@@ -0,0 +1,4 @@
+-- Outbox rows are inserted in JDBC batches that call nextval per row, which would collide with the blocks Hibernate's
+-- pooled optimizer hands out. Everything the optimizer already handed out is <= the current value, so stepping by one
+-- from here cannot collide; old replicas still running with allocationSize 50 must be drained before this runs.
+ALTER SEQUENCE notification_outbox_seq INCREMENT BY 1;
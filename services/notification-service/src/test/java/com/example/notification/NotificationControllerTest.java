@@ -1,21 +1,39 @@
 package com.example.notification;
 
+import com.example.notification.domain.Notification;
 import com.example.notification.domain.NotificationChannel;
+import com.example.notification.domain.NotificationKey;
 import com.example.notification.domain.NotificationStatus;
+import com.example.notification.repository.NotificationKeyRepository;
+import com.example.notification.repository.NotificationRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@SpringBootTest
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "notifications.dedup.coalesce-window=3650d"
+})
 @AutoConfigureMockMvc
 class NotificationControllerTest {
 
@@ -25,6 +43,18 @@ class NotificationControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private NotificationKeyRepository keyRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Test
     @DisplayName("crea y consulta una notificación")
     void shouldCreateAndFetchNotification() throws Exception {
@@ -50,6 +80,234 @@ class NotificationControllerTest {
                 .andExpect(jsonPath("$.channel").value("EMAIL"));
     }
 
+    @Test
+    @DisplayName("pagina las notificaciones de un destinatario con cursor y filtros")
+    void shouldPageNotificationsByRecipient() throws Exception {
+        String recipient = "pager@example.com";
+        create(recipient, NotificationChannel.EMAIL, NotificationStatus.SENT);
+        create(recipient, NotificationChannel.PUSH, NotificationStatus.FAILED);
+        create(recipient, NotificationChannel.EMAIL, NotificationStatus.SENT);
+        create("other@example.com", NotificationChannel.EMAIL, NotificationStatus.SENT);
+
+        String body = mockMvc.perform(MockMvcRequestBuilders.get("/api/notifications")
+                        .param("recipient", recipient)
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].channel").value("EMAIL"))
+                .andExpect(jsonPath("$.items[1].channel").value("PUSH"))
+                .andExpect(jsonPath("$.hasMore").value(true))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String cursor = objectMapper.readTree(body).get("nextCursor").asText();
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/notifications")
+                        .param("recipient", recipient)
+                        .param("limit", "2")
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.hasMore").value(false));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/notifications")
+                        .param("recipient", recipient)
+                        .param("status", "FAILED")
+                        .param("channel", "PUSH"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].status").value("FAILED"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/notifications")
+                        .param("recipient", recipient)
+                        .param("cursor", "%%%"))
+                .andExpect(status().isBadRequest());
+
+        String outOfRange = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((Long.MAX_VALUE + ":0:1").getBytes(StandardCharsets.UTF_8));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/notifications")
+                        .param("recipient", recipient)
+                        .param("cursor", outOfRange))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("crea notificaciones en lote con inserts agrupados")
+    void shouldCreateNotificationsInBatch() throws Exception {
+        List<NotificationRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            requests.add(new NotificationRequest("batch@example.com", NotificationChannel.PUSH, "Recordatorio",
+                    "Pago " + i, NotificationStatus.SENT));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/notifications/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("notifications", requests))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.created").value(500))
+                .andExpect(jsonPath("$.ids.length()").value(500));
+
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(200);
+        // Only the notifications go through Hibernate; the outbox rows are one JDBC batch per chunk.
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(500);
+        List<Long> outboxIds = jdbcTemplate.queryForList("""
+                SELECT o.id FROM notification_outbox o JOIN notifications n ON n.id = o.notification_id
+                WHERE n.recipient = 'batch@example.com' ORDER BY n.id
+                """, Long.class);
+        assertThat(outboxIds).hasSize(500).isSorted().doesNotHaveDuplicates();
+        assertThat(outboxIds.get(499) - outboxIds.get(0)).isEqualTo(499);
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/notifications")
+                        .param("recipient", "batch@example.com")
+                        .param("limit", "500"))
+                .andExpect(jsonPath("$.items.length()").value(500))
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    @DisplayName("rechaza lotes vacíos o con notificaciones inválidas")
+    void shouldRejectInvalidBatch() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/notifications/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"notifications\":[]}"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/notifications/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"notifications\":[{\"recipient\":\"\",\"channel\":\"PUSH\"}]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("devuelve la notificación original al repetir una idempotencyKey")
+    void shouldReplayIdempotentCreate() throws Exception {
+        String payload = objectMapper.writeValueAsString(Map.of(
+                "recipient", "idem@example.com",
+                "channel", "EMAIL",
+                "subject", "Recordatorio",
+                "body", "Tienes un pago pendiente",
+                "status", "SENT",
+                "idempotencyKey", "alert-42"
+        ));
+
+        String first = mockMvc.perform(MockMvcRequestBuilders.post("/api/notifications")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(payload))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        long id = objectMapper.readTree(first).get("id").asLong();
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/notifications")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(payload))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(id));
+    }
+
+    @Test
+    @DisplayName("vuelve a crear la notificación tras borrar la original con la misma idempotencyKey")
+    void shouldCreateAgainAfterDeletingIdempotentNotification() throws Exception {
+        String payload = objectMapper.writeValueAsString(Map.of(
+                "recipient", "deleted@example.com",
+                "channel", "EMAIL",
+                "subject", "Recordatorio",
+                "body", "Tienes un pago pendiente",
+                "status", "SENT",
+                "idempotencyKey", "alert-99"
+        ));
+
+        String first = mockMvc.perform(MockMvcRequestBuilders.post("/api/notifications")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(payload))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        long id = objectMapper.readTree(first).get("id").asLong();
+
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/notifications/" + id))
+                .andExpect(status().isNoContent());
+        assertThat(keyRepository.existsById("idempotency|deleted@example.com|alert-99")).isFalse();
+
+        String second = mockMvc.perform(MockMvcRequestBuilders.post("/api/notifications")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(payload))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        assertThat(objectMapper.readTree(second).get("id").asLong()).isNotEqualTo(id);
+    }
+
+    @Test
+    @DisplayName("resuelve la idempotencyKey contra la base cuando no está en memoria")
+    void shouldFallBackToUniqueConstraintForIdempotency() throws Exception {
+        Notification stored = new Notification(null, "fallback@example.com", NotificationChannel.SMS, "Recordatorio",
+                "Tienes un pago pendiente", NotificationStatus.SENT, Instant.now());
+        stored.setIdempotencyKey("alert-7");
+        stored = notificationRepository.save(stored);
+        keyRepository.save(new NotificationKey("idempotency|fallback@example.com|alert-7", stored.getId(),
+                stored.getCreatedAt()));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/notifications")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "recipient", "fallback@example.com",
+                                "channel", "SMS",
+                                "subject", "Recordatorio",
+                                "body", "Otro cuerpo",
+                                "status", "SENT",
+                                "idempotencyKey", "alert-7"
+                        ))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(stored.getId()))
+                .andExpect(jsonPath("$.body").value("Tienes un pago pendiente"));
+    }
+
+    @Test
+    @DisplayName("agrupa notificaciones de la misma plantilla en un digest")
+    void shouldCoalesceNotificationsIntoDigest() throws Exception {
+        Long digestId = null;
+        for (int i = 1; i <= 3; i++) {
+            String body = mockMvc.perform(MockMvcRequestBuilders.post("/api/notifications")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(Map.of(
+                                    "recipient", "digest@example.com",
+                                    "channel", "PUSH",
+                                    "subject", "Presupuesto superado",
+                                    "body", "Gasto " + i,
+                                    "status", "PENDING",
+                                    "template", "budget-exceeded"
+                            ))))
+                    .andExpect(i == 1 ? status().isCreated() : status().isOk())
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsString();
+            long id = objectMapper.readTree(body).get("id").asLong();
+            if (digestId == null) {
+                digestId = id;
+            }
+            assertThat(id).isEqualTo(digestId);
+        }
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/notifications/" + digestId))
+                .andExpect(jsonPath("$.occurrences").value(3))
+                .andExpect(jsonPath("$.body").value("Gasto 3"));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/notifications").param("recipient", "digest@example.com"))
+                .andExpect(jsonPath("$.items.length()").value(1));
+    }
+
+    private void create(String recipient, NotificationChannel channel, NotificationStatus status) throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/notifications")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new NotificationRequest(
+                                recipient, channel, "Recordatorio", "Tienes un pago pendiente", status))))
+                .andExpect(status().isCreated());
+    }
+
     private record NotificationRequest(String recipient,
                                        NotificationChannel channel,
                                        String subject,
@@ -0,0 +1,98 @@
+package com.example.notification.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.notification.domain.Notification;
+import com.example.notification.domain.NotificationChannel;
+import com.example.notification.domain.NotificationStatus;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@DataJpaTest
+class NotificationRepositoryTest {
+
+    private static final Instant NOW = Instant.parse("2000-01-01T10:00:00Z");
+
+    @Autowired
+    private NotificationRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void lockDueShouldReturnDuePendingNotificationsOfTheChannelOldestFirst() {
+        Long second = save(NotificationChannel.EMAIL, NotificationStatus.PENDING, NOW.minusSeconds(120));
+        Long third = save(NotificationChannel.EMAIL, NotificationStatus.PENDING, NOW);
+        Long first = save(NotificationChannel.EMAIL, NotificationStatus.PENDING, NOW.minusSeconds(180));
+        save(NotificationChannel.EMAIL, NotificationStatus.PENDING, NOW.plusSeconds(60));
+        save(NotificationChannel.EMAIL, NotificationStatus.SENT, NOW.minusSeconds(300));
+        save(NotificationChannel.SMS, NotificationStatus.PENDING, NOW.minusSeconds(300));
+
+        assertThat(repository.lockDue("EMAIL", NOW, 10))
+                .extracting(Notification::getId)
+                .containsExactly(first, second, third);
+        assertThat(repository.lockDue("EMAIL", NOW, 2))
+                .extracting(Notification::getId)
+                .containsExactly(first, second);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void lockDueShouldSkipRowsLockedByAnotherWorker() throws Exception {
+        Instant now = NOW.plus(Duration.ofDays(365));
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<Long> ids = transaction.execute(status -> List.of(
+                save(NotificationChannel.EMAIL, NotificationStatus.PENDING, now.minusSeconds(3)),
+                save(NotificationChannel.EMAIL, NotificationStatus.PENDING, now.minusSeconds(2)),
+                save(NotificationChannel.EMAIL, NotificationStatus.PENDING, now.minusSeconds(1))));
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            CompletableFuture<List<Long>> firstWorker = CompletableFuture.supplyAsync(() -> transaction.execute(status -> {
+                // H2 locks every row the WHERE matches, not just those within LIMIT, so the claim is narrowed by time.
+                List<Long> claimed = repository.lockDue("EMAIL", now.minusSeconds(2), 10).stream()
+                        .map(Notification::getId).toList();
+                locked.countDown();
+                await(release);
+                return claimed;
+            }));
+            assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+
+            List<Long> secondWorker = transaction.execute(status ->
+                    repository.lockDue("EMAIL", now, 10).stream().map(Notification::getId).toList());
+            release.countDown();
+
+            assertThat(firstWorker.get(5, TimeUnit.SECONDS)).containsExactly(ids.get(0), ids.get(1));
+            assertThat(secondWorker).containsExactly(ids.get(2));
+        } finally {
+            release.countDown();
+            transaction.executeWithoutResult(status -> repository.deleteAllById(ids));
+        }
+    }
+
+    private Long save(NotificationChannel channel, NotificationStatus status, Instant nextAttemptAt) {
+        Notification notification = new Notification(null, "worker@example.com", channel, "Recordatorio",
+                "Tienes un pago pendiente", status, nextAttemptAt);
+        notification.setNextAttemptAt(nextAttemptAt);
+        return repository.saveAndFlush(notification).getId();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.notification.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.example.notification.config.NotificationDeliveryProperties;
+import com.example.notification.domain.Notification;
+import com.example.notification.domain.NotificationChannel;
+import com.example.notification.domain.NotificationStatus;
+import com.example.notification.repository.NotificationRepository;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationDeliveryWorkerTest {
+
+    private static final Instant NOW = Instant.parse("2024-06-01T10:00:00Z");
+
+    @Mock
+    private NotificationRepository repository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ExecutorService executor;
+
+    @Mock
+    private NotificationSender emailSender;
+
+    private final List<Runnable> scheduled = new ArrayList<>();
+    private final NotificationDeliveryProperties properties = new NotificationDeliveryProperties();
+    private final Clock clock = mock(Clock.class);
+    private long now = NOW.toEpochMilli();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(emailSender.channel()).thenReturn(NotificationChannel.EMAIL);
+        lenient().doAnswer(invocation -> scheduled.add(invocation.getArgument(0))).when(executor).execute(any(Runnable.class));
+        lenient().when(clock.millis()).thenAnswer(invocation -> now);
+        lenient().when(clock.instant()).thenAnswer(invocation -> Instant.ofEpochMilli(now));
+        NotificationDeliveryProperties.ChannelLimits email = new NotificationDeliveryProperties.ChannelLimits();
+        email.setConcurrency(2);
+        email.setRatePerSecond(5);
+        properties.getChannels().put(NotificationChannel.EMAIL, email);
+        properties.setMaxAttempts(3);
+    }
+
+    @Test
+    void pollShouldClaimDueNotificationsAndMarkThemSent() {
+        Notification notification = notification(1L, 0);
+        when(repository.lockDue(eq("EMAIL"), any(Instant.class), eq(2))).thenReturn(List.of(notification));
+        when(repository.completeAttempt(1L, 1, NotificationStatus.SENT, null, null)).thenReturn(1);
+
+        worker().poll();
+        runScheduled();
+
+        verify(emailSender).send(notification);
+        verify(repository).completeAttempt(1L, 1, NotificationStatus.SENT, null, null);
+        assertThat(notification.getNextAttemptAt()).isEqualTo(NOW.plus(properties.getLease()));
+    }
+
+    @Test
+    void failedAttemptShouldBeRescheduledWithBackoff() {
+        Notification notification = notification(1L, 0);
+        when(repository.lockDue(eq("EMAIL"), any(Instant.class), anyInt())).thenReturn(List.of(notification));
+        doThrow(new NotificationDeliveryException("smtp timeout", true)).when(emailSender).send(notification);
+
+        worker().poll();
+        runScheduled();
+
+        ArgumentCaptor<Instant> retryAt = ArgumentCaptor.forClass(Instant.class);
+        verify(repository).completeAttempt(eq(1L), eq(1), eq(NotificationStatus.PENDING), retryAt.capture(), eq("smtp timeout"));
+        assertThat(retryAt.getValue()).isBetween(NOW.plusSeconds(15), NOW.plusSeconds(30));
+    }
+
+    @Test
+    void lastAttemptOrPermanentErrorShouldMarkNotificationFailed() {
+        Notification exhausted = notification(1L, 2);
+        Notification rejected = notification(2L, 0);
+        when(repository.lockDue(eq("EMAIL"), any(Instant.class), anyInt())).thenReturn(List.of(exhausted, rejected));
+        doThrow(new NotificationDeliveryException("smtp timeout", true)).when(emailSender).send(exhausted);
+        doThrow(new NotificationDeliveryException("dirección inválida", false)).when(emailSender).send(rejected);
+
+        worker().poll();
+        runScheduled();
+
+        verify(repository).completeAttempt(eq(1L), eq(3), eq(NotificationStatus.FAILED), isNull(), eq("smtp timeout"));
+        verify(repository).completeAttempt(eq(2L), eq(1), eq(NotificationStatus.FAILED), isNull(), eq("dirección inválida"));
+    }
+
+    @Test
+    void pollShouldNotClaimBeyondChannelConcurrency() {
+        when(repository.lockDue(eq("EMAIL"), any(Instant.class), eq(2)))
+                .thenReturn(List.of(notification(1L, 0), notification(2L, 0)))
+                .thenReturn(List.of());
+        NotificationDeliveryWorker worker = worker();
+
+        worker.poll();
+        worker.poll();
+        verify(repository, times(1)).lockDue(eq("EMAIL"), any(Instant.class), anyInt());
+
+        runScheduled();
+        worker.poll();
+        verify(repository, times(2)).lockDue(eq("EMAIL"), any(Instant.class), eq(2));
+    }
+
+    @Test
+    void pollShouldRespectChannelRateLimit() {
+        properties.limitsFor(NotificationChannel.EMAIL).setConcurrency(100);
+        when(repository.lockDue(eq("EMAIL"), any(Instant.class), anyInt()))
+                .thenAnswer(invocation -> {
+                    int limit = invocation.getArgument(2);
+                    List<Notification> due = new ArrayList<>();
+                    for (int i = 0; i < limit; i++) {
+                        due.add(notification((long) i, 0));
+                    }
+                    return due;
+                });
+        NotificationDeliveryWorker worker = worker();
+
+        worker.poll();
+        runScheduled();
+        worker.poll();
+        now += 400;
+        worker.poll();
+
+        verify(repository).lockDue(eq("EMAIL"), any(Instant.class), eq(5));
+        verify(repository).lockDue(eq("EMAIL"), any(Instant.class), eq(2));
+    }
+
+    @Test
+    void workerShouldRefuseToStartWithoutSenders() {
+        assertThatThrownBy(() -> new NotificationDeliveryWorker(repository, List.of(), transactionManager, properties,
+                executor, clock))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("notifications.delivery.enabled");
+    }
+
+    @Test
+    void disabledWorkerShouldNotClaimAnything() {
+        properties.setEnabled(false);
+
+        new NotificationDeliveryWorker(repository, List.of(), transactionManager, properties, executor, clock).poll();
+
+        verifyNoInteractions(repository);
+    }
+
+    private NotificationDeliveryWorker worker() {
+        return new NotificationDeliveryWorker(repository, List.of(emailSender), transactionManager, properties,
+                executor, clock);
+    }
+
+    private void runScheduled() {
+        while (!scheduled.isEmpty()) {
+            scheduled.remove(0).run();
+        }
+    }
+
+    private Notification notification(Long id, int attempts) {
+        Notification notification = new Notification(id, "user@example.com", NotificationChannel.EMAIL, "Recordatorio",
+                "Tienes un pago pendiente", NotificationStatus.PENDING, NOW);
+        notification.setAttempts(attempts);
+        notification.setNextAttemptAt(NOW);
+        return notification;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.notification.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.notification.domain.Notification;
+import com.example.notification.domain.NotificationChannel;
+import com.example.notification.domain.NotificationOutboxEvent;
+import com.example.notification.domain.NotificationStatus;
+import com.example.notification.repository.NotificationOutboxRepository;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationOutboxRelayTest {
+
+    private static final Instant NOW = Instant.parse("2024-06-01T10:00:05Z");
+
+    @Mock
+    private NotificationOutboxRepository outboxRepository;
+
+    @Mock
+    private NotificationStreamService streamService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private NotificationOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new NotificationOutboxRelay(outboxRepository, streamService, new LocalStreamFanOut(streamService),
+                transactionManager, 2, Duration.ofHours(24), Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void relayShouldNumberEventsInPublishOrderAndMarkThemAsPublished() {
+        NotificationOutboxEvent first = event(10L, "alice@example.com");
+        NotificationOutboxEvent second = event(11L, "bob@example.com");
+        NotificationOutboxEvent third = event(12L, "alice@example.com");
+        when(outboxRepository.lockLastPublishSeq()).thenReturn(40L, 42L);
+        when(outboxRepository.findUnpublishedIds(2))
+                .thenReturn(List.of(10L, 11L))
+                .thenReturn(List.of(12L));
+        when(outboxRepository.findAllWithNotification(List.of(10L, 11L))).thenReturn(List.of(first, second));
+        when(outboxRepository.findAllWithNotification(List.of(12L))).thenReturn(List.of(third));
+
+        relay.relay();
+
+        verify(outboxRepository, times(2)).findUnpublishedIds(2);
+        InOrder inOrder = inOrder(streamService);
+        inOrder.verify(streamService).send(41L, first.getNotification());
+        inOrder.verify(streamService).send(42L, second.getNotification());
+        inOrder.verify(streamService).send(43L, third.getNotification());
+        verify(outboxRepository).updateLastPublishSeq(42L);
+        verify(outboxRepository).updateLastPublishSeq(43L);
+        assertThat(List.of(first, second, third))
+                .extracting(NotificationOutboxEvent::getPublishSeq, NotificationOutboxEvent::getPublishedAt)
+                .containsExactly(tuple(41L, NOW), tuple(42L, NOW), tuple(43L, NOW));
+    }
+
+    @Test
+    void relayShouldStopWhenNothingIsPending() {
+        when(outboxRepository.lockLastPublishSeq()).thenReturn(40L);
+        when(outboxRepository.findUnpublishedIds(2)).thenReturn(List.of());
+
+        relay.relay();
+
+        verify(outboxRepository, times(1)).findUnpublishedIds(2);
+        verify(streamService, never()).send(any(), any());
+    }
+
+    @Test
+    void relayShouldSkipTheTickWhileAnotherRelayHoldsTheLock() {
+        when(outboxRepository.lockLastPublishSeq()).thenReturn(null);
+
+        relay.relay();
+
+        verify(outboxRepository, never()).findUnpublishedIds(2);
+        verify(streamService, never()).send(any(), any());
+    }
+
+    private NotificationOutboxEvent event(Long id, String recipient) {
+        Notification notification = new Notification(id, recipient, NotificationChannel.PUSH, "Recordatorio",
+                "Tienes un pago pendiente", NotificationStatus.PENDING, Instant.parse("2024-06-01T10:00:00Z"));
+        NotificationOutboxEvent event = new NotificationOutboxEvent(notification, notification.getCreatedAt());
+        ReflectionTestUtils.setField(event, "id", id);
+        return event;
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.notification.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import com.example.notification.domain.Notification;
+import com.example.notification.domain.NotificationChannel;
+import com.example.notification.domain.NotificationOutboxEvent;
+import com.example.notification.domain.NotificationStatus;
+import com.example.notification.repository.NotificationOutboxRepository;
+import com.example.notification.repository.NotificationRepository;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class NotificationOutboxRelayTransactionTest {
+
+    private static final Instant NOW = Instant.parse("2024-06-01T10:00:05Z");
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private NotificationOutboxRepository outboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            outboxRepository.deleteAllInBatch();
+            notificationRepository.deleteAllInBatch();
+        });
+    }
+
+    @Test
+    void relayShouldPublishInsideTheTransactionThatClaimsTheEvents() {
+        Long eventId = saveEvent();
+        List<Boolean> transactionActive = new ArrayList<>();
+        List<OffsetDateTime> seenInside = new ArrayList<>();
+        List<OffsetDateTime> seenOutside = new ArrayList<>();
+        StreamFanOut recording = events -> {
+            transactionActive.add(TransactionSynchronizationManager.isActualTransactionActive());
+            seenInside.add(publishedAt(eventId));
+            seenOutside.add(CompletableFuture.supplyAsync(() -> publishedAt(eventId)).join());
+        };
+
+        relay(recording).relay();
+
+        assertThat(transactionActive).containsExactly(true);
+        assertThat(seenInside).containsExactly(NOW.atOffset(ZoneOffset.UTC));
+        // Another connection still sees the event as unpublished while the fan-out runs.
+        assertThat(seenOutside).containsExactly((OffsetDateTime) null);
+        assertThat(publishedAt(eventId)).isEqualTo(NOW.atOffset(ZoneOffset.UTC));
+    }
+
+    @Test
+    void relayShouldLeaveEventsUnpublishedWhenTheFanOutFails() {
+        Long eventId = saveEvent();
+        StreamFanOut failing = events -> {
+            throw new IllegalStateException("NOTIFY failed");
+        };
+
+        assertThatThrownBy(() -> relay(failing).relay()).isInstanceOf(IllegalStateException.class);
+
+        assertThat(publishedAt(eventId)).isNull();
+        assertThat(outboxRepository.findUnpublishedIds(10)).containsExactly(eventId);
+    }
+
+    @Test
+    void relayShouldNumberEventsInCommitOrderSoALateCommitIsNotSkipped() throws Exception {
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Long> late = CompletableFuture.supplyAsync(() ->
+                new TransactionTemplate(transactionManager).execute(status -> {
+                    Long eventId = insertEvent();
+                    inserted.countDown();
+                    await(release);
+                    return eventId;
+                }));
+        assertThat(inserted.await(5, TimeUnit.SECONDS)).isTrue();
+        Long early = saveEvent();
+        NotificationOutboxRelay relay = relay(events -> {
+        });
+
+        relay.relay();
+        release.countDown();
+        Long lateId = late.get(5, TimeUnit.SECONDS);
+        relay.relay();
+
+        assertThat(lateId).isLessThan(early);
+        // A client that already received the early event resumes after its sequence number and still gets the late one.
+        assertThat(outboxRepository.findPublishedAfter(publishSeq(early), PageRequest.of(0, 10)))
+                .extracting(NotificationOutboxEvent::getId)
+                .containsExactly(lateId);
+    }
+
+    @Test
+    void secondRelayShouldSkipItsTickWhileAnotherOneIsPublishing() {
+        List<Long> eventIds = List.of(saveEvent(), saveEvent(), saveEvent());
+        List<Long> publishedBySecond = new ArrayList<>();
+        NotificationOutboxRelay second = relay(1, events -> events.forEach(event -> publishedBySecond.add(event.getId())));
+        List<Long> publishedByFirst = new ArrayList<>();
+        NotificationOutboxRelay first = relay(1, events -> {
+            events.forEach(event -> publishedByFirst.add(event.getId()));
+            if (publishedByFirst.size() == 1) {
+                // Without the relay lock the second relay would claim and commit the next batch before this one.
+                CompletableFuture.runAsync(second::relay).orTimeout(5, TimeUnit.SECONDS).join();
+            }
+        });
+
+        first.relay();
+
+        assertThat(publishedBySecond).isEmpty();
+        assertThat(publishedByFirst).containsExactlyElementsOf(eventIds);
+        List<Long> publishSeqs = eventIds.stream().map(this::publishSeq).toList();
+        assertThat(publishSeqs).isSorted();
+        assertThat(publishSeqs.get(2) - publishSeqs.get(0)).isEqualTo(2);
+        assertThat(outboxRepository.findPublishedAfter(publishSeqs.get(0), PageRequest.of(0, 10)))
+                .extracting(NotificationOutboxEvent::getId)
+                .containsExactly(eventIds.get(1), eventIds.get(2));
+    }
+
+    private NotificationOutboxRelay relay(StreamFanOut fanOut) {
+        return relay(10, fanOut);
+    }
+
+    private NotificationOutboxRelay relay(int batchSize, StreamFanOut fanOut) {
+        return new NotificationOutboxRelay(outboxRepository, mock(NotificationStreamService.class), fanOut,
+                transactionManager, batchSize, Duration.ofHours(24), Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private Long saveEvent() {
+        return new TransactionTemplate(transactionManager).execute(status -> insertEvent());
+    }
+
+    private Long insertEvent() {
+        Notification notification = notificationRepository.save(new Notification(null, "relay@example.com",
+                NotificationChannel.PUSH, "Recordatorio", "Tienes un pago pendiente", NotificationStatus.PENDING,
+                NOW.minusSeconds(5)));
+        return outboxRepository.saveAndFlush(new NotificationOutboxEvent(notification, notification.getCreatedAt())).getId();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Long publishSeq(Long eventId) {
+        return jdbcTemplate.queryForObject("SELECT publish_seq FROM notification_outbox WHERE id = ?", Long.class, eventId);
+    }
+
+    private OffsetDateTime publishedAt(Long eventId) {
+        return jdbcTemplate.queryForObject("SELECT published_at FROM notification_outbox WHERE id = ?",
+                OffsetDateTime.class, eventId);
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.notification.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.example.notification.config.NotificationRetentionProperties;
+import com.example.notification.domain.Notification;
+import com.example.notification.domain.NotificationChannel;
+import com.example.notification.domain.NotificationKey;
+import com.example.notification.domain.NotificationStatus;
+import com.example.notification.repository.NotificationKeyRepository;
+import com.example.notification.repository.NotificationRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@SpringBootTest
+class NotificationRetentionJobTest {
+
+    private static final Instant NOW = Instant.parse("2024-09-15T03:30:00Z");
+    private static final String RECIPIENT = "retention@example.com";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NotificationRepository repository;
+
+    @Autowired
+    private NotificationKeyRepository keyRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @TempDir
+    private Path archiveDir;
+
+    @Test
+    void runShouldArchiveOldSentNotificationsAndKeepTheRest() throws IOException {
+        Long mayA = save(NotificationStatus.SENT, "2024-05-20T10:00:00Z");
+        Long mayB = save(NotificationStatus.SENT, "2024-05-21T10:00:00Z");
+        Long mayC = save(NotificationStatus.SENT, "2024-05-22T10:00:00Z");
+        Long failed = save(NotificationStatus.FAILED, "2024-05-20T10:00:00Z");
+        Long recent = save(NotificationStatus.SENT, "2024-09-01T10:00:00Z");
+        keyRepository.save(new NotificationKey("idempotency|" + RECIPIENT + "|old", failed, NOW.minus(Duration.ofDays(8))));
+        keyRepository.save(new NotificationKey("idempotency|" + RECIPIENT + "|new", recent, NOW.minus(Duration.ofDays(1))));
+
+        NotificationRetentionProperties properties = new NotificationRetentionProperties();
+        properties.setArchiveDir(archiveDir);
+        properties.setBatchSize(2);
+        new NotificationRetentionJob(jdbcTemplate, keyRepository, transactionManager, objectMapper, properties,
+                Clock.fixed(NOW, ZoneOffset.UTC)).run();
+
+        assertThat(repository.findAllById(List.of(mayA, mayB, mayC, failed, recent)))
+                .extracting(Notification::getId)
+                .containsExactlyInAnyOrder(failed, recent);
+        assertThat(keyRepository.existsById("idempotency|" + RECIPIENT + "|old")).isFalse();
+        assertThat(keyRepository.existsById("idempotency|" + RECIPIENT + "|new")).isTrue();
+
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(archiveDir)) {
+            files = listing.toList();
+        }
+        assertThat(files).singleElement()
+                .satisfies(file -> assertThat(file.getFileName().toString()).startsWith("notifications-2024-05-"));
+        List<JsonNode> archived = readArchive(files.get(0));
+        assertThat(archived).extracting(node -> node.get("id").asLong()).containsExactly(mayA, mayB, mayC);
+        assertThat(archived.get(0).get("recipient").asText()).isEqualTo(RECIPIENT);
+    }
+
+    @Test
+    void runShouldSkipWhenAnotherReplicaHoldsTheLock() throws Exception {
+        DataSource dataSource = mock(DataSource.class, RETURNS_DEEP_STUBS);
+        when(dataSource.getConnection().getMetaData().getDatabaseProductName()).thenReturn("PostgreSQL");
+        JdbcTemplate postgres = mock(JdbcTemplate.class);
+        when(postgres.getDataSource()).thenReturn(dataSource);
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet result = mock(ResultSet.class);
+        when(connection.prepareStatement("SELECT pg_try_advisory_xact_lock(?)")).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(result);
+        when(result.next()).thenReturn(true);
+        when(result.getBoolean(1)).thenReturn(false);
+        when(postgres.execute(any(ConnectionCallback.class)))
+                .thenAnswer(invocation -> invocation.<ConnectionCallback<?>>getArgument(0).doInConnection(connection));
+        NotificationKeyRepository keys = mock(NotificationKeyRepository.class);
+
+        new NotificationRetentionJob(postgres, keys, transactionManager, objectMapper,
+                new NotificationRetentionProperties(), Clock.fixed(NOW, ZoneOffset.UTC)).run();
+
+        verify(postgres, never()).execute(anyString());
+        verify(postgres, never()).queryForObject(anyString(), any(Class.class), any(Object[].class));
+        verifyNoInteractions(keys);
+        verify(connection).rollback();
+    }
+
+    private Long save(NotificationStatus status, String createdAt) {
+        return repository.save(new Notification(null, RECIPIENT, NotificationChannel.EMAIL, "Recordatorio",
+                "Tienes un pago pendiente", status, Instant.parse(createdAt))).getId();
+    }
+
+    private List<JsonNode> readArchive(Path file) throws IOException {
+        List<JsonNode> nodes = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                nodes.add(objectMapper.readTree(line));
+            }
+        }
+        return nodes;
+    }
+}
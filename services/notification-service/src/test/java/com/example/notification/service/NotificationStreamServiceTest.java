@@ -0,0 +1,305 @@
+package com.example.notification.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.example.notification.config.NotificationStreamProperties;
+import com.example.notification.domain.Notification;
+import com.example.notification.domain.NotificationChannel;
+import com.example.notification.domain.NotificationStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationStreamServiceTest {
+
+    @Mock
+    private ExecutorService executor;
+
+    @Mock
+    private Clock clock;
+
+    private final List<Runnable> scheduled = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        lenient().doAnswer(invocation -> scheduled.add(invocation.getArgument(0))).when(executor).execute(any(Runnable.class));
+        lenient().when(clock.millis()).thenAnswer(invocation -> now);
+    }
+
+    @Test
+    void sendShouldOnlyReachStreamsOfTheRecipient() {
+        NotificationStreamService service = service(8, StreamOverflowPolicy.DROP_OLDEST, 16);
+        RecordingEmitter alice = new RecordingEmitter();
+        RecordingEmitter bob = new RecordingEmitter();
+        service.subscribe("alice@example.com", null, alice);
+        service.subscribe("bob@example.com", null, bob);
+
+        service.send(1L, notification(1L, "alice@example.com"));
+        runScheduled();
+
+        assertThat(alice.delivered).extracting(Notification::getId).containsExactly(1L);
+        assertThat(bob.delivered).isEmpty();
+    }
+
+    @Test
+    void sendShouldQueueWhileADrainIsPendingAndDropOldestOnOverflow() {
+        NotificationStreamService service = service(2, StreamOverflowPolicy.DROP_OLDEST, 16);
+        RecordingEmitter emitter = new RecordingEmitter();
+        service.subscribe("alice@example.com", null, emitter);
+
+        for (long id = 1; id <= 3; id++) {
+            service.send(id, notification(id, "alice@example.com"));
+        }
+        verify(executor, times(1)).execute(any(Runnable.class));
+        runScheduled();
+
+        assertThat(emitter.delivered).extracting(Notification::getId).containsExactly(2L, 3L);
+        assertThat(service.activeStreams()).isEqualTo(1);
+    }
+
+    @Test
+    void overflowShouldDisconnectWhenPolicyIsDisconnect() {
+        NotificationStreamService service = service(1, StreamOverflowPolicy.DISCONNECT, 16);
+        RecordingEmitter emitter = new RecordingEmitter();
+        service.subscribe("alice@example.com", null, emitter);
+
+        service.send(1L, notification(1L, "alice@example.com"));
+        service.send(2L, notification(2L, "alice@example.com"));
+        runScheduled();
+
+        assertThat(emitter.delivered).isEmpty();
+        assertThat(service.activeStreams()).isZero();
+    }
+
+    @Test
+    void failedWriteShouldRemoveTheStream() {
+        NotificationStreamService service = service(8, StreamOverflowPolicy.DROP_OLDEST, 16);
+        RecordingEmitter broken = new RecordingEmitter();
+        broken.failing = true;
+        service.subscribe("alice@example.com", null, broken);
+
+        service.send(1L, notification(1L, "alice@example.com"));
+        runScheduled();
+        service.send(2L, notification(2L, "alice@example.com"));
+
+        assertThat(service.activeStreams()).isZero();
+        verify(executor, times(1)).execute(any(Runnable.class));
+    }
+
+    @Test
+    void reconnectWithLastEventIdShouldReplayOnlyTheGap() {
+        NotificationStreamService service = service(8, StreamOverflowPolicy.DROP_OLDEST, 16);
+        for (long id = 1; id <= 4; id++) {
+            service.send(id, notification(id, "alice@example.com"));
+        }
+        service.send(5L, notification(5L, "bob@example.com"));
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        service.subscribe("alice@example.com", 2L, emitter);
+        service.send(6L, notification(6L, "alice@example.com"));
+        runScheduled();
+
+        assertThat(emitter.delivered).extracting(Notification::getId).containsExactly(3L, 4L, 6L);
+        assertThat(emitter.resets).isZero();
+    }
+
+    @Test
+    void reconnectBeyondTheReplayWindowShouldAskForAReset() {
+        NotificationStreamService service = service(8, StreamOverflowPolicy.DROP_OLDEST, 2);
+        for (long id = 1; id <= 4; id++) {
+            service.send(id, notification(id, "alice@example.com"));
+        }
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        service.subscribe("alice@example.com", 1L, emitter);
+        runScheduled();
+
+        assertThat(emitter.delivered).isEmpty();
+        assertThat(emitter.resets).isEqualTo(1);
+    }
+
+    @Test
+    void reconnectWithAnIdFromBeforeARestartShouldAskForAReset() {
+        NotificationStreamService service = service(8, StreamOverflowPolicy.DROP_OLDEST, 16);
+        service.resumeAfter(40L);
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        service.subscribe("alice@example.com", 35L, emitter);
+        runScheduled();
+
+        assertThat(emitter.resets).isEqualTo(1);
+    }
+
+    @Test
+    void heartbeatShouldKeepHealthyStreamsAlive() {
+        NotificationStreamService service = service(8, StreamOverflowPolicy.DROP_OLDEST, 16);
+        RecordingEmitter emitter = new RecordingEmitter();
+        service.subscribe("alice@example.com", null, emitter);
+
+        service.heartbeat();
+        runScheduled();
+
+        assertThat(emitter.heartbeats).isEqualTo(1);
+        assertThat(service.activeStreams()).isEqualTo(1);
+    }
+
+    @Test
+    void heartbeatShouldReapStreamsThatStoppedAcceptingWrites() {
+        NotificationStreamService service = service(8, StreamOverflowPolicy.DROP_OLDEST, 16);
+        service.subscribe("alice@example.com", null, new RecordingEmitter());
+        service.send(1L, notification(1L, "alice@example.com"));
+
+        now += Duration.ofSeconds(46).toMillis();
+        service.heartbeat();
+
+        assertThat(service.activeStreams()).isZero();
+        assertThat(meterRegistry.get("notifications.stream.reaped").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("notifications.stream.active").gauge().value()).isZero();
+    }
+
+    @Test
+    void reapShouldNotWaitForASendThatIsBlockedOnTheEmitter() throws Exception {
+        ExecutorService workers = Executors.newSingleThreadExecutor();
+        try {
+            NotificationStreamService service = new NotificationStreamService(
+                    properties(8, StreamOverflowPolicy.DROP_OLDEST, 16), workers, meterRegistry, clock);
+            BlockingEmitter emitter = new BlockingEmitter();
+            service.subscribe("alice@example.com", null, emitter);
+            service.send(1L, notification(1L, "alice@example.com"));
+            assertThat(emitter.sending.await(5, TimeUnit.SECONDS)).isTrue();
+
+            now += Duration.ofSeconds(46).toMillis();
+            assertTimeoutPreemptively(Duration.ofSeconds(2), service::heartbeat);
+
+            assertThat(service.activeStreams()).isZero();
+            assertThat(meterRegistry.get("notifications.stream.reaped").counter().count()).isEqualTo(1.0);
+            assertThat(emitter.completed.getCount()).isEqualTo(1);
+
+            emitter.release.countDown();
+            assertThat(emitter.completed.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(emitter.completedOn).startsWith("pool-");
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    @Test
+    void subscribeShouldRejectStreamsBeyondTheNodeLimit() {
+        NotificationStreamProperties properties = properties(8, StreamOverflowPolicy.DROP_OLDEST, 16);
+        properties.setMaxStreams(1);
+        NotificationStreamService service = new NotificationStreamService(properties, executor, meterRegistry, clock);
+        service.subscribe("alice@example.com", null, new RecordingEmitter());
+
+        assertThatThrownBy(() -> service.subscribe("bob@example.com", null, new RecordingEmitter()))
+                .isInstanceOf(StreamLimitExceededException.class);
+        assertThat(service.activeStreams()).isEqualTo(1);
+    }
+
+    private NotificationStreamService service(int queueCapacity, StreamOverflowPolicy overflowPolicy, int replaySize) {
+        return new NotificationStreamService(properties(queueCapacity, overflowPolicy, replaySize), executor, meterRegistry, clock);
+    }
+
+    private NotificationStreamProperties properties(int queueCapacity, StreamOverflowPolicy overflowPolicy, int replaySize) {
+        NotificationStreamProperties properties = new NotificationStreamProperties();
+        properties.setQueueCapacity(queueCapacity);
+        properties.setOverflowPolicy(overflowPolicy);
+        properties.setReplaySize(replaySize);
+        return properties;
+    }
+
+    private void runScheduled() {
+        while (!scheduled.isEmpty()) {
+            scheduled.remove(0).run();
+        }
+    }
+
+    private Notification notification(Long id, String recipient) {
+        return new Notification(id, recipient, NotificationChannel.PUSH, "Recordatorio", "Tienes un pago pendiente",
+                NotificationStatus.PENDING, Instant.parse("2024-06-01T10:00:00Z"));
+    }
+
+    private static final class BlockingEmitter extends SseEmitter {
+
+        // Stands in for the emitter's write lock, which send and complete share.
+        private final ReentrantLock writeLock = new ReentrantLock();
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private volatile String completedOn;
+
+        @Override
+        public void send(Set<DataWithMediaType> items) throws IOException {
+            writeLock.lock();
+            try {
+                sending.countDown();
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        @Override
+        public void complete() {
+            writeLock.lock();
+            try {
+                completedOn = Thread.currentThread().getName();
+                completed.countDown();
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final List<Notification> delivered = new ArrayList<>();
+        private int resets;
+        private int heartbeats;
+        private boolean failing;
+
+        @Override
+        public void send(Set<DataWithMediaType> items) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            for (DataWithMediaType item : items) {
+                if (item.getData() instanceof Notification notification) {
+                    delivered.add(notification);
+                } else if ("replay-unavailable".equals(item.getData())) {
+                    resets++;
+                } else if (item.getData() instanceof String text && text.startsWith(":heartbeat")) {
+                    heartbeats++;
+                }
+            }
+        }
+    }
+}
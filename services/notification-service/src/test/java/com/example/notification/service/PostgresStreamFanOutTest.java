@@ -0,0 +1,72 @@
+package com.example.notification.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.notification.domain.Notification;
+import com.example.notification.domain.NotificationChannel;
+import com.example.notification.domain.NotificationOutboxEvent;
+import com.example.notification.domain.NotificationStatus;
+import com.example.notification.repository.NotificationOutboxRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class PostgresStreamFanOutTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private NotificationOutboxRepository outboxRepository;
+
+    @Mock
+    private NotificationStreamService streamService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void deliverShouldCatchUpInPublishOrderFromTheLastSeenSequence() {
+        PostgresStreamFanOut fanOut = new PostgresStreamFanOut(dataSource, outboxRepository, streamService,
+                transactionManager, 2, Duration.ofSeconds(1));
+        NotificationOutboxEvent first = event(7L, 9L);
+        NotificationOutboxEvent second = event(3L, 10L);
+        NotificationOutboxEvent third = event(5L, 11L);
+        when(outboxRepository.findLastPublishSeq()).thenReturn(8L);
+        when(outboxRepository.findPublishedAfter(8L, PageRequest.of(0, 2))).thenReturn(List.of(first, second));
+        when(outboxRepository.findPublishedAfter(10L, PageRequest.of(0, 2))).thenReturn(List.of(third));
+
+        fanOut.catchUp();
+        fanOut.deliver(List.of("10", "11"));
+        fanOut.deliver(List.of("11"));
+
+        InOrder inOrder = inOrder(streamService);
+        inOrder.verify(streamService).send(9L, first.getNotification());
+        inOrder.verify(streamService).send(10L, second.getNotification());
+        inOrder.verify(streamService).send(11L, third.getNotification());
+        verify(outboxRepository, times(2)).findPublishedAfter(any(), any());
+    }
+
+    private NotificationOutboxEvent event(Long id, Long publishSeq) {
+        Notification notification = new Notification(id, "alice@example.com", NotificationChannel.PUSH, "Recordatorio",
+                "Tienes un pago pendiente", NotificationStatus.PENDING, Instant.parse("2024-06-01T10:00:00Z"));
+        NotificationOutboxEvent event = new NotificationOutboxEvent(notification, notification.getCreatedAt());
+        ReflectionTestUtils.setField(event, "id", id);
+        event.setPublishSeq(publishSeq);
+        return event;
+    }
+}
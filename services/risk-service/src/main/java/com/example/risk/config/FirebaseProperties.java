@@ -1,5 +1,6 @@
 package com.example.risk.config;
 
+import java.time.Duration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 @ConfigurationProperties(prefix = "firebase")
@@ -7,6 +8,7 @@ public class FirebaseProperties {
 
     private String credentials;
     private String projectId;
+    private TokenCache tokenCache = new TokenCache();
 
     public String getCredentials() {
         return credentials;
@@ -23,4 +25,43 @@ public class FirebaseProperties {
     public void setProjectId(String projectId) {
         this.projectId = projectId;
     }
+
+    public TokenCache getTokenCache() {
+        return tokenCache;
+    }
+
+    public void setTokenCache(TokenCache tokenCache) {
+        this.tokenCache = tokenCache;
+    }
+
+    public static class TokenCache {
+
+        private long maxSize = 10_000;
+        private boolean checkRevoked;
+        private Duration revocationCheckInterval = Duration.ofMinutes(5);
+
+        public long getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(long maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public boolean isCheckRevoked() {
+            return checkRevoked;
+        }
+
+        public void setCheckRevoked(boolean checkRevoked) {
+            this.checkRevoked = checkRevoked;
+        }
+
+        public Duration getRevocationCheckInterval() {
+            return revocationCheckInterval;
+        }
+
+        public void setRevocationCheckInterval(Duration revocationCheckInterval) {
+            this.revocationCheckInterval = revocationCheckInterval;
+        }
+    }
 }
@@ -0,0 +1,17 @@
+package com.example.risk.config;
+
+import com.example.risk.repository.InsightsCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(InsightsCacheProperties.class)
+public class InsightsCacheConfig {
+
+    @Bean
+    public InsightsCache insightsCache(InsightsCacheProperties properties, MeterRegistry meterRegistry) {
+        return new InsightsCache(properties, meterRegistry);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.risk.domain;
+
+import java.time.Instant;
+import java.util.Map;
+
+public record FxRates(String base, Map<String, Double> rates, Instant fetchedAt, boolean stale) {
+
+    public static final FxRates EMPTY = new FxRates("USD", Map.of(), null, true);
+
+    public FxRates {
+        rates = Map.copyOf(rates);
+    }
+
+    public FxRates asStale(boolean stale) {
+        return stale == this.stale ? this : new FxRates(base, rates, fetchedAt, stale);
+    }
+
+    public double factor(String from, String to) {
+        if (from.equals(to)) {
+            return 1.0;
+        }
+        double fromRate = rateOf(from);
+        double toRate = rateOf(to);
+        if (!(fromRate > 0) || !(toRate > 0)) {
+            return Double.NaN;
+        }
+        return toRate / fromRate;
+    }
+
+    private double rateOf(String currency) {
+        if (currency.equals(base)) {
+            return 1.0;
+        }
+        Double rate = rates.get(currency);
+        return rate == null ? Double.NaN : rate;
+    }
+}
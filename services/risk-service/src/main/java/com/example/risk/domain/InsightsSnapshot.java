@@ -5,12 +5,17 @@ public class InsightsSnapshot {
     private final MonthlySummary monthlySummary;
     private final CategoriesSummary categoriesSummary;
     private final RiskInsight riskInsight;
+    private final String currency;
+    private final long ledgerVersion;
     private final boolean refreshed;
 
-    public InsightsSnapshot(MonthlySummary monthlySummary, CategoriesSummary categoriesSummary, RiskInsight riskInsight, boolean refreshed) {
+    public InsightsSnapshot(MonthlySummary monthlySummary, CategoriesSummary categoriesSummary, RiskInsight riskInsight, String currency,
+                            long ledgerVersion, boolean refreshed) {
         this.monthlySummary = monthlySummary;
         this.categoriesSummary = categoriesSummary;
         this.riskInsight = riskInsight;
+        this.currency = currency;
+        this.ledgerVersion = ledgerVersion;
         this.refreshed = refreshed;
     }
 
@@ -26,6 +31,14 @@ public class InsightsSnapshot {
         return riskInsight;
     }
 
+    public String getCurrency() {
+        return currency;
+    }
+
+    public long getLedgerVersion() {
+        return ledgerVersion;
+    }
+
     public boolean isRefreshed() {
         return refreshed;
     }
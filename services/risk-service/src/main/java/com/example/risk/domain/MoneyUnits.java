@@ -0,0 +1,57 @@
+package com.example.risk.domain;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+
+public final class MoneyUnits {
+
+    public static final int DEFAULT_SCALE = 2;
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L
+    };
+
+    private MoneyUnits() {
+    }
+
+    public static int scaleFor(String currency) {
+        if (currency == null || currency.isBlank()) {
+            return DEFAULT_SCALE;
+        }
+        try {
+            int digits = Currency.getInstance(currency).getDefaultFractionDigits();
+            return digits < 0 ? DEFAULT_SCALE : digits;
+        } catch (IllegalArgumentException e) {
+            return DEFAULT_SCALE;
+        }
+    }
+
+    public static long toMinor(BigDecimal amount, int scale) {
+        return amount.setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static long fromLegacyDouble(double amount, int scale) {
+        return toMinor(BigDecimal.valueOf(amount), scale);
+    }
+
+    public static BigDecimal fromMinor(long minor, int scale) {
+        return BigDecimal.valueOf(minor, scale);
+    }
+
+    public static long rescale(long minor, int fromScale, int toScale) {
+        if (fromScale == toScale) {
+            return minor;
+        }
+        if (toScale > fromScale) {
+            return Math.multiplyExact(minor, POWERS_OF_TEN[toScale - fromScale]);
+        }
+        long divisor = POWERS_OF_TEN[fromScale - toScale];
+        long quotient = minor / divisor;
+        long remainder = minor % divisor;
+        if (Math.abs(remainder) * 2 >= divisor) {
+            quotient += Long.signum(minor);
+        }
+        return quotient;
+    }
+}
@@ -7,15 +7,19 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import java.time.Instant;
 
 @Entity
-@Table(name = "risk_cases")
+@Table(name = "risk_cases", uniqueConstraints = @UniqueConstraint(name = "uq_risk_cases_alert_key",
+        columnNames = {"user_id", "category", "period"}))
 public class RiskCase {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "risk_cases_seq")
+    @SequenceGenerator(name = "risk_cases_seq", sequenceName = "risk_cases_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 64)
@@ -34,6 +38,12 @@ public class RiskCase {
     @Column(nullable = false)
     private Instant createdAt;
 
+    @Column(length = 100)
+    private String category;
+
+    @Column(length = 7)
+    private String period;
+
     public RiskCase() {
     }
 
@@ -93,4 +103,20 @@ public class RiskCase {
     public void setCreatedAt(Instant createdAt) {
         this.createdAt = createdAt;
     }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public String getPeriod() {
+        return period;
+    }
+
+    public void setPeriod(String period) {
+        this.period = period;
+    }
 }
@@ -13,6 +13,8 @@ public class Transaction {
     private String category;
     private TransactionType type;
     private BigDecimal amount;
+    private long amountMinor;
+    private int amountScale = MoneyUnits.DEFAULT_SCALE;
     private LocalDate eventDate;
     private TransactionStatus status;
     private String currency;
@@ -71,7 +73,27 @@ public class Transaction {
     }
 
     public void setAmount(BigDecimal amount) {
-        this.amount = amount;
+        if (amount == null) {
+            this.amount = null;
+            this.amountMinor = 0L;
+            return;
+        }
+        int scale = MoneyUnits.scaleFor(currency);
+        setAmountMinor(MoneyUnits.toMinor(amount, scale), scale);
+    }
+
+    public long getAmountMinor() {
+        return amountMinor;
+    }
+
+    public int getAmountScale() {
+        return amountScale;
+    }
+
+    public void setAmountMinor(long amountMinor, int amountScale) {
+        this.amountMinor = amountMinor;
+        this.amountScale = amountScale;
+        this.amount = MoneyUnits.fromMinor(amountMinor, amountScale);
     }
 
     public LocalDate getEventDate() {
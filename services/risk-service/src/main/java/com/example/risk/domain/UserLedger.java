@@ -0,0 +1,8 @@
+package com.example.risk.domain;
+
+import java.util.Optional;
+
+public record UserLedger(long version, Optional<String> reportingCurrency) {
+
+    public static final UserLedger EMPTY = new UserLedger(0L, Optional.empty());
+}
@@ -0,0 +1,55 @@
+package com.example.risk.repository;
+
+import com.example.risk.config.InsightsCacheProperties;
+import com.example.risk.domain.InsightsSnapshot;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+// Holds snapshots only; callers check them against users/{uid}.ledgerVersion, read on every request.
+public class InsightsCache {
+
+    private final Cache<String, InsightsSnapshot> snapshots;
+    private final Duration ttl;
+
+    public InsightsCache(InsightsCacheProperties properties, MeterRegistry meterRegistry) {
+        this.ttl = properties.getTtl();
+        this.snapshots = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxWeight())
+                .weigher((String userId, InsightsSnapshot snapshot) -> weightOf(snapshot))
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, snapshots, "insightsSnapshots");
+    }
+
+    public Duration ttl() {
+        return ttl;
+    }
+
+    public Optional<InsightsSnapshot> get(String userId, Function<String, Optional<InsightsSnapshot>> loader) {
+        return Optional.ofNullable(snapshots.get(userId, key -> loader.apply(key).orElse(null)));
+    }
+
+    public void put(String userId, InsightsSnapshot snapshot) {
+        snapshots.put(userId, new InsightsSnapshot(snapshot.getMonthlySummary(), snapshot.getCategoriesSummary(),
+                snapshot.getRiskInsight(), snapshot.getCurrency(), snapshot.getLedgerVersion(), false));
+    }
+
+    public void invalidate(String userId) {
+        snapshots.invalidate(userId);
+    }
+
+    public CacheStats stats() {
+        return snapshots.stats();
+    }
+
+    private static int weightOf(InsightsSnapshot snapshot) {
+        return 1 + snapshot.getCategoriesSummary().getExpenses().size() + snapshot.getCategoriesSummary().getIncomes().size();
+    }
+}
@@ -1,11 +1,16 @@
 package com.example.risk.repository;
 
 import com.example.risk.domain.CategoriesSummary;
+import com.example.risk.domain.InsightsSnapshot;
+import com.example.risk.domain.MoneyUnits;
 import com.example.risk.domain.MonthlySummary;
 import com.example.risk.domain.RiskInsight;
+import com.example.risk.domain.UserLedger;
+import com.google.cloud.firestore.CollectionReference;
 import com.google.cloud.firestore.DocumentReference;
 import com.google.cloud.firestore.DocumentSnapshot;
 import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.WriteBatch;
 import com.google.cloud.firestore.WriteResult;
 
 import org.slf4j.Logger;
@@ -15,6 +20,8 @@ import org.springframework.stereotype.Repository;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
@@ -27,6 +34,9 @@ public class InsightsRepository {
     private static final String MONTHLY_DOCUMENT = "monthlySummary";
     private static final String CATEGORIES_DOCUMENT = "categoriesSummary";
     private static final String RISK_DOCUMENT = "risk";
+    private static final String LEGACY_CURRENCY = "USD";
+    private static final String LEDGER_VERSION = "ledgerVersion";
+    private static final long UNKNOWN_VERSION = -1L;
 
     private final Firestore firestore;
 
@@ -34,60 +44,32 @@ public class InsightsRepository {
         this.firestore = firestore;
     }
 
-    public Optional<MonthlySummary> findMonthlySummary(String userId) {
-        return readDocument(userId, MONTHLY_DOCUMENT).map(this::toMonthlySummary);
-    }
-
-    public Optional<CategoriesSummary> findCategoriesSummary(String userId) {
-        return readDocument(userId, CATEGORIES_DOCUMENT).map(this::toCategoriesSummary);
-    }
-
-    public Optional<RiskInsight> findRiskInsight(String userId) {
-        return readDocument(userId, RISK_DOCUMENT).map(this::toRiskInsight);
-    }
-
-    public void saveMonthlySummary(String userId, MonthlySummary summary) {
-        saveDocument(userId, MONTHLY_DOCUMENT, Map.of(
-                "totalIncome", summary.getTotalIncome().doubleValue(),
-                "totalExpense", summary.getTotalExpense().doubleValue(),
-                "netBalance", summary.getNetBalance().doubleValue(),
-                "updatedAt", com.google.cloud.Timestamp.ofTimeSecondsAndNanos(
-                        summary.getUpdatedAt().getEpochSecond(),
-                        summary.getUpdatedAt().getNano()
-                )
-        ));
-    }
-
-    public void saveCategoriesSummary(String userId, CategoriesSummary summary) {
-        saveDocument(userId, CATEGORIES_DOCUMENT, Map.of(
-                "expenses", summary.getExpenses(),
-                "incomes", summary.getIncomes(),
-                "updatedAt", com.google.cloud.Timestamp.ofTimeSecondsAndNanos(
-                        summary.getUpdatedAt().getEpochSecond(),
-                        summary.getUpdatedAt().getNano()
-                )
-        ));
-    }
-
-    public void saveRiskInsight(String userId, RiskInsight riskInsight) {
-        saveDocument(userId, RISK_DOCUMENT, Map.of(
-                "score", riskInsight.getScore(),
-                "level", riskInsight.getLevel(),
-                "message", riskInsight.getMessage(),
-                "updatedAt", com.google.cloud.Timestamp.ofTimeSecondsAndNanos(
-                        riskInsight.getUpdatedAt().getEpochSecond(),
-                        riskInsight.getUpdatedAt().getNano()
-                )
-        ));
-    }
-
-    private Optional<DocumentSnapshot> readDocument(String userId, String documentId) {
+    public Optional<InsightsSnapshot> findSnapshot(String userId) {
+        CollectionReference insights = userInsights(userId);
         try {
-            DocumentSnapshot snapshot = userInsights(userId).document(documentId).get().get();
-            if (!snapshot.exists()) {
+            List<DocumentSnapshot> documents = firestore.getAll(
+                    insights.document(MONTHLY_DOCUMENT),
+                    insights.document(CATEGORIES_DOCUMENT),
+                    insights.document(RISK_DOCUMENT)
+            ).get();
+            Map<String, DocumentSnapshot> byId = new HashMap<>();
+            for (DocumentSnapshot document : documents) {
+                if (document.exists()) {
+                    byId.put(document.getId(), document);
+                }
+            }
+            if (byId.size() < 3) {
                 return Optional.empty();
             }
-            return Optional.of(snapshot);
+            DocumentSnapshot monthly = byId.get(MONTHLY_DOCUMENT);
+            return Optional.of(new InsightsSnapshot(
+                    toMonthlySummary(monthly),
+                    toCategoriesSummary(byId.get(CATEGORIES_DOCUMENT)),
+                    toRiskInsight(byId.get(RISK_DOCUMENT)),
+                    currencyOf(monthly),
+                    ledgerVersionOf(monthly),
+                    false
+            ));
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new IllegalStateException("Interrupted while reading insights", e);
@@ -96,11 +78,15 @@ public class InsightsRepository {
         }
     }
 
-    private void saveDocument(String userId, String documentId, Map<String, Object> payload) {
+    public void saveSnapshot(String userId, InsightsSnapshot snapshot) {
+        CollectionReference insights = userInsights(userId);
+        WriteBatch batch = firestore.batch();
+        batch.set(insights.document(MONTHLY_DOCUMENT), toDocument(snapshot.getMonthlySummary(), snapshot.getCurrency(), snapshot.getLedgerVersion()));
+        batch.set(insights.document(CATEGORIES_DOCUMENT), toDocument(snapshot.getCategoriesSummary()));
+        batch.set(insights.document(RISK_DOCUMENT), toDocument(snapshot.getRiskInsight()));
         try {
-            DocumentReference reference = userInsights(userId).document(documentId);
-            WriteResult result = reference.set(payload).get();
-            log.debug("Persisted insight {} for user {} at {}", documentId, userId, result.getUpdateTime());
+            List<WriteResult> results = batch.commit().get();
+            log.debug("Persisted insights for user {} at {}", userId, results.get(0).getUpdateTime());
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new IllegalStateException("Interrupted while saving insights", e);
@@ -109,50 +95,150 @@ public class InsightsRepository {
         }
     }
 
+    public UserLedger findUserLedger(String userId) {
+        try {
+            DocumentSnapshot user = userDocument(userId).get().get();
+            return user.exists() ? toUserLedger(user) : UserLedger.EMPTY;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading user ledger", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error reading user ledger from Firestore", e);
+        }
+    }
+
+    private static long ledgerVersionOf(DocumentSnapshot monthly) {
+        return Optional.ofNullable(monthly.getLong(LEDGER_VERSION)).orElse(UNKNOWN_VERSION);
+    }
+
+    private static String currencyOf(DocumentSnapshot monthly) {
+        return Optional.ofNullable(monthly.getString("currency")).orElse(LEGACY_CURRENCY);
+    }
+
+    private static UserLedger toUserLedger(DocumentSnapshot user) {
+        long version = Optional.ofNullable(user.getLong(LEDGER_VERSION)).orElse(0L);
+        Optional<String> currency = Optional.ofNullable(user.getString("reportingCurrency"))
+                .filter(code -> code.matches("[A-Z]{3}"));
+        return new UserLedger(version, currency);
+    }
+
+    private Map<String, Object> toDocument(MonthlySummary summary, String currency, long ledgerVersion) {
+        return Map.ofEntries(
+                Map.entry("totalIncome", summary.getTotalIncome().doubleValue()),
+                Map.entry("totalExpense", summary.getTotalExpense().doubleValue()),
+                Map.entry("netBalance", summary.getNetBalance().doubleValue()),
+                Map.entry("totalIncomeMinor", MoneyUnits.toMinor(summary.getTotalIncome(), MoneyUnits.DEFAULT_SCALE)),
+                Map.entry("totalExpenseMinor", MoneyUnits.toMinor(summary.getTotalExpense(), MoneyUnits.DEFAULT_SCALE)),
+                Map.entry("netBalanceMinor", MoneyUnits.toMinor(summary.getNetBalance(), MoneyUnits.DEFAULT_SCALE)),
+                Map.entry("scale", MoneyUnits.DEFAULT_SCALE),
+                Map.entry("currency", currency),
+                Map.entry(LEDGER_VERSION, ledgerVersion),
+                Map.entry("updatedAt", toTimestamp(summary.getUpdatedAt()))
+        );
+    }
+
+    private Map<String, Object> toDocument(CategoriesSummary summary) {
+        return Map.of(
+                "expenses", toLegacyAmounts(summary.getExpenses()),
+                "incomes", toLegacyAmounts(summary.getIncomes()),
+                "expensesMinor", toMinorAmounts(summary.getExpenses()),
+                "incomesMinor", toMinorAmounts(summary.getIncomes()),
+                "scale", MoneyUnits.DEFAULT_SCALE,
+                "updatedAt", toTimestamp(summary.getUpdatedAt())
+        );
+    }
+
+    private Map<String, Double> toLegacyAmounts(Map<String, BigDecimal> amounts) {
+        Map<String, Double> legacy = new HashMap<>();
+        amounts.forEach((category, amount) -> legacy.put(category, amount.doubleValue()));
+        return legacy;
+    }
+
+    private Map<String, Long> toMinorAmounts(Map<String, BigDecimal> amounts) {
+        Map<String, Long> minor = new HashMap<>();
+        amounts.forEach((category, amount) -> minor.put(category, MoneyUnits.toMinor(amount, MoneyUnits.DEFAULT_SCALE)));
+        return minor;
+    }
+
+    private Map<String, Object> toDocument(RiskInsight riskInsight) {
+        return Map.of(
+                "score", riskInsight.getScore(),
+                "level", riskInsight.getLevel(),
+                "message", riskInsight.getMessage(),
+                "updatedAt", toTimestamp(riskInsight.getUpdatedAt())
+        );
+    }
+
+    private com.google.cloud.Timestamp toTimestamp(Instant instant) {
+        return com.google.cloud.Timestamp.ofTimeSecondsAndNanos(instant.getEpochSecond(), instant.getNano());
+    }
+
     private MonthlySummary toMonthlySummary(DocumentSnapshot snapshot) {
-        double income = snapshot.getDouble("totalIncome") != null ? snapshot.getDouble("totalIncome") : 0.0;
-        double expense = snapshot.getDouble("totalExpense") != null ? snapshot.getDouble("totalExpense") : 0.0;
-        double net = snapshot.getDouble("netBalance") != null ? snapshot.getDouble("netBalance") : income - expense;
-        Instant updatedAt = Optional.ofNullable(snapshot.getTimestamp("updatedAt"))
-                .map(ts -> Instant.ofEpochSecond(ts.getSeconds(), ts.getNanos()))
-                .orElse(Instant.EPOCH);
-        return new MonthlySummary(BigDecimal.valueOf(income), BigDecimal.valueOf(expense), BigDecimal.valueOf(net), updatedAt);
+        int scale = scaleOf(snapshot);
+        BigDecimal income = readAmount(snapshot, "totalIncome", scale).orElse(BigDecimal.ZERO);
+        BigDecimal expense = readAmount(snapshot, "totalExpense", scale).orElse(BigDecimal.ZERO);
+        BigDecimal net = readAmount(snapshot, "netBalance", scale).orElse(income.subtract(expense));
+        return new MonthlySummary(income, expense, net, updatedAt(snapshot));
     }
 
-    @SuppressWarnings("unchecked")
     private CategoriesSummary toCategoriesSummary(DocumentSnapshot snapshot) {
-        Map<String, Double> expenses = snapshot.get("expenses", Map.class);
-        Map<String, Double> incomes = snapshot.get("incomes", Map.class);
-        Instant updatedAt = Optional.ofNullable(snapshot.getTimestamp("updatedAt"))
-                .map(ts -> Instant.ofEpochSecond(ts.getSeconds(), ts.getNanos()))
-                .orElse(Instant.EPOCH);
+        int scale = scaleOf(snapshot);
         return new CategoriesSummary(
-                convertToBigDecimalMap(expenses),
-                convertToBigDecimalMap(incomes),
-                updatedAt
+                readAmounts(snapshot, "expenses", scale),
+                readAmounts(snapshot, "incomes", scale),
+                updatedAt(snapshot)
         );
     }
 
-    private Map<String, BigDecimal> convertToBigDecimalMap(Map<String, Double> values) {
-        if (values == null) {
+    private Optional<BigDecimal> readAmount(DocumentSnapshot snapshot, String field, int scale) {
+        Long minor = snapshot.getLong(field + "Minor");
+        if (minor != null) {
+            return Optional.of(MoneyUnits.fromMinor(minor, scale));
+        }
+        return Optional.ofNullable(snapshot.getDouble(field))
+                .map(legacy -> MoneyUnits.fromMinor(MoneyUnits.fromLegacyDouble(legacy, scale), scale));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, BigDecimal> readAmounts(DocumentSnapshot snapshot, String field, int scale) {
+        Map<String, Number> minor = snapshot.get(field + "Minor", Map.class);
+        Map<String, BigDecimal> amounts = new HashMap<>();
+        if (minor != null) {
+            minor.forEach((category, value) -> amounts.put(category, MoneyUnits.fromMinor(value.longValue(), scale)));
+            return amounts;
+        }
+        Map<String, Number> legacy = snapshot.get(field, Map.class);
+        if (legacy == null) {
             return Collections.emptyMap();
         }
-        return values.entrySet()
-                .stream()
-                .collect(java.util.stream.Collectors.toMap(Map.Entry::getKey, entry -> BigDecimal.valueOf(entry.getValue())));
+        legacy.forEach((category, value) -> amounts.put(category,
+                MoneyUnits.fromMinor(MoneyUnits.fromLegacyDouble(value.doubleValue(), scale), scale)));
+        return amounts;
+    }
+
+    private int scaleOf(DocumentSnapshot snapshot) {
+        Long scale = snapshot.getLong("scale");
+        return scale != null ? scale.intValue() : MoneyUnits.DEFAULT_SCALE;
+    }
+
+    private Instant updatedAt(DocumentSnapshot snapshot) {
+        return Optional.ofNullable(snapshot.getTimestamp("updatedAt"))
+                .map(ts -> Instant.ofEpochSecond(ts.getSeconds(), ts.getNanos()))
+                .orElse(Instant.EPOCH);
     }
 
     private RiskInsight toRiskInsight(DocumentSnapshot snapshot) {
         long score = Optional.ofNullable(snapshot.getLong("score")).orElse(0L);
         String level = Optional.ofNullable(snapshot.getString("level")).orElse("LOW");
         String message = Optional.ofNullable(snapshot.getString("message")).orElse("");
-        Instant updatedAt = Optional.ofNullable(snapshot.getTimestamp("updatedAt"))
-                .map(ts -> Instant.ofEpochSecond(ts.getSeconds(), ts.getNanos()))
-                .orElse(Instant.EPOCH);
-        return new RiskInsight((int) score, level, message, updatedAt);
+        return new RiskInsight((int) score, level, message, updatedAt(snapshot));
+    }
+
+    private DocumentReference userDocument(String userId) {
+        return firestore.collection("users").document(userId);
     }
 
-    private com.google.cloud.firestore.CollectionReference userInsights(String userId) {
-        return firestore.collection("users").document(userId).collection(COLLECTION);
+    private CollectionReference userInsights(String userId) {
+        return userDocument(userId).collection(COLLECTION);
     }
 }
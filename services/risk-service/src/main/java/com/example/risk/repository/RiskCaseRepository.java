@@ -7,9 +7,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface RiskCaseRepository extends JpaRepository<RiskCase, Long> {
-
-    Optional<RiskCase> findTopByUserIdAndReason(String userId, String reason);
+public interface RiskCaseRepository extends JpaRepository<RiskCase, Long>, RiskCaseUpsertRepository {
 
     List<RiskCase> findAllByUserId(String userId);
 
@@ -0,0 +1,8 @@
+package com.example.risk.repository;
+
+import com.example.risk.domain.RiskCase;
+
+public interface RiskCaseUpsertRepository {
+
+    int upsertByAlertKey(RiskCase riskCase);
+}
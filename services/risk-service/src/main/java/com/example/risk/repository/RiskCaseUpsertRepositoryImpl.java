@@ -0,0 +1,67 @@
+package com.example.risk.repository;
+
+import com.example.risk.domain.RiskCase;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.sql.DatabaseMetaData;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+class RiskCaseUpsertRepositoryImpl implements RiskCaseUpsertRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(RiskCaseUpsertRepositoryImpl.class);
+    private static final String POSTGRES_UPSERT = """
+            INSERT INTO risk_cases (id, user_id, category, period, score, status, reason, created_at)
+            VALUES (nextval('risk_cases_seq'), :userId, :category, :period, :score, :status, :reason, :createdAt)
+            ON CONFLICT (user_id, category, period) DO UPDATE
+            SET score = EXCLUDED.score, status = EXCLUDED.status, reason = EXCLUDED.reason
+            """;
+    private static final String MERGE_UPSERT = """
+            MERGE INTO risk_cases t
+            USING (SELECT CAST(:userId AS VARCHAR(64)) AS user_id,
+                          CAST(:category AS VARCHAR(100)) AS category,
+                          CAST(:period AS VARCHAR(7)) AS period) s
+            ON t.user_id = s.user_id AND t.category = s.category AND t.period = s.period
+            WHEN MATCHED THEN UPDATE SET score = :score, status = :status, reason = :reason
+            WHEN NOT MATCHED THEN INSERT (id, user_id, category, period, score, status, reason, created_at)
+                VALUES (NEXT VALUE FOR risk_cases_seq, s.user_id, s.category, s.period, :score, :status, :reason, :createdAt)
+            """;
+    // Unique indexes treat NULLs as distinct, so alerts without a category share this key instead of inserting each time.
+    private static final String NO_CATEGORY = "";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final String upsert;
+
+    RiskCaseUpsertRepositoryImpl(DataSource dataSource) {
+        // MERGE is not safe against concurrent inserts on PostgreSQL, so it only backs H2.
+        this.upsert = isPostgres(dataSource) ? POSTGRES_UPSERT : MERGE_UPSERT;
+    }
+
+    @Override
+    public int upsertByAlertKey(RiskCase riskCase) {
+        return entityManager.createNativeQuery(upsert)
+                .setParameter("userId", riskCase.getUserId())
+                .setParameter("category", riskCase.getCategory() != null ? riskCase.getCategory() : NO_CATEGORY)
+                .setParameter("period", riskCase.getPeriod())
+                .setParameter("score", riskCase.getScore())
+                .setParameter("status", riskCase.getStatus().name())
+                .setParameter("reason", riskCase.getReason())
+                .setParameter("createdAt", riskCase.getCreatedAt())
+                .executeUpdate();
+    }
+
+    private static boolean isPostgres(DataSource dataSource) {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            return "PostgreSQL".equals(product);
+        } catch (MetaDataAccessException e) {
+            log.warn("Could not detect the database vendor. Using MERGE for risk case upserts.", e);
+            return false;
+        }
+    }
+}
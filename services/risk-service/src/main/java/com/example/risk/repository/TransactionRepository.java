@@ -1,5 +1,6 @@
 package com.example.risk.repository;
 
+import com.example.risk.domain.MoneyUnits;
 import com.example.risk.domain.Transaction;
 import com.example.risk.domain.TransactionStatus;
 import com.example.risk.domain.TransactionType;
@@ -11,11 +12,11 @@ import com.google.cloud.firestore.Firestore;
 import com.google.cloud.firestore.Query;
 import com.google.cloud.firestore.QueryDocumentSnapshot;
 import com.google.cloud.firestore.WriteResult;
-import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -48,25 +49,6 @@ public class TransactionRepository {
         }
     }
 
-    public Optional<Instant> findLatestUpdate(String userId) {
-        try {
-            Query query = userTransactions(userId)
-                    .orderBy("createdAt", Query.Direction.DESCENDING)
-                    .limit(1);
-            List<QueryDocumentSnapshot> documents = query.get().get().getDocuments();
-            if (documents.isEmpty()) {
-                return Optional.empty();
-            }
-            Timestamp createdAt = documents.get(0).getTimestamp("createdAt");
-            return Optional.ofNullable(createdAt).map(Timestamp::toInstant);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new IllegalStateException("Interrupted while reading transactions", e);
-        } catch (ExecutionException e) {
-            throw new IllegalStateException("Error reading transactions from Firestore", e);
-        }
-    }
-
     public Optional<Transaction> findById(String userId, String id) {
         try {
             DocumentSnapshot snapshot = userTransactions(userId).document(id).get().get();
@@ -153,9 +135,14 @@ public class TransactionRepository {
             transaction.setType(TransactionType.valueOf(type));
         }
 
+        Long amountMinor = document.getLong("amountMinor");
+        Long amountScale = document.getLong("amountScale");
         Double amount = document.getDouble("amount");
-        if (amount != null) {
-            transaction.setAmount(BigDecimal.valueOf(amount));
+        if (amountMinor != null) {
+            transaction.setAmountMinor(amountMinor, amountScale != null ? amountScale.intValue() : MoneyUnits.DEFAULT_SCALE);
+        } else if (amount != null) {
+            int scale = MoneyUnits.scaleFor(transaction.getCurrency());
+            transaction.setAmountMinor(MoneyUnits.fromLegacyDouble(amount, scale), scale);
         }
 
         String status = document.getString("status");
@@ -165,24 +152,29 @@ public class TransactionRepository {
 
         Timestamp createdAt = document.getTimestamp("createdAt");
         if (createdAt != null) {
-            transaction.setCreatedAt(createdAt.toInstant());
+            transaction.setCreatedAt(Instant.ofEpochSecond(createdAt.getSeconds(), createdAt.getNanos()));
         }
 
         return transaction;
     }
 
     private Map<String, Object> toDocument(String userId, Transaction transaction) {
-        return Map.of(
-                "userId", userId,
-                "title", transaction.getTitle(),
-                "description", transaction.getDescription(),
-                "category", transaction.getCategory(),
-                "type", transaction.getType().name(),
-                "amount", transaction.getAmount().doubleValue(),
-                "eventDate", transaction.getEventDate().format(DATE_FORMATTER),
-                "status", transaction.getStatus().name(),
-                "currency", transaction.getCurrency(),
-                "createdAt", Timestamp.from(transaction.getCreatedAt())
-        );
+        Map<String, Object> document = new HashMap<>();
+        document.put("userId", userId);
+        document.put("title", transaction.getTitle());
+        document.put("description", transaction.getDescription());
+        document.put("category", transaction.getCategory());
+        document.put("type", transaction.getType().name());
+        document.put("amount", transaction.getAmount().doubleValue());
+        document.put("amountMinor", transaction.getAmountMinor());
+        document.put("amountScale", transaction.getAmountScale());
+        document.put("eventDate", transaction.getEventDate().format(DATE_FORMATTER));
+        document.put("status", transaction.getStatus().name());
+        document.put("currency", transaction.getCurrency());
+        document.put("createdAt", Timestamp.ofTimeSecondsAndNanos(
+                transaction.getCreatedAt().getEpochSecond(),
+                transaction.getCreatedAt().getNano()
+        ));
+        return document;
     }
 }
@@ -0,0 +1,197 @@
+package com.example.risk.service;
+
+import com.example.risk.domain.FxRates;
+import com.example.risk.domain.MoneyUnits;
+import com.example.risk.domain.Transaction;
+import com.example.risk.domain.TransactionType;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+public final class InsightsAggregator {
+
+    private static final int SCALE = MoneyUnits.DEFAULT_SCALE;
+    private static final String LEGACY_CURRENCY = "USD";
+    private static final int BUCKET_SLOTS = 32;
+
+    private final String currency;
+    private long incomeMinor;
+    private long expenseMinor;
+    private final Map<String, long[]> expensesByCategory = new HashMap<>();
+    private final Map<String, long[]> incomesByCategory = new HashMap<>();
+    private final Set<String> unconverted = new TreeSet<>();
+
+    private InsightsAggregator(String currency) {
+        this.currency = currency;
+    }
+
+    public static InsightsAggregator of(List<Transaction> transactions, String reportingCurrency, FxRates rates) {
+        // Sum in each transaction's own currency first; FX is applied once per bucket afterwards.
+        // Buckets sit in a small table indexed by the currency's cached hash, so interleaved
+        // currencies cost a lookup instead of a mispredicted branch per transaction.
+        Bucket[] table = new Bucket[BUCKET_SLOTS];
+        List<Bucket> buckets = new ArrayList<>(4);
+        for (int i = 0, size = transactions.size(); i < size; i++) {
+            Transaction transaction = transactions.get(i);
+            if (transaction.getAmount() == null) {
+                continue;
+            }
+            String currency = currencyOf(transaction);
+            int slot = currency.hashCode() & (BUCKET_SLOTS - 1);
+            Bucket bucket = table[slot];
+            if (bucket == null || !bucket.currency.equals(currency)) {
+                bucket = bucketFor(buckets, currency);
+                table[slot] = bucket;
+            }
+            bucket.add(transaction);
+        }
+
+        InsightsAggregator aggregator = new InsightsAggregator(reportingCurrency);
+        for (Bucket source : buckets) {
+            double factor = rates.factor(source.currency, reportingCurrency);
+            if (Double.isNaN(factor)) {
+                aggregator.unconverted.add(source.currency);
+                continue;
+            }
+            aggregator.merge(source, factor);
+        }
+        return aggregator;
+    }
+
+    public String currency() {
+        return currency;
+    }
+
+    public Set<String> unconvertedCurrencies() {
+        return unconverted;
+    }
+
+    public long incomeMinor() {
+        return incomeMinor;
+    }
+
+    public long expenseMinor() {
+        return expenseMinor;
+    }
+
+    public BigDecimal income() {
+        return MoneyUnits.fromMinor(incomeMinor, SCALE);
+    }
+
+    public BigDecimal expense() {
+        return MoneyUnits.fromMinor(expenseMinor, SCALE);
+    }
+
+    public BigDecimal netBalance() {
+        return MoneyUnits.fromMinor(incomeMinor - expenseMinor, SCALE);
+    }
+
+    public Map<String, BigDecimal> expensesByCategory() {
+        return toAmounts(expensesByCategory);
+    }
+
+    public Map<String, BigDecimal> incomesByCategory() {
+        return toAmounts(incomesByCategory);
+    }
+
+    private void merge(Bucket source, double factor) {
+        Conversion conversion = new Conversion(source.scale, factor);
+        incomeMinor += conversion.apply(source.incomeMinor);
+        expenseMinor += conversion.apply(source.expenseMinor);
+        source.expensesByCategory.forEach((category, total) ->
+                addToCategory(expensesByCategory, category, conversion.apply(total[0])));
+        source.incomesByCategory.forEach((category, total) ->
+                addToCategory(incomesByCategory, category, conversion.apply(total[0])));
+    }
+
+    private static Bucket bucketFor(List<Bucket> buckets, String currency) {
+        for (int i = 0, size = buckets.size(); i < size; i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket.currency.equals(currency)) {
+                return bucket;
+            }
+        }
+        Bucket bucket = new Bucket(currency);
+        buckets.add(bucket);
+        return bucket;
+    }
+
+    private static String currencyOf(Transaction transaction) {
+        String currency = transaction.getCurrency();
+        return currency == null || currency.isBlank() ? LEGACY_CURRENCY : currency;
+    }
+
+    private static void addToCategory(Map<String, long[]> categories, String category, long amount) {
+        if (category == null || category.isBlank()) {
+            return;
+        }
+        long[] total = categories.get(category);
+        if (total == null) {
+            total = new long[1];
+            categories.put(category, total);
+        }
+        total[0] += amount;
+        if (total[0] == 0) {
+            categories.remove(category);
+        }
+    }
+
+    private static Map<String, BigDecimal> toAmounts(Map<String, long[]> minorByCategory) {
+        Map<String, BigDecimal> amounts = new HashMap<>();
+        minorByCategory.forEach((category, minor) -> amounts.put(category, MoneyUnits.fromMinor(minor[0], SCALE)));
+        return amounts;
+    }
+
+    private static final class Bucket {
+
+        private final String currency;
+        private final int scale;
+        private long incomeMinor;
+        private long expenseMinor;
+        private final Map<String, long[]> expensesByCategory = new HashMap<>();
+        private final Map<String, long[]> incomesByCategory = new HashMap<>();
+
+        private Bucket(String currency) {
+            this.currency = currency;
+            this.scale = MoneyUnits.scaleFor(currency);
+        }
+
+        private void add(Transaction transaction) {
+            long amount = transaction.getAmountScale() == scale
+                    ? transaction.getAmountMinor()
+                    : MoneyUnits.rescale(transaction.getAmountMinor(), transaction.getAmountScale(), scale);
+            TransactionType type = transaction.getType();
+            if (type == TransactionType.CREDIT) {
+                incomeMinor += amount;
+                addToCategory(incomesByCategory, transaction.getCategory(), amount);
+            } else if (type == TransactionType.DEBIT) {
+                expenseMinor += amount;
+                addToCategory(expensesByCategory, transaction.getCategory(), amount);
+            }
+        }
+    }
+
+    private static final class Conversion {
+
+        private final int scale;
+        private final boolean exact;
+        private final double multiplier;
+
+        private Conversion(int scale, double factor) {
+            this.scale = scale;
+            this.exact = factor == 1.0;
+            this.multiplier = factor * Math.pow(10, SCALE - scale);
+        }
+
+        private long apply(long minor) {
+            if (exact) {
+                return scale == SCALE ? minor : MoneyUnits.rescale(minor, scale, SCALE);
+            }
+            return Math.round(minor * multiplier);
+        }
+    }
+}
@@ -1,117 +1,107 @@
 package com.example.risk.service;
 
 import com.example.risk.domain.CategoriesSummary;
+import com.example.risk.domain.FxRates;
 import com.example.risk.domain.InsightsSnapshot;
 import com.example.risk.domain.MonthlySummary;
 import com.example.risk.domain.RiskInsight;
 import com.example.risk.domain.RiskStatus;
 import com.example.risk.domain.Transaction;
-import com.example.risk.domain.TransactionType;
+import com.example.risk.domain.UserLedger;
+import com.example.risk.repository.InsightsCache;
 import com.example.risk.repository.InsightsRepository;
 import com.example.risk.repository.TransactionRepository;
 import com.example.risk.web.dto.BudgetAlertResponse;
 import com.example.risk.web.dto.BudgetAlertWebhookRequest;
-import com.example.risk.web.dto.BudgetSnapshotRequest;
 import com.example.risk.web.dto.RiskCaseRequest;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.Clock;
-import java.time.Duration;
 import java.time.Instant;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
 public class InsightsService {
 
     private static final Logger log = LoggerFactory.getLogger(InsightsService.class);
-    private static final Duration CACHE_TTL = Duration.ofMinutes(30);
 
     private final InsightsRepository insightsRepository;
+    private final InsightsCache insightsCache;
     private final TransactionRepository transactionRepository;
     private final RiskCaseService riskCaseService;
     private final MarketDataClient marketDataClient;
+    private final String defaultCurrency;
     private final Clock clock;
 
-    public InsightsService(InsightsRepository insightsRepository, TransactionRepository transactionRepository, RiskCaseService riskCaseService, MarketDataClient marketDataClient) {
-        this(insightsRepository, transactionRepository, riskCaseService, marketDataClient, Clock.systemUTC());
+    @Autowired
+    public InsightsService(InsightsRepository insightsRepository, InsightsCache insightsCache, TransactionRepository transactionRepository,
+                           RiskCaseService riskCaseService, MarketDataClient marketDataClient,
+                           @Value("${insights.reporting-currency:USD}") String defaultCurrency) {
+        this(insightsRepository, insightsCache, transactionRepository, riskCaseService, marketDataClient, defaultCurrency, Clock.systemUTC());
     }
 
-    InsightsService(InsightsRepository insightsRepository, TransactionRepository transactionRepository, RiskCaseService riskCaseService, MarketDataClient marketDataClient, Clock clock) {
+    InsightsService(InsightsRepository insightsRepository, InsightsCache insightsCache, TransactionRepository transactionRepository,
+                    RiskCaseService riskCaseService, MarketDataClient marketDataClient, String defaultCurrency, Clock clock) {
         this.insightsRepository = insightsRepository;
+        this.insightsCache = insightsCache;
         this.transactionRepository = transactionRepository;
         this.riskCaseService = riskCaseService;
         this.marketDataClient = marketDataClient;
+        this.defaultCurrency = defaultCurrency;
         this.clock = clock;
     }
 
     public InsightsSnapshot getInsights(String userId) {
-        Optional<MonthlySummary> monthlySummary = insightsRepository.findMonthlySummary(userId);
-        Optional<CategoriesSummary> categoriesSummary = insightsRepository.findCategoriesSummary(userId);
-        Optional<RiskInsight> riskInsight = insightsRepository.findRiskInsight(userId);
-
-        if (monthlySummary.isPresent() && categoriesSummary.isPresent() && riskInsight.isPresent()) {
-            Instant latestCacheUpdate = mostRecent(monthlySummary.get().getUpdatedAt(), categoriesSummary.get().getUpdatedAt(), riskInsight.get().getUpdatedAt());
-            Instant latestTransactionUpdate = transactionRepository.findLatestUpdate(userId).orElse(Instant.EPOCH);
-
-            if (!isStale(monthlySummary.get().getUpdatedAt(), categoriesSummary.get().getUpdatedAt(), riskInsight.get().getUpdatedAt())
-                    && !isDirty(latestTransactionUpdate, latestCacheUpdate)) {
-                return new InsightsSnapshot(monthlySummary.get(), categoriesSummary.get(), riskInsight.get(), false);
-            }
+        // One document read per request: freshness comes from the current ledger version, not from cached state.
+        UserLedger ledger = insightsRepository.findUserLedger(userId);
+        Optional<InsightsSnapshot> cached = insightsCache.get(userId, insightsRepository::findSnapshot);
+
+        if (cached.isPresent() && !isStale(cached.get()) && !isDirty(cached.get(), ledger)) {
+            return cached.get();
         }
 
-        log.debug("Insights cache missing or stale for user {}. Recalculating.", userId);
-        return recalculate(userId);
+        log.debug("Insights cache missing, stale or behind the ledger for user {}. Recalculating.", userId);
+        return recalculate(userId, ledger);
     }
 
     public InsightsSnapshot recalculate(String userId) {
+        return recalculate(userId, insightsRepository.findUserLedger(userId));
+    }
+
+    private InsightsSnapshot recalculate(String userId, UserLedger ledger) {
+        // The version is read before the transactions, so a concurrent write leaves the snapshot behind and dirty.
+        String currency = reportingCurrency(ledger);
         List<Transaction> transactions = transactionRepository.findAllForUser(userId);
         Instant now = clock.instant();
 
-        BigDecimal totalIncome = transactions.stream()
-                .filter(tx -> tx.getType() == TransactionType.CREDIT)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalExpense = transactions.stream()
-                .filter(tx -> tx.getType() == TransactionType.DEBIT)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        Map<String, BigDecimal> expensesByCategory = new HashMap<>();
-        Map<String, BigDecimal> incomesByCategory = new HashMap<>();
-        for (Transaction transaction : transactions) {
-            if (transaction.getCategory() == null || transaction.getCategory().isBlank()) {
-                continue;
-            }
-            if (transaction.getType() == TransactionType.CREDIT) {
-                incomesByCategory.merge(transaction.getCategory(), transaction.getAmount(), BigDecimal::add);
-            } else if (transaction.getType() == TransactionType.DEBIT) {
-                expensesByCategory.merge(transaction.getCategory(), transaction.getAmount(), BigDecimal::add);
-            }
-        }
+        InsightsAggregator totals = InsightsAggregator.of(transactions, currency, marketDataClient.latestRates());
 
         MonthlySummary monthlySummary = new MonthlySummary(
-                totalIncome,
-                totalExpense,
-                totalIncome.subtract(totalExpense),
+                totals.income(),
+                totals.expense(),
+                totals.netBalance(),
                 now
         );
 
-        CategoriesSummary categoriesSummary = new CategoriesSummary(expensesByCategory, incomesByCategory, now);
-        RiskInsight riskInsight = buildRiskInsight(totalIncome, totalExpense, now);
+        CategoriesSummary categoriesSummary = new CategoriesSummary(totals.expensesByCategory(), totals.incomesByCategory(), now);
+        RiskInsight riskInsight = buildRiskInsight(monthlySummary.getTotalIncome(), monthlySummary.getTotalExpense(), now);
 
-        insightsRepository.saveMonthlySummary(userId, monthlySummary);
-        insightsRepository.saveCategoriesSummary(userId, categoriesSummary);
-        insightsRepository.saveRiskInsight(userId, riskInsight);
-
-        return new InsightsSnapshot(monthlySummary, categoriesSummary, riskInsight, true);
+        InsightsSnapshot snapshot = new InsightsSnapshot(monthlySummary, categoriesSummary, riskInsight, currency, ledger.version(), true);
+        if (!totals.unconvertedCurrencies().isEmpty()) {
+            // Left out of the totals until rates arrive, so the partial result is not cached.
+            log.warn("No FX rate to {} for {} of user {}. Skipping the insights cache.", currency, totals.unconvertedCurrencies(), userId);
+            insightsCache.invalidate(userId);
+            return snapshot;
+        }
+        insightsRepository.saveSnapshot(userId, snapshot);
+        insightsCache.put(userId, snapshot);
+        return snapshot;
     }
 
     public BudgetAlertResponse handleBudgetAlert(BudgetAlertWebhookRequest request) {
@@ -121,12 +111,12 @@ public class InsightsService {
         double progress = resolveProgress(safeRequest.progress(), safeRequest.spent(), safeRequest.limit());
         String status = progress >= 1.0 ? "critical" : "warning";
 
-        riskCaseService.createOrUpdate(new RiskCaseRequest(
+        riskCaseService.upsertBudgetAlert(new RiskCaseRequest(
                 safeRequest.userId(),
                 Math.min(100, (int) Math.round(progress * 100)),
                 status.equals("critical") ? RiskStatus.OPEN : RiskStatus.REVIEWING,
                 "Presupuesto " + safeRequest.category() + " al " + (int) (progress * 100) + "%"
-        ));
+        ), safeRequest.category());
 
         return new BudgetAlertResponse(
                 safeRequest.category(),
@@ -137,21 +127,24 @@ public class InsightsService {
         );
     }
 
-    public Map<String, Double> fetchFxRates() {
-        return marketDataClient.fetchLatestRates();
+    public FxRates fetchFxRates() {
+        return marketDataClient.latestRates();
     }
 
-    private boolean isStale(Instant monthlyUpdated, Instant categoriesUpdated, Instant riskUpdated) {
-        Instant threshold = clock.instant().minus(CACHE_TTL);
-        return monthlyUpdated.isBefore(threshold) || categoriesUpdated.isBefore(threshold) || riskUpdated.isBefore(threshold);
+    private String reportingCurrency(UserLedger ledger) {
+        return ledger.reportingCurrency().orElse(defaultCurrency);
     }
 
-    private boolean isDirty(Instant latestTransactionUpdate, Instant latestCacheUpdate) {
-        return latestTransactionUpdate.isAfter(latestCacheUpdate);
+    private boolean isStale(InsightsSnapshot snapshot) {
+        Instant threshold = clock.instant().minus(insightsCache.ttl());
+        return snapshot.getMonthlySummary().getUpdatedAt().isBefore(threshold)
+                || snapshot.getCategoriesSummary().getUpdatedAt().isBefore(threshold)
+                || snapshot.getRiskInsight().getUpdatedAt().isBefore(threshold);
     }
 
-    private Instant mostRecent(Instant monthlyUpdated, Instant categoriesUpdated, Instant riskUpdated) {
-        return Stream.of(monthlyUpdated, categoriesUpdated, riskUpdated).max(Instant::compareTo).orElse(Instant.EPOCH);
+    private boolean isDirty(InsightsSnapshot snapshot, UserLedger ledger) {
+        return snapshot.getLedgerVersion() != ledger.version()
+                || !reportingCurrency(ledger).equals(snapshot.getCurrency());
     }
 
     private RiskInsight buildRiskInsight(BigDecimal totalIncome, BigDecimal totalExpense, Instant updatedAt) {
@@ -179,10 +172,6 @@ public class InsightsService {
         return new RiskInsight(score, level, message, updatedAt);
     }
 
-    private double resolveProgress(BudgetSnapshotRequest budget) {
-        return resolveProgress(budget.progress(), budget.spent(), budget.limit());
-    }
-
     private double resolveProgress(Double progress, Double spent, Double limit) {
         if (progress != null) {
             return progress;
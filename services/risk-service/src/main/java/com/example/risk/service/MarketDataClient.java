@@ -1,13 +1,25 @@
 package com.example.risk.service;
 
+import com.example.risk.config.MarketDataProperties;
+import com.example.risk.domain.FxRates;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
 import java.time.Duration;
-import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
@@ -19,32 +31,141 @@ public class MarketDataClient {
 
     private final RestTemplate restTemplate;
     private final String fxUrl;
+    private final String base;
+    private final Duration staleAfter;
+    private final CircuitBreaker circuitBreaker;
+    private final Executor executor;
+    private final Clock clock;
+    private final AtomicReference<FxRates> snapshot = new AtomicReference<>(FxRates.EMPTY);
+    private final AtomicReference<CompletableFuture<FxRates>> inFlight = new AtomicReference<>();
+    private final Counter refreshed;
+    private final Counter failed;
+    private final Counter rejected;
 
-    public MarketDataClient(
-            RestTemplateBuilder builder,
-            @Value("${external.fx.url:https://api.exchangerate.host/latest?base=USD&symbols=MXN,EUR}") String fxUrl
-    ) {
-        this.fxUrl = fxUrl;
-        this.restTemplate = builder
-                .setConnectTimeout(Duration.ofSeconds(3))
-                .setReadTimeout(Duration.ofSeconds(3))
-                .build();
+    @Autowired
+    public MarketDataClient(RestTemplateBuilder builder, MarketDataProperties properties, MeterRegistry meterRegistry) {
+        this(builder
+                        .setConnectTimeout(properties.getTimeout())
+                        .setReadTimeout(properties.getTimeout())
+                        .build(),
+                properties, meterRegistry, Clock.systemUTC(), newExecutor());
     }
 
-    public Map<String, Double> fetchLatestRates() {
+    MarketDataClient(RestTemplate restTemplate, MarketDataProperties properties, MeterRegistry meterRegistry, Clock clock,
+                     Executor executor) {
+        this.restTemplate = restTemplate;
+        this.fxUrl = properties.getUrl();
+        this.base = properties.getBase();
+        this.staleAfter = properties.getStaleAfter();
+        this.circuitBreaker = new CircuitBreaker(properties.getFailureThreshold(), properties.getOpenDuration(), clock);
+        this.executor = executor;
+        this.clock = clock;
+        this.refreshed = Counter.builder("fx.rates.refresh").tag("outcome", "success").register(meterRegistry);
+        this.failed = Counter.builder("fx.rates.refresh").tag("outcome", "failure").register(meterRegistry);
+        this.rejected = Counter.builder("fx.rates.refresh").tag("outcome", "rejected").register(meterRegistry);
+        Gauge.builder("fx.rates.age", this, MarketDataClient::ageSeconds).baseUnit("seconds").register(meterRegistry);
+        Gauge.builder("fx.rates.circuit.open", circuitBreaker,
+                breaker -> breaker.state() == CircuitBreaker.State.OPEN ? 1 : 0).register(meterRegistry);
+    }
+
+    public FxRates latestRates() {
+        FxRates current = snapshot.get();
+        if (current.fetchedAt() == null) {
+            refreshAsync();
+            return current;
+        }
+        return current.asStale(isStale(current));
+    }
+
+    @Scheduled(fixedDelayString = "${external.fx.refresh-interval-ms:60000}")
+    public void scheduledRefresh() {
+        refreshAsync();
+    }
+
+    public CompletableFuture<FxRates> refreshAsync() {
+        while (true) {
+            CompletableFuture<FxRates> running = inFlight.get();
+            if (running != null) {
+                return running;
+            }
+            CompletableFuture<FxRates> next = new CompletableFuture<>();
+            if (!inFlight.compareAndSet(null, next)) {
+                continue;
+            }
+            try {
+                executor.execute(() -> {
+                    try {
+                        FxRates result = refresh();
+                        inFlight.compareAndSet(next, null);
+                        next.complete(result);
+                    } catch (RuntimeException e) {
+                        inFlight.compareAndSet(next, null);
+                        next.completeExceptionally(e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                inFlight.compareAndSet(next, null);
+                next.complete(latestRates());
+            }
+            return next;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ExecutorService service) {
+            service.shutdownNow();
+        }
+    }
+
+    private FxRates refresh() {
+        if (!circuitBreaker.tryAcquire()) {
+            rejected.increment();
+            return latestRates();
+        }
         try {
-            ResponseEntity<RateResponse> response = restTemplate.getForEntity(fxUrl, RateResponse.class);
-            if (response.getStatusCode().is2xxSuccessful()
-                    && response.getBody() != null
-                    && response.getBody().rates() != null) {
-                return response.getBody().rates();
+            RateResponse body = restTemplate.getForObject(fxUrl, RateResponse.class);
+            if (body == null || body.rates() == null || body.rates().isEmpty()) {
+                throw new RestClientException("respuesta sin tasas");
+            }
+            // A malformed feed must count against the breaker instead of failing later in FxRates.
+            if (body.rates().values().stream().anyMatch(rate -> rate == null || !(rate > 0) || rate.isInfinite())) {
+                throw new RestClientException("respuesta con tasas inválidas");
             }
+            String rateBase = body.base() == null || body.base().isBlank() ? base : body.base();
+            FxRates fresh = new FxRates(rateBase, body.rates(), clock.instant(), false);
+            snapshot.set(fresh);
+            circuitBreaker.onSuccess();
+            refreshed.increment();
+            return fresh;
         } catch (RestClientException ex) {
+            circuitBreaker.onFailure();
+            failed.increment();
             log.warn("No se pudieron obtener tasas externas: {}", ex.getMessage());
+            return latestRates();
+        }
+    }
+
+    private boolean isStale(FxRates rates) {
+        return rates.fetchedAt() == null || rates.fetchedAt().plus(staleAfter).isBefore(clock.instant());
+    }
+
+    private double ageSeconds() {
+        FxRates current = snapshot.get();
+        if (current.fetchedAt() == null) {
+            return Double.NaN;
         }
-        return Collections.emptyMap();
+        return Duration.between(current.fetchedAt(), clock.instant()).toMillis() / 1000.0;
+    }
+
+    private static ExecutorService newExecutor() {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "fx-rates-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
-    public record RateResponse(Map<String, Double> rates) {
+    public record RateResponse(String base, Map<String, Double> rates) {
     }
 }
@@ -3,9 +3,13 @@ package com.example.risk.service;
 import com.example.risk.domain.RiskCase;
 import com.example.risk.repository.RiskCaseRepository;
 import com.example.risk.web.dto.RiskCaseRequest;
+import java.time.Clock;
 import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -13,9 +17,16 @@ import org.springframework.transaction.annotation.Transactional;
 public class RiskCaseService {
 
     private final RiskCaseRepository repository;
+    private final Clock clock;
 
+    @Autowired
     public RiskCaseService(RiskCaseRepository repository) {
+        this(repository, Clock.systemUTC());
+    }
+
+    RiskCaseService(RiskCaseRepository repository, Clock clock) {
         this.repository = repository;
+        this.clock = clock;
     }
 
     public List<RiskCase> findAll(String userId) {
@@ -27,15 +38,13 @@ public class RiskCaseService {
     }
 
     @Transactional
-    public RiskCase createOrUpdate(RiskCaseRequest request) {
-        return repository.findTopByUserIdAndReason(request.userId(), request.reason())
-                .map(existing -> {
-                    existing.setScore(request.score());
-                    existing.setStatus(request.status());
-                    existing.setReason(request.reason());
-                    return repository.save(existing);
-                })
-                .orElseGet(() -> create(request));
+    public void upsertBudgetAlert(RiskCaseRequest request, String category) {
+        // One case per user, category and month; later alerts overwrite score, status and reason.
+        Instant now = clock.instant();
+        RiskCase riskCase = new RiskCase(null, request.userId(), request.score(), request.status(), request.reason(), now);
+        riskCase.setCategory(category);
+        riskCase.setPeriod(YearMonth.from(now.atOffset(ZoneOffset.UTC)).toString());
+        repository.upsertByAlertKey(riskCase);
     }
 
     @Transactional
@@ -46,7 +55,7 @@ public class RiskCaseService {
                 request.score(),
                 request.status(),
                 request.reason(),
-                Instant.now()
+                clock.instant()
         );
         return repository.save(riskCase);
     }
@@ -4,11 +4,13 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 
 public record BudgetAlertWebhookRequest(
         @Schema(description = "Identificador del usuario que disparó la alerta", example = "mobile-user")
         String userId,
         @NotBlank
+        @Size(max = 100)
         @Schema(description = "Categoría afectada", example = "Alimentos")
         String category,
         @NotNull
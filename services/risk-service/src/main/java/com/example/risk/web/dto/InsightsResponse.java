@@ -8,13 +8,14 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.Map;
 
-public record InsightsResponse(MonthlySummaryDto monthlySummary, CategoriesSummaryDto categoriesSummary, RiskInsightDto risk, boolean refreshed) {
+public record InsightsResponse(MonthlySummaryDto monthlySummary, CategoriesSummaryDto categoriesSummary, RiskInsightDto risk, String currency, boolean refreshed) {
 
     public static InsightsResponse from(InsightsSnapshot snapshot) {
         return new InsightsResponse(
                 MonthlySummaryDto.from(snapshot.getMonthlySummary()),
                 CategoriesSummaryDto.from(snapshot.getCategoriesSummary()),
                 RiskInsightDto.from(snapshot.getRiskInsight()),
+                snapshot.getCurrency(),
                 snapshot.isRefreshed()
         );
     }
@@ -0,0 +1,33 @@
+package db.migration;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+public class V2__risk_case_sequence extends BaseJavaMigration {
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        createSequence(connection, "risk_cases", "risk_cases_seq");
+    }
+
+    // Hibernate's pooled optimizer hands out [value - increment + 1, value], so the first
+    // value must sit a whole block above the current max id to avoid reusing existing ids.
+    private static void createSequence(Connection connection, String table, String sequence) throws SQLException {
+        long start;
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            result.next();
+            start = result.getLong(1) + ALLOCATION_SIZE;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SEQUENCE " + sequence + " START WITH " + start + " INCREMENT BY " + ALLOCATION_SIZE);
+        }
+    }
+}
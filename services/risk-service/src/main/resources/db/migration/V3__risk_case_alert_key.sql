@@ -0,0 +1,4 @@
+ALTER TABLE risk_cases ADD COLUMN category VARCHAR(100);
+ALTER TABLE risk_cases ADD COLUMN period VARCHAR(7);
+
+CREATE UNIQUE INDEX uq_risk_cases_alert_key ON risk_cases (user_id, category, period);
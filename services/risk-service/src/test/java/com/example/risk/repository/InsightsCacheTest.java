@@ -0,0 +1,68 @@
+package com.example.risk.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.risk.config.InsightsCacheProperties;
+import com.example.risk.domain.CategoriesSummary;
+import com.example.risk.domain.InsightsSnapshot;
+import com.example.risk.domain.MonthlySummary;
+import com.example.risk.domain.RiskInsight;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class InsightsCacheTest {
+
+    private static final String USER_ID = "user-123";
+    private static final Instant NOW = Instant.parse("2024-06-01T10:00:00Z");
+
+    private InsightsCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new InsightsCache(new InsightsCacheProperties(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void missingSnapshotShouldNotBeCached() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(USER_ID, userId -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+        Optional<InsightsSnapshot> loaded = cache.get(USER_ID, userId -> {
+            loads.incrementAndGet();
+            return Optional.of(snapshot(8L, true));
+        });
+
+        assertThat(loads).hasValue(2);
+        assertThat(loaded).map(InsightsSnapshot::getLedgerVersion).contains(8L);
+    }
+
+    @Test
+    void putShouldStoreTheSnapshotAsNotRefreshed() {
+        cache.put(USER_ID, snapshot(8L, true));
+
+        Optional<InsightsSnapshot> cached = cache.get(USER_ID, userId -> Optional.empty());
+
+        assertThat(cached).map(InsightsSnapshot::isRefreshed).contains(false);
+        assertThat(cache.stats().hitCount()).isEqualTo(1);
+    }
+
+    private InsightsSnapshot snapshot(long ledgerVersion, boolean refreshed) {
+        return new InsightsSnapshot(
+                new MonthlySummary(BigDecimal.TEN, BigDecimal.ONE, BigDecimal.valueOf(9), NOW),
+                new CategoriesSummary(Map.of(), Map.of(), NOW),
+                new RiskInsight(10, "LOW", "Tus gastos se mantienen bajo control", NOW),
+                "USD",
+                ledgerVersion,
+                refreshed
+        );
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.risk.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import com.example.risk.domain.RiskCase;
+import com.example.risk.domain.RiskStatus;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+@DataJpaTest
+class RiskCaseRepositoryTest {
+
+    private static final Instant NOW = Instant.parse("2024-06-01T10:00:00Z");
+
+    @Autowired
+    private RiskCaseRepository repository;
+
+    @Test
+    void upsertShouldKeepOneCasePerUserCategoryAndPeriod() {
+        repository.upsertByAlertKey(alert("Alimentos", "2024-06", 80, RiskStatus.REVIEWING));
+        repository.upsertByAlertKey(alert("Alimentos", "2024-06", 105, RiskStatus.OPEN));
+
+        assertThat(repository.findAllByUserId("user-1"))
+                .singleElement()
+                .satisfies(riskCase -> {
+                    assertThat(riskCase.getScore()).isEqualTo(105);
+                    assertThat(riskCase.getStatus()).isEqualTo(RiskStatus.OPEN);
+                    assertThat(riskCase.getReason()).isEqualTo("Presupuesto Alimentos al 105%");
+                    assertThat(riskCase.getCreatedAt()).isEqualTo(NOW);
+                });
+    }
+
+    @Test
+    void upsertShouldOpenANewCaseForAnotherCategoryOrPeriod() {
+        repository.upsertByAlertKey(alert("Alimentos", "2024-06", 80, RiskStatus.REVIEWING));
+        repository.upsertByAlertKey(alert("Transporte", "2024-06", 80, RiskStatus.REVIEWING));
+        repository.upsertByAlertKey(alert("Alimentos", "2024-07", 80, RiskStatus.REVIEWING));
+
+        assertThat(repository.findAllByUserId("user-1"))
+                .extracting(RiskCase::getCategory, RiskCase::getPeriod)
+                .containsExactlyInAnyOrder(
+                        tuple("Alimentos", "2024-06"),
+                        tuple("Transporte", "2024-06"),
+                        tuple("Alimentos", "2024-07"));
+    }
+
+    @Test
+    void upsertShouldKeepOneCaseForAlertsWithoutACategory() {
+        repository.upsertByAlertKey(alert(null, "2024-06", 80, RiskStatus.REVIEWING));
+        repository.upsertByAlertKey(alert(null, "2024-06", 105, RiskStatus.OPEN));
+
+        assertThat(repository.findAllByUserId("user-1"))
+                .singleElement()
+                .satisfies(riskCase -> {
+                    assertThat(riskCase.getCategory()).isEmpty();
+                    assertThat(riskCase.getScore()).isEqualTo(105);
+                });
+    }
+
+    private RiskCase alert(String category, String period, int score, RiskStatus status) {
+        RiskCase riskCase = new RiskCase(null, "user-1", score, status, "Presupuesto " + category + " al " + score + "%", NOW);
+        riskCase.setCategory(category);
+        riskCase.setPeriod(period);
+        return riskCase;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.risk.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.risk.domain.FxRates;
+import com.example.risk.domain.Transaction;
+import com.example.risk.domain.TransactionType;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class InsightsAggregatorTest {
+
+    private static final FxRates RATES = new FxRates("USD", Map.of("MXN", 20.0, "JPY", 150.0, "EUR", 0.8),
+            Instant.parse("2024-06-01T10:00:00Z"), false);
+
+    @Test
+    void shouldConvertEachCurrencyBucketIntoTheReportingCurrency() {
+        List<Transaction> transactions = List.of(
+                transaction(TransactionType.CREDIT, "1000.00", "USD", "Salario"),
+                transaction(TransactionType.CREDIT, "2000.00", "MXN", "Salario"),
+                transaction(TransactionType.DEBIT, "15000", "JPY", "Viajes"),
+                transaction(TransactionType.DEBIT, "40.00", "EUR", "Viajes"),
+                transaction(TransactionType.DEBIT, "10.00", null, "Comida")
+        );
+
+        InsightsAggregator totals = InsightsAggregator.of(transactions, "USD", RATES);
+
+        assertThat(totals.currency()).isEqualTo("USD");
+        assertThat(totals.unconvertedCurrencies()).isEmpty();
+        assertThat(totals.income()).isEqualByComparingTo("1100.00");
+        assertThat(totals.expense()).isEqualByComparingTo("160.00");
+        assertThat(totals.netBalance()).isEqualByComparingTo("940.00");
+        assertThat(totals.incomesByCategory()).containsEntry("Salario", new BigDecimal("1100.00"));
+        assertThat(totals.expensesByCategory())
+                .containsEntry("Viajes", new BigDecimal("150.00"))
+                .containsEntry("Comida", new BigDecimal("10.00"));
+    }
+
+    @Test
+    void shouldConvertThroughTheRateBaseWhenReportingInAnotherCurrency() {
+        List<Transaction> transactions = List.of(
+                transaction(TransactionType.CREDIT, "100.00", "USD", "Salario"),
+                transaction(TransactionType.DEBIT, "500.00", "MXN", "Comida")
+        );
+
+        InsightsAggregator totals = InsightsAggregator.of(transactions, "MXN", RATES);
+
+        assertThat(totals.income()).isEqualByComparingTo("2000.00");
+        assertThat(totals.expense()).isEqualByComparingTo("500.00");
+    }
+
+    @Test
+    void shouldLeaveOutCurrenciesWithoutRate() {
+        List<Transaction> transactions = List.of(
+                transaction(TransactionType.CREDIT, "100.00", "USD", "Salario"),
+                transaction(TransactionType.DEBIT, "30.00", "GBP", "Comida")
+        );
+
+        InsightsAggregator totals = InsightsAggregator.of(transactions, "USD", RATES);
+
+        assertThat(totals.unconvertedCurrencies()).containsExactly("GBP");
+        assertThat(totals.income()).isEqualByComparingTo("100.00");
+        assertThat(totals.expense()).isEqualByComparingTo("0.00");
+        assertThat(totals.expensesByCategory()).isEmpty();
+    }
+
+    private Transaction transaction(TransactionType type, String amount, String currency, String category) {
+        Transaction transaction = new Transaction();
+        transaction.setType(type);
+        transaction.setCurrency(currency);
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setCategory(category);
+        return transaction;
+    }
+}
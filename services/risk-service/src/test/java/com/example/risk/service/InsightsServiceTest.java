@@ -0,0 +1,157 @@
+package com.example.risk.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.risk.config.InsightsCacheProperties;
+import com.example.risk.domain.CategoriesSummary;
+import com.example.risk.domain.FxRates;
+import com.example.risk.domain.InsightsSnapshot;
+import com.example.risk.domain.MonthlySummary;
+import com.example.risk.domain.RiskInsight;
+import com.example.risk.domain.UserLedger;
+import com.example.risk.repository.InsightsCache;
+import com.example.risk.repository.InsightsRepository;
+import com.example.risk.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class InsightsServiceTest {
+
+    private static final String USER_ID = "user-1";
+    private static final Instant NOW = Instant.parse("2024-06-01T10:00:00Z");
+
+    @Mock
+    private InsightsRepository insightsRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private RiskCaseService riskCaseService;
+
+    @Mock
+    private MarketDataClient marketDataClient;
+
+    private InsightsCache insightsCache;
+    private InsightsService insightsService;
+
+    @BeforeEach
+    void setUp() {
+        insightsCache = new InsightsCache(new InsightsCacheProperties(), new SimpleMeterRegistry());
+        insightsService = new InsightsService(insightsRepository, insightsCache, transactionRepository, riskCaseService,
+                marketDataClient, "USD", Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void getInsightsShouldServeTheCacheWhileTheLedgerVersionMatches() {
+        InsightsSnapshot cached = snapshot(7L);
+        givenLedger(new UserLedger(7L, Optional.empty()));
+        when(insightsRepository.findSnapshot(USER_ID)).thenReturn(Optional.of(cached));
+
+        InsightsSnapshot result = insightsService.getInsights(USER_ID);
+
+        assertThat(result).isSameAs(cached);
+        verify(transactionRepository, never()).findAllForUser(any());
+        verify(insightsRepository, never()).saveSnapshot(any(), any());
+    }
+
+    @Test
+    void getInsightsShouldRecalculateAtTheNewVersionWhenTheLedgerMoved() {
+        givenLedger(new UserLedger(8L, Optional.empty()));
+        when(insightsRepository.findSnapshot(USER_ID)).thenReturn(Optional.of(snapshot(7L)));
+        when(transactionRepository.findAllForUser(USER_ID)).thenReturn(List.of());
+        when(marketDataClient.latestRates()).thenReturn(FxRates.EMPTY);
+
+        InsightsSnapshot result = insightsService.getInsights(USER_ID);
+
+        ArgumentCaptor<InsightsSnapshot> saved = ArgumentCaptor.forClass(InsightsSnapshot.class);
+        verify(insightsRepository).saveSnapshot(any(), saved.capture());
+        assertThat(saved.getValue()).isSameAs(result);
+        assertThat(result.getLedgerVersion()).isEqualTo(8L);
+        assertThat(result.isRefreshed()).isTrue();
+    }
+
+    @Test
+    void getInsightsShouldRecalculateWhenTheReportingCurrencyChanged() {
+        givenLedger(new UserLedger(7L, Optional.of("MXN")));
+        when(insightsRepository.findSnapshot(USER_ID)).thenReturn(Optional.of(snapshot(7L)));
+        when(transactionRepository.findAllForUser(USER_ID)).thenReturn(List.of());
+        when(marketDataClient.latestRates()).thenReturn(FxRates.EMPTY);
+
+        InsightsSnapshot result = insightsService.getInsights(USER_ID);
+
+        assertThat(result.getCurrency()).isEqualTo("MXN");
+        assertThat(result.getLedgerVersion()).isEqualTo(7L);
+    }
+
+    @Test
+    void repeatedReadsShouldBeServedFromTheInProcessCache() {
+        givenLedger(new UserLedger(7L, Optional.empty()));
+        when(insightsRepository.findSnapshot(USER_ID)).thenReturn(Optional.of(snapshot(7L)));
+
+        insightsService.getInsights(USER_ID);
+        insightsService.getInsights(USER_ID);
+
+        verify(insightsRepository, times(1)).findSnapshot(USER_ID);
+        verify(insightsRepository, times(2)).findUserLedger(USER_ID);
+        assertThat(insightsCache.stats().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void cachedSnapshotShouldBeRecalculatedAsSoonAsTheStoredLedgerVersionMoves() {
+        when(insightsRepository.findUserLedger(USER_ID))
+                .thenReturn(new UserLedger(8L, Optional.empty()))
+                .thenReturn(new UserLedger(8L, Optional.empty()))
+                .thenReturn(new UserLedger(9L, Optional.empty()));
+        when(insightsRepository.findSnapshot(USER_ID)).thenReturn(Optional.of(snapshot(7L)));
+        when(transactionRepository.findAllForUser(USER_ID)).thenReturn(List.of());
+        when(marketDataClient.latestRates()).thenReturn(FxRates.EMPTY);
+
+        insightsService.getInsights(USER_ID);
+        InsightsSnapshot cached = insightsService.getInsights(USER_ID);
+
+        assertThat(cached.getLedgerVersion()).isEqualTo(8L);
+        assertThat(cached.isRefreshed()).isFalse();
+
+        InsightsSnapshot afterBump = insightsService.getInsights(USER_ID);
+
+        assertThat(afterBump.getLedgerVersion()).isEqualTo(9L);
+        assertThat(afterBump.isRefreshed()).isTrue();
+        verify(insightsRepository, times(1)).findSnapshot(USER_ID);
+        verify(transactionRepository, times(2)).findAllForUser(USER_ID);
+    }
+
+    private void givenLedger(UserLedger ledger) {
+        when(insightsRepository.findUserLedger(USER_ID)).thenReturn(ledger);
+    }
+
+    private InsightsSnapshot snapshot(long ledgerVersion) {
+        Instant updatedAt = NOW.minusSeconds(60);
+        return new InsightsSnapshot(
+                new MonthlySummary(BigDecimal.TEN, BigDecimal.ONE, BigDecimal.valueOf(9), updatedAt),
+                new CategoriesSummary(Map.of(), Map.of(), updatedAt),
+                new RiskInsight(10, "LOW", "Tus gastos se mantienen bajo control", updatedAt),
+                "USD",
+                ledgerVersion,
+                false
+        );
+    }
+}
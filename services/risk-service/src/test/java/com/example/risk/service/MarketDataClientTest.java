@@ -0,0 +1,187 @@
+package com.example.risk.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.risk.config.MarketDataProperties;
+import com.example.risk.domain.FxRates;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+class MarketDataClientTest {
+
+    private static final Instant NOW = Instant.parse("2024-06-01T10:00:00Z");
+
+    private MockWebServer server;
+    private MarketDataProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        properties = new MarketDataProperties();
+        properties.setUrl(server.url("/latest").toString());
+        properties.setStaleAfter(Duration.ofMinutes(15));
+        properties.setFailureThreshold(2);
+        properties.setOpenDuration(Duration.ofMinutes(1));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    void latestRatesShouldNotWaitForTheFirstRefresh() {
+        List<Runnable> pending = new ArrayList<>();
+        MarketDataClient client = client(Clock.fixed(NOW, ZoneOffset.UTC), pending::add);
+        server.enqueue(rates("{\"rates\":{\"MXN\":17.5}}"));
+
+        FxRates before = client.latestRates();
+
+        assertThat(before.rates()).isEmpty();
+        assertThat(before.stale()).isTrue();
+        assertThat(pending).hasSize(1);
+
+        pending.get(0).run();
+
+        FxRates after = client.latestRates();
+        assertThat(after.rates()).containsEntry("MXN", 17.5);
+        assertThat(after.fetchedAt()).isEqualTo(NOW);
+        assertThat(after.stale()).isFalse();
+    }
+
+    @Test
+    void concurrentRefreshesShouldShareOneRequest() {
+        List<Runnable> pending = new ArrayList<>();
+        MarketDataClient client = client(Clock.fixed(NOW, ZoneOffset.UTC), pending::add);
+        server.enqueue(rates("{\"rates\":{\"EUR\":0.92}}"));
+
+        CompletableFuture<FxRates> first = client.refreshAsync();
+        CompletableFuture<FxRates> second = client.refreshAsync();
+        client.scheduledRefresh();
+
+        assertThat(second).isSameAs(first);
+        assertThat(pending).hasSize(1);
+
+        pending.get(0).run();
+
+        assertThat(first.join().rates()).containsEntry("EUR", 0.92);
+        assertThat(server.getRequestCount()).isEqualTo(1);
+        assertThat(client.refreshAsync()).isNotSameAs(first);
+    }
+
+    @Test
+    void failedRefreshShouldKeepLastKnownGoodRatesAndReportThemStale() {
+        MutableClock clock = new MutableClock(NOW);
+        MarketDataClient client = client(clock, Runnable::run);
+        server.enqueue(rates("{\"rates\":{\"MXN\":17.5}}"));
+        server.enqueue(new MockResponse().setResponseCode(503));
+
+        client.refreshAsync().join();
+        clock.advance(Duration.ofMinutes(20));
+        FxRates afterFailure = client.refreshAsync().join();
+
+        assertThat(afterFailure.rates()).containsEntry("MXN", 17.5);
+        assertThat(afterFailure.fetchedAt()).isEqualTo(NOW);
+        assertThat(afterFailure.stale()).isTrue();
+        assertThat(meterRegistry.get("fx.rates.refresh").tag("outcome", "failure").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void openCircuitShouldSkipUpstreamUntilItCoolsDown() {
+        MutableClock clock = new MutableClock(NOW);
+        MarketDataClient client = client(clock, Runnable::run);
+        server.enqueue(new MockResponse().setResponseCode(500));
+        server.enqueue(new MockResponse().setResponseCode(500));
+        server.enqueue(rates("{\"rates\":{\"MXN\":17.1}}"));
+
+        client.refreshAsync().join();
+        client.refreshAsync().join();
+        client.refreshAsync().join();
+
+        assertThat(server.getRequestCount()).isEqualTo(2);
+        assertThat(meterRegistry.get("fx.rates.circuit.open").gauge().value()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("fx.rates.refresh").tag("outcome", "rejected").counter().count()).isEqualTo(1.0);
+
+        clock.advance(Duration.ofMinutes(2));
+        FxRates recovered = client.refreshAsync().join();
+
+        assertThat(server.getRequestCount()).isEqualTo(3);
+        assertThat(recovered.rates()).containsEntry("MXN", 17.1);
+        assertThat(meterRegistry.get("fx.rates.circuit.open").gauge().value()).isZero();
+    }
+
+    @Test
+    void malformedRatesShouldCountAsFailuresAndOpenTheCircuit() {
+        MutableClock clock = new MutableClock(NOW);
+        MarketDataClient client = client(clock, Runnable::run);
+        server.enqueue(rates("{\"rates\":{\"MXN\":17.5}}"));
+        server.enqueue(rates("{\"rates\":{\"MXN\":null}}"));
+        server.enqueue(rates("{\"rates\":{\"MXN\":17.4,\"EUR\":0}}"));
+
+        client.refreshAsync().join();
+        clock.advance(Duration.ofMinutes(20));
+        FxRates afterNull = client.refreshAsync().join();
+        client.refreshAsync().join();
+        client.refreshAsync().join();
+
+        assertThat(afterNull.rates()).containsEntry("MXN", 17.5);
+        assertThat(afterNull.stale()).isTrue();
+        assertThat(server.getRequestCount()).isEqualTo(3);
+        assertThat(meterRegistry.get("fx.rates.refresh").tag("outcome", "failure").counter().count()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("fx.rates.circuit.open").gauge().value()).isEqualTo(1.0);
+    }
+
+    private MarketDataClient client(Clock clock, Executor executor) {
+        return new MarketDataClient(new RestTemplate(), properties, meterRegistry, clock, executor);
+    }
+
+    private MockResponse rates(String body) {
+        return new MockResponse().setBody(body).addHeader("Content-Type", "application/json");
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.risk.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+
+import com.example.risk.domain.RiskCase;
+import com.example.risk.domain.RiskStatus;
+import com.example.risk.repository.RiskCaseRepository;
+import com.example.risk.web.dto.RiskCaseRequest;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class RiskCaseServiceTest {
+
+    private static final Instant NOW = Instant.parse("2024-06-30T23:30:00Z");
+
+    @Mock
+    private RiskCaseRepository repository;
+
+    @Test
+    void upsertBudgetAlertShouldTakeThePeriodFromTheClockInUtc() {
+        RiskCaseService service = new RiskCaseService(repository, Clock.fixed(NOW, ZoneOffset.ofHours(2)));
+
+        service.upsertBudgetAlert(new RiskCaseRequest("user-1", 90, RiskStatus.REVIEWING, "Presupuesto Alimentos al 90%"), "Alimentos");
+
+        ArgumentCaptor<RiskCase> captor = ArgumentCaptor.forClass(RiskCase.class);
+        verify(repository).upsertByAlertKey(captor.capture());
+        assertThat(captor.getValue().getPeriod()).isEqualTo("2024-06");
+        assertThat(captor.getValue().getCategory()).isEqualTo("Alimentos");
+        assertThat(captor.getValue().getCreatedAt()).isEqualTo(NOW);
+    }
+}
@@ -36,4 +36,5 @@ include(":app")
 include(":services:ledger-service")
 include(":services:risk-service")
 include(":services:notification-service")
+include(":services:benchmarks")
  
\ No newline at end of file